@@ -0,0 +1,58 @@
+package com.pinncode.service.kafkalistener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Corpus de payloads JSON para los benchmarks, en {@code src/jmh/resources/payloads}.
+ * <p>
+ * Tamaños disponibles (usados como {@code @Param} de los benchmarks):
+ * <ul>
+ *   <li>{@code small} (~100 B): solo los campos mapeados de {@code KafkaEvent}</li>
+ *   <li>{@code medium} (~2 KB): campos mapeados al inicio, seguidos de metadatos, cliente y 8 artículos</li>
+ *   <li>{@code large} (~8 KB): 40 artículos, con {@code status} y {@code created_datetime} al final</li>
+ *   <li>{@code xlarge} (~18 KB): 100 artículos, con {@code status} y {@code created_datetime} al final</li>
+ * </ul>
+ * En {@code large} y {@code xlarge} los campos mapeados quedan al final del documento, el peor caso
+ * para el parser en streaming, que debe recorrerlo completo.
+ */
+public final class PayloadCorpus {
+
+    private PayloadCorpus() {
+    }
+
+    /**
+     * Carga un payload del corpus como bytes UTF-8, tal como llega en el registro Kafka.
+     *
+     * @param size nombre del payload ({@code small}, {@code medium}, {@code large} o {@code xlarge})
+     * @return contenido del payload sin el salto de línea final
+     */
+    public static byte[] bytes(String size) {
+
+        String resource = "/payloads/" + size + ".json";
+
+        try (InputStream in = PayloadCorpus.class.getResourceAsStream(resource)) {
+
+            if (in == null) {
+                throw new IllegalArgumentException("Payload no encontrado en el corpus: " + resource);
+            }
+
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).strip().getBytes(StandardCharsets.UTF_8);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Carga un payload del corpus como texto.
+     *
+     * @param size nombre del payload ({@code small}, {@code medium}, {@code large} o {@code xlarge})
+     * @return contenido del payload sin el salto de línea final
+     */
+    public static String text(String size) {
+        return new String(bytes(size), StandardCharsets.UTF_8);
+    }
+}
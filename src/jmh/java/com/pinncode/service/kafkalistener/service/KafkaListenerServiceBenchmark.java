@@ -0,0 +1,107 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.PayloadCorpus;
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.transform.KafkaEventDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del recorrido completo de un registro: deserialización del payload con
+ * {@link KafkaEventDeserializer} y llamada a {@link KafkaListenerService#event} con un
+ * {@link Acknowledgment} de prueba.
+ * <p>
+ * Los componentes se conectan a mano en {@link ListenerFixture}, con la misma configuración por
+ * defecto que la aplicación y el modo de logging como parámetro. {@code logback-jmh.xml} mantiene el
+ * nivel {@code INFO} de la aplicación pero solo escribe advertencias y errores: cada modo construye sus
+ * trazas (el bloque por registro de {@code DETAILED}, la línea muestreada de {@code STRUCTURED}) y se
+ * mide ese coste, no el de la escritura en el appender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaListenerServiceBenchmark {
+
+    private static final String TOPIC = "benchmark-topic";
+
+    /** Payload de {@link PayloadCorpus} */
+    @Param({"small", "medium", "large", "xlarge"})
+    public String payloadSize;
+
+    /** Modo de logging por registro */
+    @Param({"DETAILED", "STRUCTURED"})
+    public KafkaEventLogger.Mode loggingMode;
+
+    private byte[] payload;
+
+    private ListenerFixture fixture;
+
+    /** Acknowledgment de prueba: solo cuenta las confirmaciones */
+    private final CountingAcknowledgment acknowledgment = new CountingAcknowledgment();
+
+    private long offset;
+
+    @Setup
+    public void setUp() {
+
+        payload = PayloadCorpus.bytes(payloadSize);
+
+        fixture = new ListenerFixture(loggingMode, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        fixture.close();
+
+        if (acknowledgment.count == 0) {
+            throw new IllegalStateException("El listener no confirmó ningún registro");
+        }
+    }
+
+    /**
+     * Deserializa el payload y lo entrega al listener, como hace el contenedor por cada registro.
+     *
+     * @return número acumulado de confirmaciones, para que JIT no elimine la llamada
+     */
+    @Benchmark
+    public long event() {
+
+        KafkaEvent kafkaEvent = fixture.deserializer.deserialize(TOPIC, payload);
+
+        ConsumerRecord<String, KafkaEvent> consumerRecord =
+                new ConsumerRecord<>(TOPIC, 0, offset++, kafkaEvent.getReference(), kafkaEvent);
+
+        fixture.listener.event(consumerRecord, TOPIC, 0, consumerRecord.timestamp(), acknowledgment);
+
+        return acknowledgment.count;
+    }
+
+    private static final class CountingAcknowledgment implements Acknowledgment {
+
+        private long count;
+
+        @Override
+        public void acknowledge() {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.processing.BufferedProcessingStage;
+import com.pinncode.service.kafkalistener.processing.DeadLetterPublisher;
+import com.pinncode.service.kafkalistener.processing.EventDeduplicator;
+import com.pinncode.service.kafkalistener.processing.EventPipeline;
+import com.pinncode.service.kafkalistener.processing.KafkaEventPool;
+import com.pinncode.service.kafkalistener.processing.KeyOrderedProcessingEngine;
+import com.pinncode.service.kafkalistener.processing.OffsetCommitCoalescer;
+import com.pinncode.service.kafkalistener.transform.KafkaEventDeserializer;
+import com.pinncode.service.kafkalistener.transform.KafkaTransform;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Componentes del recorrido de un registro conectados a mano, sin contexto de Spring, para los
+ * benchmarks del listener.
+ * <p>
+ * Usa la misma configuración por defecto que la aplicación: procesamiento secuencial, validación
+ * compilada con Hibernate Validator, métricas con histogramas sobre un {@link SimpleMeterRegistry} y
+ * muestreo de {@value #SAMPLE_RATE} en el logging estructurado. El modo de logging y el pool de eventos
+ * ({@code kafka.processing.pooled.enabled}, sin detección de fugas) son configurables.
+ */
+final class ListenerFixture implements AutoCloseable {
+
+    /** {@code kafka.logging.sample-rate} */
+    static final int SAMPLE_RATE = 100;
+
+    /** {@code kafka.logging.max-payload-length} */
+    static final int MAX_PAYLOAD_LENGTH = 256;
+
+    final KafkaEventLogger eventLogger;
+
+    final KafkaEventPool eventPool;
+
+    final KafkaEventDeserializer deserializer;
+
+    final KafkaListenerService listener;
+
+    private final ValidatorFactory validatorFactory;
+
+    /**
+     * @param loggingMode modo de logging por registro
+     * @param pooled habilita el pool de eventos
+     */
+    ListenerFixture(KafkaEventLogger.Mode loggingMode, boolean pooled) {
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        KafkaPipelineMetrics metrics = new KafkaPipelineMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(metrics, "percentileHistogram", true);
+
+        eventLogger = newEventLogger(loggingMode, SAMPLE_RATE);
+
+        eventPool = new KafkaEventPool();
+        if (pooled) {
+            ReflectionTestUtils.setField(eventPool, "eventLogger", eventLogger);
+            ReflectionTestUtils.setField(eventPool, "meterRegistry", meterRegistry);
+            ReflectionTestUtils.setField(eventPool, "enabled", true);
+            ReflectionTestUtils.setField(eventPool, "capacity", 1000);
+            ReflectionTestUtils.invokeMethod(eventPool, "init");
+        }
+
+        deserializer = new KafkaEventDeserializer();
+        ReflectionTestUtils.setField(deserializer, "kafkaTransform", new KafkaTransform());
+        ReflectionTestUtils.setField(deserializer, "metrics", metrics);
+        ReflectionTestUtils.setField(deserializer, "eventPool", eventPool);
+
+        ValidateEventService validateEventService = new ValidateEventService();
+        ReflectionTestUtils.setField(validateEventService, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(validateEventService, "compiled", true);
+        ReflectionTestUtils.invokeMethod(validateEventService, "init");
+
+        EventPipeline eventPipeline = new EventPipeline();
+        ReflectionTestUtils.setField(eventPipeline, "validateEventService", validateEventService);
+        ReflectionTestUtils.setField(eventPipeline, "processEventService", new ProcessEventService());
+        ReflectionTestUtils.setField(eventPipeline, "metrics", metrics);
+        ReflectionTestUtils.setField(eventPipeline, "eventLogger", eventLogger);
+        ReflectionTestUtils.setField(eventPipeline, "deadLetterPublisher", new DeadLetterPublisher());
+        ReflectionTestUtils.setField(eventPipeline, "pollController", new AdaptivePollController());
+        ReflectionTestUtils.setField(eventPipeline, "lagMonitor", new ConsumerLagMonitor());
+        ReflectionTestUtils.setField(eventPipeline, "deduplicator", new EventDeduplicator());
+
+        listener = new KafkaListenerService();
+        ReflectionTestUtils.setField(listener, "eventPipeline", eventPipeline);
+        ReflectionTestUtils.setField(listener, "metrics", metrics);
+        ReflectionTestUtils.setField(listener, "processingEngine", new KeyOrderedProcessingEngine());
+        ReflectionTestUtils.setField(listener, "processingBuffer", new BufferedProcessingStage());
+        ReflectionTestUtils.setField(listener, "eventLogger", eventLogger);
+        ReflectionTestUtils.setField(listener, "commitCoalescer", new OffsetCommitCoalescer());
+        ReflectionTestUtils.setField(listener, "eventPool", eventPool);
+    }
+
+    /**
+     * Crea un {@link KafkaEventLogger} con la longitud máxima de evento de la aplicación.
+     *
+     * @param mode modo de logging por registro
+     * @param sampleRate registra 1 de cada {@code sampleRate} resultados correctos en modo estructurado
+     */
+    static KafkaEventLogger newEventLogger(KafkaEventLogger.Mode mode, int sampleRate) {
+
+        KafkaEventLogger eventLogger = new KafkaEventLogger();
+        ReflectionTestUtils.setField(eventLogger, "mode", mode);
+        ReflectionTestUtils.setField(eventLogger, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(eventLogger, "maxPayloadLength", MAX_PAYLOAD_LENGTH);
+
+        return eventLogger;
+    }
+
+    @Override
+    public void close() {
+        validatorFactory.close();
+    }
+}
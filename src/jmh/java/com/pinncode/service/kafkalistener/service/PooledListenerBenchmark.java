@@ -0,0 +1,196 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.PayloadCorpus;
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import com.pinncode.service.kafkalistener.processing.KafkaEventPool;
+import com.pinncode.service.kafkalistener.transform.KafkaEventDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del recorrido de un registro en el modo sin asignaciones ({@code kafka.processing.pooled.enabled}):
+ * deserialización en el sitio sobre un evento de {@link KafkaEventPool}, llamada a
+ * {@link KafkaListenerService#event} y devolución del evento al pool.
+ * <p>
+ * Misma configuración que {@link KafkaListenerServiceBenchmark} ({@link ListenerFixture}), con el pool
+ * habilitado y sin detección de fugas. El {@code ConsumerRecord} se crea una vez con el evento que el pool entrega en estado estable, de
+ * modo que solo se mide el código de la aplicación y no las asignaciones del cliente de Kafka.
+ * <p>
+ * Las trazas se generan con el nivel INFO de {@code logback-jmh.xml}. El listener se configura con el
+ * modo de logging por defecto ({@code DETAILED}), que el pool sustituye por {@code STRUCTURED}: solo
+ * los resultados muestreados (1 de cada {@value ListenerFixture#SAMPLE_RATE}) crean la línea de log.
+ * <p>
+ * Además del resultado de {@code -prof gc}, mide los bytes asignados por el hilo del benchmark en cada
+ * iteración y, al terminar, falla si en la última iteración cada registro asigna algo más que el
+ * {@code String} de {@code reference} (la única asignación que el modelo no permite evitar) y su parte
+ * de las líneas muestreadas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PooledListenerBenchmark {
+
+    private static final String TOPIC = "benchmark-topic";
+
+    /** Bytes por registro tolerados sobre el {@code String} de {@code reference} (asignaciones de JMH por iteración) */
+    private static final double ALLOCATION_TOLERANCE = 1.0;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Payload de {@link PayloadCorpus} */
+    @Param({"small", "medium", "large", "xlarge"})
+    public String payloadSize;
+
+    private byte[] payload;
+
+    private ListenerFixture fixture;
+
+    /** Registro con el evento que el pool entrega en estado estable */
+    private ConsumerRecord<String, KafkaEvent> consumerRecord;
+
+    /** Acknowledgment de prueba: solo cuenta las confirmaciones */
+    private final CountingAcknowledgment acknowledgment = new CountingAcknowledgment();
+
+    /** Bytes que asigna el {@code String} de {@code reference} del payload */
+    private double referenceBytes;
+
+    /** Bytes por registro de las líneas de log muestreadas */
+    private double sampledLogBytes;
+
+    /** Bytes asignados por el hilo y confirmaciones al empezar la iteración */
+    private long iterationStartBytes;
+    private long iterationStartCount;
+
+    /** Bytes por registro de la última iteración */
+    private double lastIterationBytesPerRecord = Double.NaN;
+
+    /** Destino de las cadenas de la medición de {@link #referenceBytes}, para que no se eliminen */
+    private volatile String sink;
+
+    @Setup
+    public void setUp() {
+
+        payload = PayloadCorpus.bytes(payloadSize);
+
+        fixture = new ListenerFixture(KafkaEventLogger.Mode.DETAILED, true);
+
+        if (fixture.eventLogger.getMode() != KafkaEventLogger.Mode.STRUCTURED) {
+            throw new IllegalStateException("El pool no cambió el logging al modo estructurado");
+        }
+
+        // El primer evento del pool es el que se reutiliza en cada registro
+        KafkaEvent kafkaEvent = fixture.deserializer.deserialize(TOPIC, payload);
+        consumerRecord = new ConsumerRecord<>(TOPIC, 0, 0, kafkaEvent.getReference(), kafkaEvent);
+        referenceBytes = stringBytes(kafkaEvent.getReference());
+        sampledLogBytes = logLineBytes(consumerRecord) / ListenerFixture.SAMPLE_RATE;
+        fixture.listener.event(consumerRecord, TOPIC, 0, consumerRecord.timestamp(), acknowledgment);
+    }
+
+    /**
+     * Bytes que asigna crear una copia de la cadena, como hace el parser con {@code reference}.
+     */
+    private double stringBytes(String text) {
+
+        char[] chars = text.toCharArray();
+        int copies = 10_000;
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < copies; i++) {
+            sink = new String(chars, 0, chars.length);
+        }
+
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / (double) copies;
+    }
+
+    /**
+     * Bytes que asigna escribir la línea estructurada de un resultado correcto, medidos sin muestreo.
+     */
+    private static double logLineBytes(ConsumerRecord<String, KafkaEvent> consumerRecord) {
+
+        KafkaEventLogger unsampled = ListenerFixture.newEventLogger(KafkaEventLogger.Mode.STRUCTURED, 1);
+        int lines = 10_000;
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < lines; i++) {
+            unsampled.logOutcome(consumerRecord, EventOutcome.PROCESSED, null);
+        }
+
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / (double) lines;
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStartCount = acknowledgment.count;
+        iterationStartBytes = THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - iterationStartBytes;
+        long records = acknowledgment.count - iterationStartCount;
+
+        lastIterationBytesPerRecord = records > 0 ? allocated / (double) records : Double.NaN;
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        fixture.close();
+
+        if (!(lastIterationBytesPerRecord <= referenceBytes + sampledLogBytes + ALLOCATION_TOLERANCE)) {
+            throw new IllegalStateException(String.format("El modo sin asignaciones asigna %.1f bytes por registro; "
+                    + "solo se esperan los %.1f del String de reference y %.1f de las líneas de log muestreadas",
+                    lastIterationBytesPerRecord, referenceBytes, sampledLogBytes));
+        }
+    }
+
+    /**
+     * Deserializa el payload sobre el evento del pool y lo entrega al listener, que lo devuelve al pool.
+     *
+     * @return número acumulado de confirmaciones, para que JIT no elimine la llamada
+     */
+    @Benchmark
+    public long event() {
+
+        if (fixture.deserializer.deserialize(TOPIC, payload) != consumerRecord.value()) {
+            throw new IllegalStateException("El pool no reutilizó el evento del registro anterior");
+        }
+
+        fixture.listener.event(consumerRecord, TOPIC, 0, consumerRecord.timestamp(), acknowledgment);
+
+        return acknowledgment.count;
+    }
+
+    private static final class CountingAcknowledgment implements Acknowledgment {
+
+        private long count;
+
+        @Override
+        public void acknowledge() {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link ValidateEventService#checkBusinessRulesForTheEvent(KafkaEvent)}.
+ * <p>
+ * Usa el mismo proveedor de Bean Validation que la aplicación (Hibernate Validator) con un evento
+ * válido y con uno sin {@code reference}, con el validador compilado ({@code compiled=true}) y con
+ * {@code Validator.validate} en cada evento ({@code compiled=false}). Las advertencias del caso inválido se descartan en
+ * {@code logback-jmh.xml}, por lo que se mide la validación y la construcción de las violaciones,
+ * no la escritura del log.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidateEventServiceBenchmark {
+
+    /** Evento a validar: {@code VALID} o {@code INVALID} (sin {@code reference}) */
+    @Param({"VALID", "INVALID"})
+    public String eventType;
+
+    /** Valor de {@code kafka.validation.compiled} */
+    @Param({"true", "false"})
+    public boolean compiled;
+
+    private ValidatorFactory validatorFactory;
+
+    private ValidateEventService validateEventService;
+
+    private KafkaEvent kafkaEvent;
+
+    @Setup
+    public void setUp() {
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+
+        validateEventService = new ValidateEventService();
+        ReflectionTestUtils.setField(validateEventService, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(validateEventService, "compiled", compiled);
+        ReflectionTestUtils.invokeMethod(validateEventService, "init");
+
+        kafkaEvent = new KafkaEvent("VALID".equals(eventType) ? "REF000000001" : null, "In Progress",
+                Timestamp.valueOf("2023-10-01 12:00:00"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean checkBusinessRules() {
+        return validateEventService.checkBusinessRulesForTheEvent(kafkaEvent);
+    }
+}
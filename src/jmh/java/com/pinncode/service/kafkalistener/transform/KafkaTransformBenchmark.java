@@ -0,0 +1,91 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pinncode.service.kafkalistener.PayloadCorpus;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link KafkaTransform#kafkaEventStringToObjectTransform(String)}.
+ * <p>
+ * Compara el {@code ObjectReader} compartido con el comportamiento anterior, que construía un
+ * {@link ObjectMapper} y registraba {@link JavaTimeModule} por cada mensaje, y el parser en streaming
+ * con la lectura completa vía databind ({@link ObjectReader}), sobre los payloads de
+ * {@link PayloadCorpus}. Ejecutar con
+ * {@code -prof gc} (por defecto en el perfil {@code benchmarks}) para ver los bytes asignados
+ * por registro ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaTransformBenchmark {
+
+    /** Payload de {@link PayloadCorpus} */
+    @Param({"small", "medium", "large", "xlarge"})
+    public String payloadSize;
+
+    private String payload;
+
+    private KafkaTransform kafkaTransform;
+
+    private ObjectReader databindReader;
+
+    @Setup
+    public void setUp() {
+        payload = PayloadCorpus.text(payloadSize);
+        kafkaTransform = new KafkaTransform();
+        databindReader = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(KafkaEvent.class);
+    }
+
+    /**
+     * Ruta actual: parser en streaming con fallback al lector compartido.
+     */
+    @Benchmark
+    public KafkaEvent sharedReader() {
+        return kafkaTransform.kafkaEventStringToObjectTransform(payload);
+    }
+
+    /**
+     * Lectura completa con el deserializador de beans de databind (lector compartido).
+     */
+    @Benchmark
+    public KafkaEvent databindReader() throws JsonProcessingException {
+        return databindReader.readValue(payload);
+    }
+
+    /**
+     * Ruta anterior: un {@link ObjectMapper} nuevo por mensaje.
+     */
+    @Benchmark
+    public KafkaEvent mapperPerRecord() throws JsonProcessingException {
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        return objectMapper.readValue(payload, KafkaEvent.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pinncode.service.kafkalistener.PayloadCorpus;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de los {@link PayloadCodec} incluidos sobre los payloads de {@link PayloadCorpus}.
+ * <p>
+ * Cada documento del corpus se convierte completo (incluidos los campos no mapeados) a Smile y CBOR,
+ * de modo que los tres formatos transportan la misma información. Mide la decodificación con
+ * {@link PayloadCodec#decode} tras elegir el codec con {@link KafkaTransform#codecFor}, como hace el
+ * deserializador, y la decodificación sobre un evento reutilizado ({@link PayloadCodec#decodeInto}).
+ * El tamaño del payload codificado se registra al preparar cada combinación de parámetros
+ * ({@code logback-jmh.xml}).
+ */
+@Slf4j
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadCodecBenchmark {
+
+    /** Payload de {@link PayloadCorpus} */
+    @Param({"small", "medium", "large", "xlarge"})
+    public String payloadSize;
+
+    /** Formato del payload */
+    @Param({"json", "smile", "cbor"})
+    public String codec;
+
+    private byte[] payload;
+
+    private KafkaTransform kafkaTransform;
+
+    private final KafkaEvent reusedEvent = new KafkaEvent();
+
+    @Setup
+    public void setUp() throws IOException {
+
+        byte[] json = PayloadCorpus.bytes(payloadSize);
+        JsonNode document = new ObjectMapper().readTree(json);
+
+        payload = switch (codec) {
+            case "json" -> json;
+            case "smile" -> new ObjectMapper(new SmileFactory()).writeValueAsBytes(document);
+            case "cbor" -> new ObjectMapper(new CBORFactory()).writeValueAsBytes(document);
+            default -> throw new IllegalArgumentException("Codec desconocido: " + codec);
+        };
+
+        kafkaTransform = new KafkaTransform();
+
+        String detected = kafkaTransform.codecFor(null, payload, 0, payload.length).name();
+
+        if (!detected.equals(codec)) {
+            throw new IllegalStateException("Payload " + codec + " detectado como " + detected);
+        }
+
+        log.info("Payload {} en {}: {} bytes (JSON: {} bytes)", payloadSize, codec, payload.length, json.length);
+    }
+
+    /**
+     * Codec elegido por los bytes iniciales y decodificación a un evento nuevo.
+     */
+    @Benchmark
+    public KafkaEvent decode() throws IOException {
+        return kafkaTransform.codecFor(null, payload, 0, payload.length).decode(payload, 0, payload.length);
+    }
+
+    /**
+     * Codec elegido por los bytes iniciales y decodificación sobre un evento reutilizado.
+     */
+    @Benchmark
+    public KafkaEvent decodeInto() throws IOException {
+
+        kafkaTransform.codecFor(null, payload, 0, payload.length).decodeInto(payload, 0, payload.length, reusedEvent);
+
+        return reusedEvent;
+    }
+}
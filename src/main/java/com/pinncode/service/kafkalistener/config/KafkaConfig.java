@@ -1,19 +1,45 @@
 package com.pinncode.service.kafkalistener.config;
 
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.BufferedProcessingStage;
+import com.pinncode.service.kafkalistener.processing.EventPipeline;
+import com.pinncode.service.kafkalistener.processing.OffsetCommitCoalescer;
+import com.pinncode.service.kafkalistener.transform.KafkaEventDeserializer;
+import com.pinncode.service.kafkalistener.transform.KafkaEventSerializer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.retry.backoff.FixedBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
@@ -22,7 +48,10 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -33,7 +62,12 @@ import java.util.Properties;
  * <ul>
  *   <li>Consumidores Kafka ({@link #consumerFactory()})</li>
  *   <li>Fábrica de contenedores de listeners ({@link #kafkaListenerContainerFactory()})</li>
+ *   <li>Fábrica de contenedores de listeners por lotes ({@link #batchKafkaListenerContainerFactory()})</li>
  *   <li>Manejador de errores común para listeners ({@link #kafkaErrorHandler()})</li>
+ *   <li>Tópicos de reintento no bloqueantes y DLT ({@link #retryTopicConfiguration()}), opcional</li>
+ *   <li>Productor para republicar registros ({@link #producerFactory()}, {@link #kafkaTemplate()})</li>
+ *   <li>Tópico de mensajes muertos ({@link #deadLetterTopic()}), opcional</li>
+ *   <li>Administración de tópicos con el mismo servidor bootstrap ({@link #kafkaAdmin()})</li>
  *   <li>Plantilla de reintentos genérica ({@link #retryTemplate()})</li>
  *   <li>Cliente de administración de Kafka ({@link #kafkaAdminClient()})</li>
  * </ul>
@@ -48,11 +82,26 @@ import java.util.Properties;
  *   <li>{@code kafka.consumer.max-poll-records}</li>
  *   <li>{@code kafka.consumer.session-timeout-ms}</li>
  *   <li>{@code kafka.consumer.heartbeat-interval-ms}</li>
+ *   <li>{@code kafka.consumer.max-poll-interval-ms}</li>
+ *   <li>{@code kafka.consumer.poll-timeout}</li>
+ *   <li>{@code kafka.consumer.concurrency}</li>
+ *   <li>{@code kafka.consumer.commit.mode}</li>
+ *   <li>{@code kafka.consumer.batch.max-poll-records}</li>
+ *   <li>{@code kafka.processing.parallel.enabled}</li>
+ *   <li>{@code kafka.processing.parallel.max-poll-records}</li>
+ *   <li>{@code kafka.processing.buffer.enabled}</li>
  *   <li>{@code kafka.connection.retry.enabled}</li>
  *   <li>{@code kafka.connection.retry.max-attempts}</li>
  *   <li>{@code kafka.connection.retry.initial-interval}</li>
  *   <li>{@code kafka.connection.retry.max-interval}</li>
  *   <li>{@code kafka.connection.retry.multiplier}</li>
+ *   <li>{@code kafka.connection.retry.not-retryable-exceptions}</li>
+ *   <li>{@code kafka.consumer.retry-topic.*}</li>
+ *   <li>{@code kafka.consumer.dlt.topic}</li>
+ *   <li>{@code kafka.producer.linger-ms}</li>
+ *   <li>{@code kafka.producer.batch-size}</li>
+ *   <li>{@code kafka.producer.compression-type}</li>
+ *   <li>{@code kafka.producer.max-block-ms}</li>
  *   <li>{@code kafka.connection.timeout.connection-timeout}</li>
  *   <li>{@code kafka.connection.timeout.request-timeout}</li>
  * </ul>
@@ -64,10 +113,46 @@ import java.util.Properties;
 @EnableScheduling
 public class KafkaConfig {
 
+    /**
+     * Excepciones que no se reintentan: suelen ser definitivas (datos mal formados) y reintentarlas
+     * solo retrasa el resto de la partición. Las comparten el {@link #kafkaErrorHandler()} y los
+     * tópicos de reintento ({@link #retryTopicConfiguration()}).
+     */
+    private static final List<Class<? extends Exception>> NOT_RETRYABLE_EXCEPTIONS = List.of(
+        IllegalArgumentException.class,
+        NullPointerException.class,
+        com.fasterxml.jackson.core.JsonParseException.class,
+        com.fasterxml.jackson.databind.JsonMappingException.class
+    );
+
+    /** Deserializador de valores JSON a {@link KafkaEvent} directamente desde bytes */
+    @Autowired
+    private KafkaEventDeserializer kafkaEventDeserializer;
+
+    /** Serializador de {@link KafkaEvent} a JSON para republicar eventos */
+    @Autowired
+    private KafkaEventSerializer kafkaEventSerializer;
+
+    /** Pipeline de consumo; reporta los registros descartados por el manejador de errores */
+    @Autowired
+    private EventPipeline eventPipeline;
+
+    /** Agrupación de commits; determina el modo de ack de los contenedores */
+    @Autowired
+    private OffsetCommitCoalescer commitCoalescer;
+
+    /** Buffer de procesamiento; se vacía antes de ceder las particiones revocadas */
+    @Autowired
+    private BufferedProcessingStage processingBuffer;
+
     /** Servidor bootstrap de Kafka */
     @Value("${kafka.server}")
     private String bootstrapServers;
 
+    /** Tópico principal del consumidor */
+    @Value("${kafka.consumer.topic}")
+    private String topic;
+
     /** ID de grupo del consumidor */
     @Value("${kafka.consumer.group-id}")
     private String groupId;
@@ -84,6 +169,18 @@ public class KafkaConfig {
     @Value("${kafka.consumer.max-poll-records}")
     private int maxPollRecords;
 
+    /** Máximo de registros por poll en modo lote */
+    @Value("${kafka.consumer.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    /** Habilita el procesamiento paralelo por clave (acks asíncronos) */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean parallelProcessingEnabled;
+
+    /** Máximo de registros por poll en modo de procesamiento paralelo (en modo virtual, max-concurrency por defecto) */
+    @Value("${kafka.processing.parallel.max-poll-records:#{${kafka.processing.parallel.virtual-threads:false} ? ${kafka.processing.parallel.max-concurrency:1000} : 500}}")
+    private int parallelMaxPollRecords;
+
     /** Timeout de sesión del consumidor */
     @Value("${kafka.consumer.session-timeout-ms}")
     private int sessionTimeout;
@@ -92,6 +189,18 @@ public class KafkaConfig {
     @Value("${kafka.consumer.heartbeat-interval-ms}")
     private int heartbeatInterval;
 
+    /** Tiempo máximo (ms) entre polls antes de que el consumidor salga del grupo */
+    @Value("${kafka.consumer.max-poll-interval-ms:300000}")
+    private int maxPollInterval;
+
+    /** Espera máxima (ms) de cada poll sin registros disponibles */
+    @Value("${kafka.consumer.poll-timeout:30000}")
+    private long pollTimeout;
+
+    /** Consumidores (hilos) por contenedor de listener */
+    @Value("${kafka.consumer.concurrency:1}")
+    private int concurrency;
+
     /** Habilita reintentos de conexión */
     @Value("${kafka.connection.retry.enabled:true}")
     private boolean retryEnabled;
@@ -112,6 +221,58 @@ public class KafkaConfig {
     @Value("${kafka.connection.retry.multiplier:1.5}")
     private double retryMultiplier;
 
+    /** Excepciones adicionales (nombres de clase) que no deben reintentarse */
+    @Value("${kafka.connection.retry.not-retryable-exceptions:}")
+    private Class<?>[] additionalNotRetryableExceptions;
+
+    /** Intentos totales en modo de tópicos de reintento (el primero en el tópico principal) */
+    @Value("${kafka.consumer.retry-topic.attempts:4}")
+    private int retryTopicAttempts;
+
+    /** Espera (ms) antes de consumir el primer tópico de reintento */
+    @Value("${kafka.consumer.retry-topic.initial-interval:1000}")
+    private long retryTopicInitialInterval;
+
+    /** Multiplicador de la espera entre tópicos de reintento */
+    @Value("${kafka.consumer.retry-topic.multiplier:10}")
+    private double retryTopicMultiplier;
+
+    /** Espera máxima (ms) de un tópico de reintento */
+    @Value("${kafka.consumer.retry-topic.max-interval:60000}")
+    private long retryTopicMaxInterval;
+
+    /** Crea los tópicos de reintento y el DLT si no existen */
+    @Value("${kafka.consumer.retry-topic.auto-create-topics:true}")
+    private boolean retryTopicAutoCreate;
+
+    /** Particiones de los tópicos creados (-1 = valor por defecto del broker) */
+    @Value("${kafka.consumer.retry-topic.partitions:-1}")
+    private int retryTopicPartitions;
+
+    /** Factor de replicación de los tópicos creados (-1 = valor por defecto del broker) */
+    @Value("${kafka.consumer.retry-topic.replication-factor:-1}")
+    private short retryTopicReplicationFactor;
+
+    /** Tópico de mensajes muertos */
+    @Value("${kafka.consumer.dlt.topic:${kafka.consumer.topic}-dead-letter}")
+    private String deadLetterTopic;
+
+    /** Espera máxima (ms) del productor para completar un lote antes de enviarlo */
+    @Value("${kafka.producer.linger-ms:20}")
+    private int producerLingerMs;
+
+    /** Tamaño máximo (bytes) de un lote del productor por partición */
+    @Value("${kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    /** Compresión de los lotes del productor (none, gzip, snappy, lz4, zstd) */
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String producerCompressionType;
+
+    /** Bloqueo máximo (ms) de un envío si el buffer está lleno o faltan metadatos */
+    @Value("${kafka.producer.max-block-ms:5000}")
+    private long producerMaxBlockMs;
+
     /** Timeout de conexión (ms) */
     @Value("${kafka.connection.timeout.connection-timeout:30000}")
     private int connectionTimeout;
@@ -121,7 +282,7 @@ public class KafkaConfig {
     private int requestTimeout;
 
     /**
-     * Crea una {@link ConsumerFactory} parametrizada a {@code <String, String>} con
+     * Crea una {@link ConsumerFactory} parametrizada a {@code <String, KafkaEvent>} con
      * la configuración de consumidor estándar para la aplicación.
      * <p>
      * Ajustes destacados aplicados en las propiedades del consumidor ({@link ConsumerConfig}):
@@ -132,7 +293,13 @@ public class KafkaConfig {
      *   <li>{@link ConsumerConfig#ENABLE_AUTO_COMMIT_CONFIG}: commit automático de offsets ({@code kafka.consumer.enable-auto-commit}).</li>
      *   <li>{@link ConsumerConfig#MAX_POLL_RECORDS_CONFIG}: número máximo de registros por poll ({@code kafka.consumer.max-poll-records}).</li>
      *   <li>{@link ConsumerConfig#SESSION_TIMEOUT_MS_CONFIG} y {@link ConsumerConfig#HEARTBEAT_INTERVAL_MS_CONFIG}: estabilidad del grupo.</li>
-     *   <li>Deserializadores de clave/valor establecidos a {@link StringDeserializer}.</li>
+     *   <li>{@link ConsumerConfig#MAX_POLL_INTERVAL_MS_CONFIG}: tiempo máximo de procesamiento de un poll
+     *       ({@code kafka.consumer.max-poll-interval-ms}, por defecto 5 min), también usado como presupuesto
+     *       por el control adaptativo del poll.</li>
+     *   <li>Deserializador de clave {@link StringDeserializer}; deserializador de valor
+     *       {@link KafkaEventDeserializer} envuelto en {@link ErrorHandlingDeserializer}, de modo que el
+     *       payload se parsea desde bytes dentro del poll y los payloads inválidos llegan al manejador de
+     *       errores como {@code DeserializationException} en lugar de valores {@code null}.</li>
      *   <li>Parámetros de reconexión/retroceso: {@code request.timeout.ms}, {@code retry.backoff.ms},
      *       {@code reconnect.backoff.ms} y {@code reconnect.backoff.max.ms} derivados de las propiedades de conexión.</li>
      *   <li>Metadatos: {@code metadata.max.age.ms} y {@code fetch.max.wait.ms} para equilibrio entre latencia y rendimiento.</li>
@@ -145,7 +312,7 @@ public class KafkaConfig {
      * @see ConsumerConfig
      */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, KafkaEvent> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
 
         // Configuración básica
@@ -156,10 +323,7 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, sessionTimeout);
         configProps.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, heartbeatInterval);
-
-        // Deserializadores
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollInterval);
 
         // Configuración de reconexión y reintentos
         configProps.put(ConsumerConfig.CONNECTIONS_MAX_IDLE_MS_CONFIG, 300000);
@@ -172,7 +336,9 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.METADATA_MAX_AGE_CONFIG, 300000);
         configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        // Deserializadores: el valor se parsea directamente desde bytes a KafkaEvent
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(kafkaEventDeserializer));
     }
 
     /**
@@ -181,30 +347,100 @@ public class KafkaConfig {
      * <p>
      * Características principales del contenedor:
      * <ul>
-     *   <li>Ack manual inmediato: {@link ContainerProperties.AckMode#MANUAL_IMMEDIATE} para control explícito del commit.</li>
-     *   <li>Tiempo máximo de espera de poll: 30s, reduciendo wakeups innecesarios en baja carga.</li>
+     *   <li>Ack manual inmediato: {@link ContainerProperties.AckMode#MANUAL_IMMEDIATE} para control explícito del commit.
+     *       Con {@code kafka.consumer.commit.mode=COALESCED}, {@link ContainerProperties.AckMode#MANUAL} con commits
+     *       asíncronos; {@link OffsetCommitCoalescer} retiene los acknowledges y confirma con {@code commitSync} las
+     *       particiones revocadas.</li>
+     *   <li>Con {@code kafka.processing.buffer.enabled}, {@link BufferedProcessingStage} pausa y reanuda particiones
+     *       según la ocupación de su buffer, y sus registros se procesan antes de ceder una partición revocada
+     *       ({@link #recordRebalanceListener()}).</li>
+     *   <li>Tiempo máximo de espera de poll: {@code kafka.consumer.poll-timeout} (por defecto 30s), reduciendo
+     *       wakeups innecesarios en baja carga.</li>
+     *   <li>{@link ConsumerConfig#MAX_POLL_RECORDS_CONFIG} inicial; con {@code kafka.consumer.adaptive-poll.enabled}
+     *       lo ajusta en ejecución {@code AdaptivePollController} según el tiempo de procesamiento por registro.</li>
      *   <li>{@code missingTopicsFatal = false}: no falla el arranque si el tópico aún no existe.</li>
      *   <li>Si {@code kafka.connection.retry.enabled} es verdadero, se habilita el {@link #kafkaErrorHandler()} como manejador común.</li>
+     *   <li>Si {@code kafka.processing.parallel.enabled} es verdadero, se habilitan los acks asíncronos
+     *       ({@link ContainerProperties#setAsyncAcks(boolean)}): los acks fuera de orden emitidos por los
+     *       workers se difieren hasta completar los offsets anteriores de cada partición, y
+     *       {@link ConsumerConfig#MAX_POLL_RECORDS_CONFIG} se sobrescribe con
+     *       {@code kafka.processing.parallel.max-poll-records} para disponer de registros que paralelizar.</li>
      * </ul>
-     * La concurrencia (número de hilos/particiones) puede ajustarse externamente si se requiere
-     * mediante {@code factory.setConcurrency(n)} en otra configuración o perfil.
+     * La concurrencia inicial (consumidores por contenedor) es {@code kafka.consumer.concurrency} (por
+     * defecto 1); con {@code kafka.consumer.autoscale.enabled} la ajusta en ejecución
+     * {@code ListenerConcurrencyScaler} según el lag del grupo.
      *
      * @return Fábrica de contenedores lista para inyectarse en los listeners de Kafka
      * @see ConcurrentKafkaListenerContainerFactory
      * @see ContainerProperties
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, KafkaEvent> kafkaListenerContainerFactory() {
+
+        ConcurrentKafkaListenerContainerFactory<String, KafkaEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+
+        // Configuración del contenedor
+        configureCommits(factory.getContainerProperties());
+        factory.getContainerProperties().setConsumerRebalanceListener(recordRebalanceListener());
+        factory.getContainerProperties().setPollTimeout(pollTimeout);
+        factory.getContainerProperties().setMissingTopicsFatal(false);
+
+        // Commit en orden de acks emitidos fuera de orden por los workers
+        if (parallelProcessingEnabled) {
+            factory.getContainerProperties().setAsyncAcks(true);
+
+            Properties consumerOverrides = new Properties();
+            consumerOverrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(parallelMaxPollRecords));
+            factory.getContainerProperties().setKafkaConsumerProperties(consumerOverrides);
+        }
+
+        if (retryEnabled) {
+            factory.setCommonErrorHandler(kafkaErrorHandler());
+        }
+
+        return factory;
+    }
+
+    /**
+     * Construye una {@link ConcurrentKafkaListenerContainerFactory} para listeners por lotes
+     * ({@code List<ConsumerRecord<String, KafkaEvent>>}).
+     * <p>
+     * Comparte la {@link #consumerFactory()} y la configuración del contenedor de
+     * {@link #kafkaListenerContainerFactory()}, con las siguientes diferencias:
+     * <ul>
+     *   <li>{@code batchListener = true}: el listener recibe el resultado completo de cada poll.</li>
+     *   <li>{@link ConsumerConfig#MAX_POLL_RECORDS_CONFIG} se sobrescribe con
+     *       {@code kafka.consumer.batch.max-poll-records} (por defecto 500).</li>
+     *   <li>Un único acknowledge confirma todos los offsets del lote; con
+     *       {@code kafka.consumer.commit.mode=COALESCED} el commit es asíncrono.</li>
+     * </ul>
+     * Solo se utiliza cuando {@code kafka.consumer.batch.enabled} es verdadero.
+     *
+     * @return Fábrica de contenedores para listeners por lotes
+     * @see ConcurrentKafkaListenerContainerFactory#setBatchListener(Boolean)
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, KafkaEvent> batchKafkaListenerContainerFactory() {
 
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        ConcurrentKafkaListenerContainerFactory<String, KafkaEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
 
         // Configuración del contenedor
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
-        factory.getContainerProperties().setPollTimeout(30000);
+        configureCommits(factory.getContainerProperties());
+        factory.getContainerProperties().setPollTimeout(pollTimeout);
         factory.getContainerProperties().setMissingTopicsFatal(false);
 
+        // Tamaño de lote propio sin afectar al contenedor por registro
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerOverrides);
+
         if (retryEnabled) {
             factory.setCommonErrorHandler(kafkaErrorHandler());
         }
@@ -212,6 +448,38 @@ public class KafkaConfig {
         return factory;
     }
 
+    /**
+     * Listener de rebalanceo del contenedor por registro. Antes de confirmar los acknowledges pendientes
+     * de las particiones revocadas, espera a sus registros en el {@link BufferedProcessingStage} y después
+     * confirma los acknowledges retenidos por el {@link OffsetCommitCoalescer}.
+     */
+    private ConsumerAwareRebalanceListener recordRebalanceListener() {
+
+        return new ConsumerAwareRebalanceListener() {
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processingBuffer.drain(partitions);
+                commitCoalescer.onPartitionsRevokedBeforeCommit(consumer, partitions);
+            }
+        };
+    }
+
+    /**
+     * Modo de ack y de commit de un contenedor según {@code kafka.consumer.commit.mode}:
+     * {@link ContainerProperties.AckMode#MANUAL_IMMEDIATE} con {@code commitSync} por acknowledge, o
+     * {@link ContainerProperties.AckMode#MANUAL} con {@code commitAsync} de los acknowledges acumulados.
+     */
+    private void configureCommits(ContainerProperties containerProperties) {
+
+        if (commitCoalescer.isEnabled()) {
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            containerProperties.setSyncCommits(false);
+        } else {
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        }
+    }
+
     /**
      * Provee un {@link DefaultErrorHandler} para el procesamiento de errores en listeners Kafka.
      * <p>
@@ -221,12 +489,23 @@ public class KafkaConfig {
      *       {@code kafka.connection.retry.max-attempts} (valor mínimo 3).
      *   </li>
      *   <li>Marca como no reintentables: {@link IllegalArgumentException}, {@link NullPointerException},
-     *       {@code com.fasterxml.jackson.core.JsonParseException} y {@code com.fasterxml.jackson.databind.JsonMappingException}.
+     *       {@code com.fasterxml.jackson.core.JsonParseException} y {@code com.fasterxml.jackson.databind.JsonMappingException},
+     *       más las clases de {@code kafka.connection.retry.not-retryable-exceptions}.
      *       Estos errores suelen ser definitivos (datos mal formados) y se reportan sin reintento.</li>
-     *   <li>Registra cada reintento con el valor del mensaje y el número de intento.</li>
+     *   <li>Los payloads que no pueden deserializarse a {@link KafkaEvent} llegan como
+     *       {@code DeserializationException}, que {@link DefaultErrorHandler} ya clasifica como no reintentable.</li>
+     *   <li>Registra cada reintento con el valor del mensaje y el número de intento. Antes, libera el
+     *       acknowledge retenido de la partición ({@link OffsetCommitCoalescer#flush}) para que el commit
+     *       del registro descartado no quede detrás de un offset anterior.</li>
+     *   <li>Los registros descartados (reintentos agotados o excepción no reintentable) se reportan
+     *       mediante {@link EventPipeline#reportFailure} con resultado {@code PARSE_FAILED} o
+     *       {@code ERROR}, en el log y en el contador de resultados, y se publican en el DLT si
+     *       {@code kafka.consumer.dlt.enabled} es verdadero.</li>
      * </ul>
-     * Sugerencia: para estrategias de DLT (Dead-Letter Topic) se puede extender esta definición
-     * agregando un {@code DeadLetterPublishingRecoverer} como recuperador del {@link DefaultErrorHandler}.
+     * Los reintentos bloquean la partición mientras dura el backoff. Con
+     * {@code kafka.consumer.retry-topic.enabled} los contenedores del listener por registro usan en su
+     * lugar el manejador de {@link #retryTopicConfiguration()}, que mueve el registro fallido a un
+     * tópico de reintento.
      *
      * @return Manejador de errores configurado para ser usado por {@link #kafkaListenerContainerFactory()}
      * @see DefaultErrorHandler
@@ -237,17 +516,13 @@ public class KafkaConfig {
         // Configurar backoff más conservador para evitar problemas de seek
         BackOff backOff = new FixedBackOff(5000L, maxRetryAttempts > 0 ? maxRetryAttempts : 3L);
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(backOff);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(eventPipeline::reportFailure, backOff);
 
         // Configurar qué excepciones no deben reintentarse
-        errorHandler.addNotRetryableExceptions(
-            IllegalArgumentException.class,
-            NullPointerException.class,
-            com.fasterxml.jackson.core.JsonParseException.class,
-            com.fasterxml.jackson.databind.JsonMappingException.class
-        );
+        notRetryableExceptions().forEach(errorHandler::addNotRetryableExceptions);
 
         errorHandler.setRetryListeners((recordValue, ex, deliveryAttempt) -> {
+            commitCoalescer.flush(recordValue);
             log.error("Reintento {} para mensaje: {}", deliveryAttempt, recordValue.value());
             log.error("Error: {}", ex.getMessage());
         });
@@ -255,6 +530,163 @@ public class KafkaConfig {
         return errorHandler;
     }
 
+    /**
+     * Configura tópicos de reintento no bloqueantes para el listener por registro.
+     * <p>
+     * En lugar de reintentar en el mismo hilo (bloqueando la partición durante el backoff), un
+     * registro fallido se publica de inmediato en un tópico de reintento y el consumidor continúa con
+     * el resto de la partición. Cada tópico de reintento lo consume un listener diferido que espera a
+     * que venza el intervalo del registro (pausando la partición, sin bloquear el hilo):
+     * <ul>
+     *   <li>{@code kafka.consumer.retry-topic.attempts} intentos en total (por defecto 4: el original
+     *       y tres reintentos).</li>
+     *   <li>Backoff exponencial desde {@code initial-interval} con {@code multiplier} hasta
+     *       {@code max-interval}: por defecto 1s, 10s y 60s, en los tópicos
+     *       {@code <tópico>-retry-1000}, {@code <tópico>-retry-10000} y {@code <tópico>-retry-60000}.</li>
+     *   <li>Al agotar los intentos, o ante una excepción no reintentable (la misma lista que
+     *       {@link #kafkaErrorHandler()}, más {@code DeserializationException}), el registro va al
+     *       {@code <tópico>-dlt}, cuyo listener lo reporta ({@code KafkaListenerService#eventDlt}).</li>
+     *   <li>Si el propio listener del DLT falla, el registro se descarta en lugar de republicarse en el DLT.</li>
+     * </ul>
+     * Solo se activa con {@code kafka.consumer.retry-topic.enabled} y fuera del modo por lotes, que no
+     * admite tópicos de reintento. Los fallos de los workers del procesamiento paralelo no llegan al
+     * contenedor y, por tanto, no se reintentan por esta vía.
+     *
+     * @return Configuración de tópicos de reintento para {@code kafka.consumer.topic}
+     * @see RetryTopicConfigurationBuilder
+     */
+    @Bean
+    @ConditionalOnExpression("${kafka.consumer.retry-topic.enabled:false} and !${kafka.consumer.batch.enabled:false}")
+    public RetryTopicConfiguration retryTopicConfiguration() {
+
+        log.info("Tópicos de reintento habilitados para {}: {} intentos, backoff {}ms x{} (máx. {}ms)", topic,
+                retryTopicAttempts, retryTopicInitialInterval, retryTopicMultiplier, retryTopicMaxInterval);
+
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(topic)
+                .maxAttempts(retryTopicAttempts)
+                .exponentialBackoff(retryTopicInitialInterval, retryTopicMultiplier, retryTopicMaxInterval)
+                .notRetryOn(new ArrayList<Class<? extends Throwable>>(notRetryableExceptions()))
+                .autoCreateTopics(retryTopicAutoCreate, retryTopicPartitions, retryTopicReplicationFactor)
+                .dltHandlerMethod("kafkaListenerService", "eventDlt")
+                .dltProcessingFailureStrategy(DltStrategy.FAIL_ON_ERROR)
+                .create(kafkaTemplate());
+    }
+
+    /**
+     * Excepciones no reintentables: las de {@link #NOT_RETRYABLE_EXCEPTIONS} más las configuradas en
+     * {@code kafka.connection.retry.not-retryable-exceptions}.
+     *
+     * @throws IllegalArgumentException si una clase configurada no es una excepción
+     */
+    private List<Class<? extends Exception>> notRetryableExceptions() {
+
+        List<Class<? extends Exception>> exceptions = new ArrayList<>(NOT_RETRYABLE_EXCEPTIONS);
+
+        if (additionalNotRetryableExceptions == null) {
+            return exceptions;
+        }
+
+        for (Class<?> exceptionClass : additionalNotRetryableExceptions) {
+
+            if (!Exception.class.isAssignableFrom(exceptionClass)) {
+                throw new IllegalArgumentException("kafka.connection.retry.not-retryable-exceptions: "
+                        + exceptionClass.getName() + " no es una excepción");
+            }
+
+            exceptions.add(exceptionClass.asSubclass(Exception.class));
+        }
+
+        return exceptions;
+    }
+
+    /**
+     * Crea la {@link ProducerFactory} usada para republicar registros (tópicos de reintento y DLT).
+     * <p>
+     * Productor compartido, ajustado para rendimiento en lugar de latencia:
+     * <ul>
+     *   <li>{@link ProducerConfig#LINGER_MS_CONFIG} ({@code kafka.producer.linger-ms}, por defecto 20ms) y
+     *       {@link ProducerConfig#BATCH_SIZE_CONFIG} ({@code kafka.producer.batch-size}, por defecto 64KB):
+     *       agrupa los registros republicados en pocas peticiones al broker.</li>
+     *   <li>{@link ProducerConfig#COMPRESSION_TYPE_CONFIG} ({@code kafka.producer.compression-type},
+     *       por defecto {@code lz4}): compresión barata en CPU por lote.</li>
+     *   <li>{@link ProducerConfig#MAX_BLOCK_MS_CONFIG} ({@code kafka.producer.max-block-ms}, por defecto 5s):
+     *       acota el bloqueo del hilo que publica si el buffer está lleno o el broker no responde.</li>
+     * </ul>
+     * <p>
+     * El valor se serializa según su tipo con {@link DelegatingByTypeSerializer}:
+     * <ul>
+     *   <li>{@link KafkaEvent}: JSON mediante {@link KafkaEventSerializer}.</li>
+     *   <li>{@code byte[]}: sin cambios; es el payload original de los registros que no pudieron deserializarse.</li>
+     * </ul>
+     * Reutiliza los parámetros de conexión/retroceso del consumidor.
+     *
+     * @return Fábrica de productores {@code <String, Object>}
+     * @see DefaultKafkaProducerFactory
+     */
+    @Bean
+    public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeout);
+        configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, initialRetryInterval);
+        configProps.put(ProducerConfig.RECONNECT_BACKOFF_MS_CONFIG, initialRetryInterval);
+        configProps.put(ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, maxRetryInterval);
+
+        // Envío por lotes comprimidos
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, producerMaxBlockMs);
+
+        DelegatingByTypeSerializer valueSerializer = new DelegatingByTypeSerializer(Map.of(
+                byte[].class, new ByteArraySerializer(),
+                KafkaEvent.class, kafkaEventSerializer));
+
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+    }
+
+    /**
+     * Plantilla de publicación sobre {@link #producerFactory()}.
+     *
+     * @return Plantilla Kafka compartida
+     * @see KafkaTemplate
+     */
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    /**
+     * Declara el tópico de mensajes muertos ({@code kafka.consumer.dlt.topic}) para que
+     * {@link #kafkaAdmin()} lo cree al arrancar si no existe, con las particiones y la replicación por
+     * defecto del broker.
+     * <p>
+     * Solo se registra con {@code kafka.consumer.dlt.enabled}. Los registros los publica
+     * {@code DeadLetterPublisher} sobre {@link #kafkaTemplate()}.
+     *
+     * @return Definición del tópico DLT
+     * @see TopicBuilder
+     */
+    @Bean
+    @ConditionalOnProperty(name = "kafka.consumer.dlt.enabled", havingValue = "true")
+    public NewTopic deadLetterTopic() {
+        return TopicBuilder.name(deadLetterTopic).build();
+    }
+
+    /**
+     * Crea un {@link KafkaAdmin} apuntando a {@code kafka.server}, usado para crear los tópicos de
+     * reintento y el DLT. Sustituye al de Spring Boot, que usa {@code spring.kafka.bootstrap-servers}.
+     *
+     * @return Administrador de tópicos de Spring Kafka
+     * @see KafkaAdmin
+     */
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        return new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+    }
+
     /**
      * Define un {@link RetryTemplate} reutilizable para operaciones críticas de negocio o
      * integraciones puntuales.
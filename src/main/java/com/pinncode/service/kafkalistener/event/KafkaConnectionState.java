@@ -0,0 +1,19 @@
+package com.pinncode.service.kafkalistener.event;
+
+/**
+ * Estados de la máquina de reconexión con Kafka gestionada por {@code KafkaHealthService}.
+ */
+public enum KafkaConnectionState {
+
+    /** Aún no se ha realizado ninguna verificación */
+    UNKNOWN,
+
+    /** La última verificación fue exitosa */
+    CONNECTED,
+
+    /** Kafka no está disponible y hay un reintento de reconexión programado con backoff */
+    RECONNECTING,
+
+    /** Se agotaron los reintentos de reconexión; solo la verificación periódica vuelve a intentarlo */
+    DISCONNECTED
+}
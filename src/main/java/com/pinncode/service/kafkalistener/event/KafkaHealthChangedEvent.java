@@ -0,0 +1,45 @@
+package com.pinncode.service.kafkalistener.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento de aplicación publicado cuando cambia el estado de la conexión con Kafka.
+ * <p>
+ * Lo publica {@code KafkaHealthService} tras la primera verificación y en cada transición de
+ * {@link KafkaConnectionState} (p. ej. de conectado a reconectando, o de reconectando a
+ * desconectado al agotar los reintentos). Los componentes interesados se suscriben con
+ * {@code @EventListener}; los que solo necesitan saber si Kafka está disponible usan
+ * {@link #isAvailable()}.
+ */
+@ToString
+@Getter
+@AllArgsConstructor
+public class KafkaHealthChangedEvent {
+
+    /**
+     * Indica si Kafka está disponible tras el cambio de estado.
+     */
+    private final boolean available;
+
+    /**
+     * Estado de la máquina de reconexión tras el cambio.
+     */
+    private final KafkaConnectionState state;
+
+    /**
+     * Número de reintentos de reconexión realizados desde la última conexión exitosa.
+     */
+    private final int reconnectAttempts;
+
+    /**
+     * Mensaje del último error registrado (cadena vacía si Kafka está disponible).
+     */
+    private final String lastError;
+
+    /**
+     * Timestamp (epoch millis) de la verificación que provocó el cambio.
+     */
+    private final long checkTime;
+}
@@ -0,0 +1,276 @@
+package com.pinncode.service.kafkalistener.logging;
+
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logging de los registros Kafka consumidos.
+ * <p>
+ * Centraliza las trazas por registro del listener y del motor de procesamiento, con dos modos:
+ * <ul>
+ *   <li>{@link Mode#DETAILED} (por defecto): bloque de varias líneas por registro recibido
+ *       (tópico, partición, timestamp y evento) y una línea por resultado.</li>
+ *   <li>{@link Mode#STRUCTURED}: una única línea {@code clave=valor} por registro al conocer su
+ *       resultado. Los resultados correctos se muestrean (1 de cada
+ *       {@code kafka.logging.sample-rate}) y los fallos se registran siempre. El evento se trunca a
+ *       {@code kafka.logging.max-payload-length} caracteres.</li>
+ * </ul>
+ * En ambos modos el tópico, la partición y el offset del registro en curso se publican en el
+ * {@link MDC} ({@value #MDC_TOPIC}, {@value #MDC_PARTITION}, {@value #MDC_OFFSET}), de modo que
+ * cualquier traza emitida durante su procesamiento los incluye. En el modo sin asignaciones
+ * ({@link #setLightweightContext(boolean)}) solo se publican el tópico y la partición.
+ * <p>
+ * Las trazas se envían a un {@code AsyncAppender} (ver {@code logback-spring.xml}) que nunca
+ * bloquea a los hilos consumidores.
+ */
+@Slf4j
+@Component
+public class KafkaEventLogger {
+
+    /** Clave MDC del tópico del registro en curso */
+    public static final String MDC_TOPIC = "kafka.topic";
+
+    /** Clave MDC de la partición del registro en curso */
+    public static final String MDC_PARTITION = "kafka.partition";
+
+    /** Clave MDC del offset del registro en curso */
+    public static final String MDC_OFFSET = "kafka.offset";
+
+    /**
+     * Modo de logging por registro.
+     */
+    public enum Mode {
+        /** Bloque detallado por registro */
+        DETAILED,
+        /** Una línea estructurada por registro, con muestreo */
+        STRUCTURED
+    }
+
+    /** Modo de logging por registro */
+    @Value("${kafka.logging.mode:DETAILED}")
+    private Mode mode;
+
+    /** En modo estructurado, registra 1 de cada N resultados correctos (1 = todos) */
+    @Value("${kafka.logging.sample-rate:100}")
+    private int sampleRate;
+
+    /** Longitud máxima del evento registrado en modo estructurado */
+    @Value("${kafka.logging.max-payload-length:256}")
+    private int maxPayloadLength;
+
+    /**
+     * Contexto MDC sin asignaciones (modo {@code kafka.processing.pooled}): solo tópico y partición, que
+     * se mantienen entre registros
+     */
+    private volatile boolean lightweightContext;
+
+    /** Texto de cada número de partición, para el contexto MDC sin asignaciones */
+    private volatile String[] partitionNames = new String[0];
+
+    /**
+     * Publica el tópico, la partición y el offset del registro en el {@link MDC} del hilo actual.
+     * Debe acompañarse de {@link #clearContext()} al terminar el registro.
+     * <p>
+     * Con el contexto sin asignaciones ({@link #setLightweightContext(boolean)}) no publica el offset,
+     * que cambia en cada registro, y solo escribe el tópico y la partición cuando cambian respecto al
+     * registro anterior del hilo.
+     *
+     * @param consumerRecord registro en curso
+     */
+    public void setContext(ConsumerRecord<String, ?> consumerRecord) {
+
+        if (lightweightContext) {
+            putIfChanged(MDC_TOPIC, consumerRecord.topic());
+            putIfChanged(MDC_PARTITION, partitionName(consumerRecord.partition()));
+            return;
+        }
+
+        MDC.put(MDC_TOPIC, consumerRecord.topic());
+        MDC.put(MDC_PARTITION, String.valueOf(consumerRecord.partition()));
+        MDC.put(MDC_OFFSET, String.valueOf(consumerRecord.offset()));
+    }
+
+    /**
+     * Elimina del {@link MDC} del hilo actual el contexto del registro. Con el contexto sin
+     * asignaciones el tópico y la partición se mantienen hasta el siguiente registro.
+     */
+    public void clearContext() {
+
+        if (lightweightContext) {
+            return;
+        }
+
+        resetContext();
+    }
+
+    /**
+     * Elimina del {@link MDC} del hilo actual el contexto del registro también con el contexto sin
+     * asignaciones. Se usa cuando el registro termina con error, para que el tópico y la partición no
+     * queden en los logs del manejador de errores ni de otro código que reutilice el hilo.
+     */
+    public void resetContext() {
+
+        MDC.remove(MDC_TOPIC);
+        MDC.remove(MDC_PARTITION);
+        MDC.remove(MDC_OFFSET);
+    }
+
+    /**
+     * @return modo de logging por registro
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Cambia el modo de logging por registro. Debe llamarse durante la inicialización, antes de que
+     * los listeners reciban registros.
+     *
+     * @param mode modo de logging por registro
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Activa el contexto MDC sin asignaciones por registro: sin offset y con el tópico y la partición
+     * conservados entre registros. Lo activa el pool de eventos ({@code KafkaEventPool}).
+     *
+     * @param lightweightContext {@code true} para no crear cadenas ni entradas del MDC por registro
+     */
+    public void setLightweightContext(boolean lightweightContext) {
+        this.lightweightContext = lightweightContext;
+    }
+
+    private static void putIfChanged(String key, String value) {
+
+        if (!value.equals(MDC.get(key))) {
+            MDC.put(key, value);
+        }
+    }
+
+    private String partitionName(int partition) {
+
+        String[] names = partitionNames;
+
+        if (partition >= names.length) {
+            names = growPartitionNames(partition + 1);
+        }
+
+        return names[partition];
+    }
+
+    private synchronized String[] growPartitionNames(int length) {
+
+        String[] current = partitionNames;
+
+        if (length <= current.length) {
+            return current;
+        }
+
+        String[] grown = new String[length];
+
+        for (int i = 0; i < length; i++) {
+            grown[i] = i < current.length ? current[i] : String.valueOf(i);
+        }
+
+        partitionNames = grown;
+        return grown;
+    }
+
+    /**
+     * Registra la recepción de un registro. Solo escribe en modo {@link Mode#DETAILED}.
+     * <p>
+     * Formatea la información del mensaje de manera legible incluyendo:
+     * timestamp convertido a fecha local, tópico, partición y evento deserializado.
+     *
+     * @param consumerRecord registro recibido ({@code value} nulo si el payload está vacío)
+     */
+    public void logReceived(ConsumerRecord<String, KafkaEvent> consumerRecord) {
+
+        if (mode != Mode.DETAILED || !log.isInfoEnabled()) {
+            return;
+        }
+
+        LocalDateTime localDateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(consumerRecord.timestamp()),
+                ZoneId.systemDefault());
+
+        log.info("---------------- Start Evento Kafka ----------------");
+        log.info("Topic: {}", consumerRecord.topic());
+        log.info("Partition: {}", consumerRecord.partition());
+        log.info("Timestamp: {} ({})", consumerRecord.timestamp(), localDateTime);
+        log.info("Event: {}", consumerRecord.value());
+    }
+
+    /**
+     * Registra el resultado del procesamiento de un registro.
+     *
+     * @param consumerRecord registro procesado
+     * @param outcome resultado del procesamiento
+     * @param error excepción asociada al resultado, o {@code null}
+     */
+    public void logOutcome(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome, Throwable error) {
+
+        if (mode == Mode.STRUCTURED) {
+            logStructured(consumerRecord, outcome, error);
+            return;
+        }
+
+        switch (outcome) {
+            case PROCESSED -> {
+                log.info("Mensaje/evento kafka procesado");
+                log.info("----------------- End Evento Kafka -----------------");
+            }
+            case BLANK -> log.warn("Mensaje/evento vacío, confirmación de lectura, se omite procesamiento de evento");
+            case DUPLICATE -> log.info("Mensaje/evento duplicado, confirmación de lectura, se omite procesamiento de evento");
+            case PARSE_FAILED -> log.error("Error al transformar el payload del evento en offset {}, se omite procesamiento",
+                    consumerRecord.offset());
+            case INVALID -> log.error("Información inválida o incompleta, se omite el procesamiento");
+            case ERROR -> log.error("Error inesperado durante el procesamiento del evento :", error);
+        }
+    }
+
+    private void logStructured(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome, Throwable error) {
+
+        if (outcome.isFailure()) {
+
+            log.error("kafka-event outcome={} topic={} partition={} offset={} timestamp={} event={}", outcome,
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset(),
+                    consumerRecord.timestamp(), truncate(consumerRecord.value()), error);
+
+        } else if (log.isInfoEnabled() && isSampled()) {
+
+            log.info("kafka-event outcome={} topic={} partition={} offset={} timestamp={} event={}", outcome,
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset(),
+                    consumerRecord.timestamp(), truncate(consumerRecord.value()));
+        }
+    }
+
+    /**
+     * Decide sin contención entre hilos si un resultado correcto entra en la muestra.
+     */
+    private boolean isSampled() {
+        return sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    private String truncate(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+
+        String text = value.toString();
+
+        return text.length() <= maxPayloadLength ? text : text.substring(0, maxPayloadLength) + "...";
+    }
+}
@@ -0,0 +1,179 @@
+package com.pinncode.service.kafkalistener.metrics;
+
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas Micrometer del pipeline de consumo.
+ * <p>
+ * Registra por registro Kafka:
+ * <ul>
+ *   <li>{@value #STAGE_TIMER} - duración de cada etapa ({@link Stage}), con tags {@code stage},
+ *       {@code topic} y {@code partition}</li>
+ *   <li>{@value #OUTCOME_COUNTER} - registros por resultado ({@link EventOutcome}), con tags
+ *       {@code outcome}, {@code topic} y {@code partition}</li>
+ *   <li>{@value #DESERIALIZE_TIMER} - duración de la deserialización durante el poll, con tag
+ *       {@code topic} (el deserializador no conoce la partición)</li>
+ *   <li>{@value #BATCH_TIMER} - duración del procesamiento de negocio de un lote, con tag {@code topic}</li>
+ * </ul>
+ * Los timers publican histogramas de percentiles ({@code kafka.metrics.percentile-histogram}) para
+ * calcular p50/p99 en Prometheus con {@code histogram_quantile}. Los medidores de cada
+ * tópico/partición se crean una sola vez y se reutilizan, de modo que el coste por registro es
+ * una búsqueda en un mapa y la actualización del medidor.
+ */
+@Component
+public class KafkaPipelineMetrics {
+
+    /** Timer de las etapas del pipeline por registro */
+    public static final String STAGE_TIMER = "kafka.listener.stage";
+
+    /** Contador de registros por resultado */
+    public static final String OUTCOME_COUNTER = "kafka.listener.events";
+
+    /** Timer de la deserialización del payload */
+    public static final String DESERIALIZE_TIMER = "kafka.consumer.deserialize";
+
+    /** Timer del procesamiento de negocio por lote */
+    public static final String BATCH_TIMER = "kafka.listener.batch.process";
+
+    /**
+     * Etapas temporizadas del procesamiento de un registro.
+     */
+    public enum Stage {
+        /** Validación de reglas de negocio */
+        VALIDATE,
+        /** Lógica de negocio */
+        PROCESS,
+        /** Confirmación del offset */
+        ACKNOWLEDGE
+    }
+
+    /** Registro de métricas de la aplicación (Prometheus si está en el classpath) */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Publica buckets de histograma en los timers para calcular percentiles */
+    @Value("${kafka.metrics.percentile-histogram:true}")
+    private boolean percentileHistogram;
+
+    /** Medidores por tópico y partición */
+    private final ConcurrentMap<String, ConcurrentMap<Integer, PartitionMeters>> partitionMeters = new ConcurrentHashMap<>();
+
+    /** Timers de deserialización por tópico */
+    private final ConcurrentMap<String, Timer> deserializeTimers = new ConcurrentHashMap<>();
+
+    /** Timers de procesamiento por lote por tópico */
+    private final ConcurrentMap<String, Timer> batchTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Registra la duración de una etapa del procesamiento de un registro.
+     *
+     * @param consumerRecord registro procesado (tópico y partición)
+     * @param stage etapa medida
+     * @param nanos duración en nanosegundos
+     */
+    public void recordStage(ConsumerRecord<?, ?> consumerRecord, Stage stage, long nanos) {
+        metersFor(consumerRecord).stageTimers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cuenta el resultado del procesamiento de un registro.
+     *
+     * @param consumerRecord registro procesado (tópico y partición)
+     * @param outcome resultado del procesamiento
+     */
+    public void recordOutcome(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome) {
+        metersFor(consumerRecord).outcomeCounters[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Registra la duración de la deserialización de un payload.
+     *
+     * @param topic tópico del registro
+     * @param nanos duración en nanosegundos
+     */
+    public void recordDeserialize(String topic, long nanos) {
+
+        Timer deserializeTimer = deserializeTimers.get(topic);
+
+        if (deserializeTimer == null) {
+            deserializeTimer = deserializeTimers.computeIfAbsent(topic, t -> timer(DESERIALIZE_TIMER,
+                    "Deserialización del payload a KafkaEvent").tag("topic", t).register(meterRegistry));
+        }
+
+        deserializeTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra la duración del procesamiento de negocio de un lote.
+     *
+     * @param topic tópico del lote
+     * @param nanos duración en nanosegundos
+     */
+    public void recordBatch(String topic, long nanos) {
+        batchTimers.computeIfAbsent(topic, t -> timer(BATCH_TIMER, "Procesamiento de negocio de un lote")
+                        .tag("topic", t).register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Métricas de la partición del registro. Busca antes de {@code computeIfAbsent} para no crear la
+     * lambda, que captura el registro, en cada llamada.
+     */
+    private PartitionMeters metersFor(ConsumerRecord<?, ?> consumerRecord) {
+
+        String topic = consumerRecord.topic();
+        ConcurrentMap<Integer, PartitionMeters> topicMeters = partitionMeters.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+        PartitionMeters meters = topicMeters.get(consumerRecord.partition());
+
+        return meters != null ? meters
+                : topicMeters.computeIfAbsent(consumerRecord.partition(), partition -> new PartitionMeters(topic, partition));
+    }
+
+    private Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram(percentileHistogram);
+    }
+
+    /**
+     * Timers por etapa y contadores por resultado de una partición, indexados por ordinal.
+     */
+    private final class PartitionMeters {
+
+        private final Timer[] stageTimers = new Timer[Stage.values().length];
+
+        private final Counter[] outcomeCounters = new Counter[EventOutcome.values().length];
+
+        private PartitionMeters(String topic, int partition) {
+
+            String partitionTag = String.valueOf(partition);
+
+            for (Stage stage : Stage.values()) {
+                stageTimers[stage.ordinal()] = timer(STAGE_TIMER, "Duración de cada etapa del procesamiento de un registro")
+                        .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                        .tag("topic", topic)
+                        .tag("partition", partitionTag)
+                        .register(meterRegistry);
+            }
+
+            for (EventOutcome outcome : EventOutcome.values()) {
+                outcomeCounters[outcome.ordinal()] = Counter.builder(OUTCOME_COUNTER)
+                        .description("Registros consumidos por resultado del procesamiento")
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .tag("topic", topic)
+                        .tag("partition", partitionTag)
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.pinncode.service.kafkalistener.model;
+
+/**
+ * Estatus conocidos de un {@link KafkaEvent}.
+ * <p>
+ * Cada valor guarda su texto canónico, que es la instancia de {@code String} que se asigna a
+ * {@link KafkaEvent#getStatus()} cuando el payload trae ese estatus: los eventos con un estatus
+ * conocido no crean una cadena nueva y se pueden enrutar con un {@code switch} sobre
+ * {@link KafkaEvent#getStatusCode()}. Los estatus desconocidos conservan su texto y se
+ * representan con {@link #UNKNOWN}.
+ */
+public enum EventStatus {
+
+    /** El evento o transacción se creó */
+    CREATED("Created"),
+
+    /** El proceso asociado está en curso */
+    IN_PROGRESS("In Progress"),
+
+    /** El proceso asociado terminó */
+    COMPLETED("Completed"),
+
+    /** El proceso asociado se canceló */
+    CANCELLED("Cancelled"),
+
+    /** Estatus no reconocido; el texto original está en {@link KafkaEvent#getStatus()} */
+    UNKNOWN(null);
+
+    /** Texto canónico del estatus en el payload */
+    private final String text;
+
+    EventStatus(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Texto canónico del estatus, tal como llega en el payload.
+     *
+     * @return el texto, o {@code null} para {@link #UNKNOWN}
+     */
+    public String text() {
+        return text;
+    }
+}
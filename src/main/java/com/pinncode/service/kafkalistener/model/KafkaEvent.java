@@ -1,6 +1,13 @@
 package com.pinncode.service.kafkalistener.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.pinncode.service.kafkalistener.transform.EpochMillis;
+import com.pinncode.service.kafkalistener.transform.EpochMillisJsonDeserializer;
+import com.pinncode.service.kafkalistener.transform.EpochMillisJsonSerializer;
+import com.pinncode.service.kafkalistener.transform.EventStatusCodec;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
@@ -13,7 +20,6 @@ import java.sql.Timestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class KafkaEvent {
 
     /**
@@ -24,14 +30,114 @@ public class KafkaEvent {
     private String reference;
 
     /**
-     * Estatus del proceso asociado al mensaje/evento.
+     * Estatus del proceso asociado al mensaje/evento. Para los estatus conocidos es el texto
+     * canónico de {@link EventStatus}, sin una cadena nueva por evento.
      */
     @JsonProperty("status")
     private String status;
 
     /**
-     * Fecha y hora de creación del mensaje/evento.
+     * Estatus como {@link EventStatus} ({@link EventStatus#UNKNOWN} si no es conocido, {@code null}
+     * sin estatus), para enrutar con un {@code switch} en lugar de comparar cadenas.
      */
+    @JsonIgnore
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private EventStatus statusCode;
+
+    /**
+     * Fecha y hora de creación del mensaje/evento, como epoch en milisegundos
+     * ({@link EpochMillis#NONE} si no viene informada).
+     * <p>
+     * Se guarda como primitivo para no crear un {@link Timestamp} por evento; acepta epochs numéricos
+     * y fechas ISO-8601 ({@link EpochMillisJsonDeserializer}).
+     */
+    @ToString.Exclude
     @JsonProperty("created_datetime")
-    private Timestamp createdDateTime;
-}
\ No newline at end of file
+    @JsonDeserialize(using = EpochMillisJsonDeserializer.class)
+    @JsonSerialize(using = EpochMillisJsonSerializer.class)
+    private long createdEpochMillis = EpochMillis.NONE;
+
+    /**
+     * @param reference referencia única del evento
+     * @param status estatus del proceso
+     * @param createdDateTime fecha de creación, o {@code null}
+     */
+    public KafkaEvent(String reference, String status, Timestamp createdDateTime) {
+        this.reference = reference;
+        assignStatus(status);
+        this.createdEpochMillis = createdDateTime == null ? EpochMillis.NONE : createdDateTime.getTime();
+    }
+
+    /**
+     * @param status estatus del proceso; si es conocido se sustituye por su texto canónico
+     */
+    public void setStatus(String status) {
+        assignStatus(status);
+    }
+
+    /**
+     * Asigna {@code status} y {@code statusCode}; privado para que el constructor no invoque métodos
+     * que una subclase puede sobrescribir.
+     */
+    private void assignStatus(String status) {
+        this.statusCode = EventStatusCodec.decode(status);
+        this.status = statusCode == null || statusCode == EventStatus.UNKNOWN ? status : statusCode.text();
+    }
+
+    /**
+     * Asigna un estatus conocido sin pasar por su texto.
+     *
+     * @param statusCode estatus conocido, o {@code null} para dejar el evento sin estatus
+     * @throws IllegalArgumentException si es {@link EventStatus#UNKNOWN}; un estatus desconocido se
+     *         asigna con {@link #setStatus(String)}
+     */
+    public void setStatusCode(EventStatus statusCode) {
+
+        if (statusCode == EventStatus.UNKNOWN) {
+            throw new IllegalArgumentException("Un estatus desconocido se asigna con su texto");
+        }
+
+        this.statusCode = statusCode;
+        this.status = statusCode == null ? null : statusCode.text();
+    }
+
+    /**
+     * Fecha y hora de creación del mensaje/evento. Crea un {@link Timestamp} en cada llamada; en el
+     * camino de procesamiento es preferible {@link #getCreatedEpochMillis()}.
+     *
+     * @return la fecha de creación, o {@code null} si no viene informada
+     */
+    @JsonIgnore
+    @ToString.Include(name = "createdDateTime")
+    public Timestamp getCreatedDateTime() {
+        return createdEpochMillis == EpochMillis.NONE ? null : new Timestamp(createdEpochMillis);
+    }
+
+    /**
+     * @param createdDateTime fecha de creación, o {@code null}
+     */
+    @JsonIgnore
+    public void setCreatedDateTime(Timestamp createdDateTime) {
+        this.createdEpochMillis = createdDateTime == null ? EpochMillis.NONE : createdDateTime.getTime();
+    }
+
+    /**
+     * @return {@code true} si el evento tiene fecha de creación
+     */
+    @JsonIgnore
+    public boolean hasCreatedDateTime() {
+        return createdEpochMillis != EpochMillis.NONE;
+    }
+
+    /**
+     * Restablece todos los campos a su valor inicial, para reutilizar la instancia con otro registro
+     * (modo sin asignaciones, {@code KafkaEventPool}).
+     */
+    public void reset() {
+        reference = null;
+        status = null;
+        statusCode = null;
+        createdEpochMillis = EpochMillis.NONE;
+    }
+}
@@ -0,0 +1,419 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.pinncode.service.kafkalistener.exception.KafkaException;
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.service.KafkaListenerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Etapa de procesamiento con un buffer acotado entre el hilo del consumidor y los workers.
+ * <p>
+ * Sin esta etapa el listener por registro valida, procesa y confirma en el hilo del consumidor, por lo
+ * que el siguiente poll no empieza hasta terminar el anterior. Con {@code kafka.processing.buffer.enabled}
+ * el listener solo entrega el registro ({@link #submit}) a la cola ({@link ArrayBlockingQueue}) de un
+ * worker y vuelve al poll: el fetch de los siguientes registros se solapa con el procesamiento.
+ * <p>
+ * Cada partición se asigna siempre al mismo worker, que procesa su cola en orden, de modo que los
+ * registros de una partición se procesan y se confirman en orden y no hacen falta acks asíncronos.
+ * <p>
+ * Contrapresión por marcas de agua sobre la cola de cada worker:
+ * <ul>
+ *   <li>Al superar {@code high-watermark} (fracción de {@code capacity}) se pausa la partición del
+ *       registro entregado con {@link MessageListenerContainer#pausePartition}; el contenedor aplica
+ *       {@code Consumer.pause} antes del siguiente poll y el consumidor sigue haciendo poll (y enviando
+ *       heartbeats) sin recibir registros de esa partición.</li>
+ *   <li>Cuando la cola baja de {@code low-watermark}, el worker reanuda las particiones que pausó.</li>
+ *   <li>Los registros ya recibidos en el poll en curso se siguen entregando tras la pausa; si la cola
+ *       se llena, el hilo del consumidor espera a que el worker libere espacio. Conviene que
+ *       {@code capacity} supere la marca alta en al menos {@code max.poll.records} registros.</li>
+ * </ul>
+ * La memoria queda acotada a {@code workers * capacity} registros y el hilo del consumidor no queda
+ * bloqueado en la lógica de negocio, lo que lo mantiene dentro de {@code max.poll.interval.ms}.
+ * <p>
+ * Al revocar particiones (rebalanceo o parada del contenedor) se espera a que terminen sus registros
+ * del buffer ({@link #drain}), hasta {@code drain-timeout} ms, para confirmarlos antes de ceder
+ * la partición. Los errores del procesamiento se registran y el registro se confirma igualmente, como
+ * en {@link KeyOrderedProcessingEngine}: no hay reintento del contenedor. Por ello la etapa no se
+ * activa junto con el procesamiento paralelo ni con los tópicos de reintento, que necesitan la
+ * excepción en el hilo del consumidor.
+ * <p>
+ * Métricas publicadas:
+ * <ul>
+ *   <li>{@code kafka.processing.buffer.size} - registros en el buffer (en cola o en proceso)</li>
+ *   <li>{@code kafka.processing.buffer.backpressure} - pausas y reanudaciones de particiones, con tag
+ *       {@code action} ({@code pause}/{@code resume})</li>
+ * </ul>
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.processing.buffer.enabled} - habilita la etapa (por defecto false)</li>
+ *   <li>{@code kafka.processing.buffer.workers} - workers, cada uno con su cola (por defecto, número de CPUs)</li>
+ *   <li>{@code kafka.processing.buffer.capacity} - registros máximos en la cola de cada worker (por defecto 1000)</li>
+ *   <li>{@code kafka.processing.buffer.high-watermark} - fracción de la capacidad que pausa la partición (por defecto 0.75)</li>
+ *   <li>{@code kafka.processing.buffer.low-watermark} - fracción de la capacidad que la reanuda (por defecto 0.25)</li>
+ *   <li>{@code kafka.processing.buffer.drain-timeout} - espera máxima en ms al revocar particiones (por defecto 10s)</li>
+ *   <li>{@code kafka.processing.buffer.shutdown-timeout} - espera máxima en ms al detener los workers (por defecto 30s)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BufferedProcessingStage {
+
+    /** Etapas de validación, procesamiento y acknowledge del registro */
+    @Autowired
+    private EventPipeline eventPipeline;
+
+    /** Logging por registro; el contexto MDC del registro se publica también en el worker */
+    @Autowired
+    private KafkaEventLogger eventLogger;
+
+    /** Registro de contenedores; pausa y reanuda las particiones del listener por registro */
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita la etapa */
+    @Value("${kafka.processing.buffer.enabled:false}")
+    private boolean enabled;
+
+    /** Número de workers */
+    @Value("${kafka.processing.buffer.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int workerCount;
+
+    /** Registros máximos en la cola de cada worker */
+    @Value("${kafka.processing.buffer.capacity:1000}")
+    private int capacity;
+
+    /** Fracción de la capacidad a partir de la cual se pausa la partición */
+    @Value("${kafka.processing.buffer.high-watermark:0.75}")
+    private double highWatermark;
+
+    /** Fracción de la capacidad por debajo de la cual se reanudan las particiones */
+    @Value("${kafka.processing.buffer.low-watermark:0.25}")
+    private double lowWatermark;
+
+    /** Espera máxima (ms) a los registros de las particiones revocadas */
+    @Value("${kafka.processing.buffer.drain-timeout:10000}")
+    private long drainTimeout;
+
+    /** Espera máxima (ms) para vaciar las colas al detener la etapa */
+    @Value("${kafka.processing.buffer.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    /** La etapa es incompatible con el procesamiento paralelo */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean parallelProcessingEnabled;
+
+    /** La etapa es incompatible con los tópicos de reintento */
+    @Value("${kafka.consumer.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
+
+    /** Hilos de los workers */
+    private ExecutorService workerPool;
+
+    /** Workers; cada partición se asigna siempre al mismo */
+    private Worker[] workers;
+
+    /** Registros en el buffer por partición, para esperar a los de las particiones revocadas */
+    private final Map<TopicPartition, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /** Registros en el buffer */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** Cola por encima de la cual se pausa la partición */
+    private int highMark;
+
+    /** Cola por debajo de la cual se reanudan las particiones */
+    private int lowMark;
+
+    /** Particiones pausadas */
+    private Counter pauses;
+
+    /** Particiones reanudadas */
+    private Counter resumes;
+
+    /**
+     * Arranca los workers y registra las métricas si la etapa está habilitada.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (parallelProcessingEnabled || retryTopicEnabled) {
+            log.warn("Buffer de procesamiento deshabilitado: no es compatible con kafka.processing.parallel.enabled "
+                    + "ni con kafka.consumer.retry-topic.enabled");
+            enabled = false;
+            return;
+        }
+
+        highMark = Math.max(1, (int) (capacity * highWatermark));
+        lowMark = Math.min(highMark - 1, (int) (capacity * lowWatermark));
+
+        workerPool = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("kafka-buffer-"));
+        workers = new Worker[workerCount];
+
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker();
+            workerPool.execute(workers[i]);
+        }
+
+        Gauge.builder("kafka.processing.buffer.size", size, AtomicInteger::get)
+                .description("Registros en el buffer de procesamiento")
+                .register(meterRegistry);
+
+        pauses = backpressureCounter("pause");
+        resumes = backpressureCounter("resume");
+
+        log.info("Buffer de procesamiento habilitado: {} workers, {} registros por cola, pausa en {} y reanuda en {}",
+                workerCount, capacity, highMark, lowMark);
+    }
+
+    private Counter backpressureCounter(String action) {
+        return Counter.builder("kafka.processing.buffer.backpressure").tag("action", action)
+                .description("Pausas y reanudaciones de particiones por el buffer de procesamiento").register(meterRegistry);
+    }
+
+    /**
+     * Indica si el listener debe entregar los registros a la etapa.
+     *
+     * @return {@code true} si {@code kafka.processing.buffer.enabled} es verdadero y la etapa es compatible
+     *         con el resto de la configuración
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Entrega un evento a la cola del worker de su partición. Se invoca desde el hilo del consumidor.
+     * <p>
+     * La validación, el procesamiento y el acknowledge se ejecutan en el worker. Si la cola supera la
+     * marca alta, se pausa la partición; si está llena, espera a que el worker libere espacio.
+     *
+     * @param consumerRecord registro original (tópico, partición y offset)
+     * @param kafkaEvent evento ya deserializado
+     * @param acknowledgment objeto para confirmar el registro al terminar
+     * @throws KafkaException si el hilo del consumidor se interrumpe esperando espacio en la cola
+     */
+    public void submit(ConsumerRecord<String, KafkaEvent> consumerRecord, KafkaEvent kafkaEvent, Acknowledgment acknowledgment) {
+
+        TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+        Worker worker = workers[Math.floorMod(partition.hashCode(), workers.length)];
+        AtomicInteger partitionInFlight = inFlight.computeIfAbsent(partition, p -> new AtomicInteger());
+
+        partitionInFlight.incrementAndGet();
+        size.incrementAndGet();
+
+        try {
+
+            worker.queue.put(() -> process(consumerRecord, kafkaEvent, acknowledgment, partitionInFlight));
+
+        } catch (InterruptedException e) {
+
+            partitionInFlight.decrementAndGet();
+            size.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrumpido esperando espacio en el buffer de procesamiento", e);
+        }
+
+        if (worker.queue.size() >= highMark) {
+            worker.pause(partition);
+        }
+    }
+
+    private void process(ConsumerRecord<String, KafkaEvent> consumerRecord, KafkaEvent kafkaEvent,
+            Acknowledgment acknowledgment, AtomicInteger partitionInFlight) {
+
+        eventLogger.setContext(consumerRecord);
+
+        try {
+
+            eventPipeline.process(consumerRecord, kafkaEvent, acknowledgment);
+
+        } catch (Exception e) {
+
+            eventPipeline.report(consumerRecord, EventOutcome.ERROR, e);
+            acknowledgment.acknowledge();
+
+        } finally {
+
+            partitionInFlight.decrementAndGet();
+            size.decrementAndGet();
+            eventLogger.clearContext();
+        }
+    }
+
+    /**
+     * Espera a que terminen los registros del buffer de las particiones revocadas, hasta
+     * {@code drain-timeout} ms, y reanuda las que estuvieran pausadas para que no sigan pausadas si se
+     * vuelven a asignar. Se invoca desde el hilo del consumidor antes de confirmar los acknowledges
+     * pendientes y ceder las particiones.
+     *
+     * @param partitions particiones revocadas
+     */
+    public void drain(Collection<TopicPartition> partitions) {
+
+        if (!enabled) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeout);
+
+        try {
+
+            for (TopicPartition partition : partitions) {
+
+                AtomicInteger partitionInFlight = inFlight.getOrDefault(partition, new AtomicInteger());
+
+                while (partitionInFlight.get() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+
+                if (partitionInFlight.get() > 0) {
+                    log.warn("Tiempo de espera agotado vaciando el buffer de {} ({} registros pendientes)",
+                            partition, partitionInFlight.get());
+                }
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        for (Worker worker : workers) {
+            worker.resume(partitions);
+        }
+    }
+
+    /**
+     * Contenedor del listener por registro; solo se consulta con el contenedor en ejecución.
+     */
+    private MessageListenerContainer container() {
+        return kafkaListenerEndpointRegistry.getListenerContainer(KafkaListenerService.LISTENER_ID);
+    }
+
+    /**
+     * Detiene los workers tras vaciar sus colas.
+     * <p>
+     * Spring detiene los contenedores de listeners antes de destruir este bean, por lo que no llegan
+     * registros nuevos durante la espera.
+     */
+    @PreDestroy
+    void shutdown() {
+
+        if (workerPool == null) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+
+        try {
+
+            while (size.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        if (size.get() > 0) {
+            log.warn("Tiempo de espera agotado vaciando el buffer de procesamiento, se descartan {} registros", size.get());
+        }
+
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * Worker con su cola acotada y las particiones que pausó.
+     */
+    private final class Worker implements Runnable {
+
+        /** Tareas pendientes, en orden de entrega */
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(capacity);
+
+        /** Particiones pausadas por esta cola */
+        private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void run() {
+
+            try {
+
+                while (!Thread.currentThread().isInterrupted()) {
+
+                    queue.take().run();
+
+                    if (!paused.isEmpty() && queue.size() <= lowMark) {
+                        resume(paused);
+                    }
+                }
+
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Pausa la partición si esta cola aún no la había pausado. Sincronizado con {@link #resume} para
+         * que una reanudación no se adelante a la pausa que la motiva.
+         */
+        private synchronized void pause(TopicPartition partition) {
+
+            if (paused.add(partition)) {
+                container().pausePartition(partition);
+                pauses.increment();
+                log.debug("Buffer de procesamiento por encima de {} registros, se pausa {}", highMark, partition);
+            }
+        }
+
+        /**
+         * Reanuda las particiones indicadas que esta cola tenga pausadas.
+         */
+        private synchronized void resume(Collection<TopicPartition> partitions) {
+
+            for (TopicPartition partition : List.copyOf(partitions)) {
+
+                if (paused.remove(partition)) {
+                    container().resumePartition(partition);
+                    resumes.increment();
+                    log.debug("Buffer de procesamiento por debajo de {} registros, se reanuda {}", lowMark, partition);
+                }
+            }
+        }
+    }
+}
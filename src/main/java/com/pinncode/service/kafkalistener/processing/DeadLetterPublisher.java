@@ -0,0 +1,134 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import jakarta.validation.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Publicación en el tópico de mensajes muertos (DLT) de los registros descartados por el pipeline.
+ * <p>
+ * Envuelve un {@link DeadLetterPublishingRecoverer} sobre la {@code KafkaTemplate} compartida. Cada
+ * registro se publica con las cabeceras {@code kafka_dlt-original-topic}, {@code -partition},
+ * {@code -offset} y {@code -timestamp} y con la clase y el mensaje de la excepción
+ * ({@code kafka_dlt-exception-fqcn}, {@code kafka_dlt-exception-message}). La traza completa no se
+ * incluye para mantener los registros pequeños. La cabecera {@value #SOURCE_HEADER} identifica los
+ * registros publicados aquí, que el pipeline ya reportó.
+ * <p>
+ * El tópico por defecto ({@code <tópico>-dead-letter}) es distinto del DLT de los tópicos de reintento
+ * ({@code <tópico>-dlt}), cuyo listener reporta como error cada registro que recibe. Si se configuran
+ * ambos con el mismo tópico, ese listener ignora los registros con {@value #SOURCE_HEADER}.
+ * <p>
+ * El envío es asíncrono: no se espera el resultado, de modo que el hilo del consumidor solo paga la
+ * serialización y la inserción en el buffer del productor. Los fallos de envío los registra el
+ * propio recoverer. Los payloads que no pudieron deserializarse se publican con sus bytes originales.
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.dlt.enabled} - habilita la publicación (por defecto false)</li>
+ *   <li>{@code kafka.consumer.dlt.topic} - tópico destino (por defecto {@code <tópico>-dead-letter})</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class DeadLetterPublisher implements SmartInitializingSingleton {
+
+    /** Cabecera que marca los registros publicados por el pipeline */
+    public static final String SOURCE_HEADER = "kafka-listener_dlt-source";
+
+    /** Valor de {@link #SOURCE_HEADER} */
+    private static final byte[] SOURCE_PIPELINE = "pipeline".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Plantilla de publicación compartida. Se resuelve al terminar el arranque: {@code KafkaConfig}
+     * depende de este componente a través de {@link EventPipeline}.
+     */
+    @Autowired
+    private ObjectProvider<KafkaTemplate<String, Object>> kafkaTemplate;
+
+    /** Habilita la publicación de registros descartados en el DLT */
+    @Value("${kafka.consumer.dlt.enabled:false}")
+    private boolean enabled;
+
+    /** Tópico de mensajes muertos */
+    @Value("${kafka.consumer.dlt.topic:${kafka.consumer.topic}-dead-letter}")
+    private String deadLetterTopic;
+
+    /** Recoverer de Spring Kafka que construye el registro y sus cabeceras */
+    private DeadLetterPublishingRecoverer recoverer;
+
+    /**
+     * Construye el recoverer una vez creados todos los singletons, antes de arrancar los contenedores.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        if (!enabled) {
+            return;
+        }
+
+        // Partición -1: la elige el particionador, el DLT no necesita tantas particiones como el origen
+        recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate.getObject(),
+                (consumerRecord, exception) -> new TopicPartition(deadLetterTopic, -1));
+
+        recoverer.setFailIfSendResultIsError(false);
+        recoverer.excludeHeader(DeadLetterPublishingRecoverer.HeaderNames.HeadersToAdd.EX_STACKTRACE);
+        recoverer.setHeadersFunction((consumerRecord, exception) -> new RecordHeaders()
+                .add(SOURCE_HEADER, SOURCE_PIPELINE));
+
+        log.info("Publicación en DLT habilitada: {}", deadLetterTopic);
+    }
+
+    /**
+     * Indica si la publicación en el DLT está habilitada.
+     *
+     * @return {@code true} si {@code kafka.consumer.dlt.enabled} es verdadero
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publica un registro descartado en el DLT sin esperar la confirmación del broker.
+     *
+     * @param consumerRecord registro descartado
+     * @param outcome resultado con el que se descartó
+     * @param error excepción asociada; si es {@code null} se genera una a partir del resultado
+     */
+    public void publish(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome, Throwable error) {
+
+        if (recoverer == null) {
+            return;
+        }
+
+        recoverer.accept(consumerRecord, causeOf(outcome, error));
+    }
+
+    /**
+     * Excepción que se publica en las cabeceras del DLT.
+     */
+    private static Exception causeOf(EventOutcome outcome, Throwable error) {
+
+        if (error instanceof Exception exception) {
+            return exception;
+        }
+
+        if (error != null) {
+            return new IllegalStateException(error);
+        }
+
+        return outcome == EventOutcome.INVALID
+                ? new ValidationException("El evento no cumple las reglas de negocio")
+                : new IllegalStateException("Registro descartado con resultado " + outcome);
+    }
+}
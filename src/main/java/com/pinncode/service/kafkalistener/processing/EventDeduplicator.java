@@ -0,0 +1,149 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deduplicación en memoria de eventos por {@code reference}.
+ * <p>
+ * Las reentregas tras un rebalanceo y los reintentos de un registro ya procesado repiten la lógica de
+ * negocio. Antes de validar, cada evento reclama su clave ({@link #tryClaim(KafkaEvent)}): si ya estaba
+ * reclamada, el evento es un duplicado y se confirma sin procesar. Si el evento resulta inválido o su
+ * procesamiento falla, la clave se libera ({@link #release(KafkaEvent)}) para que el reintento o una
+ * reentrega lo procesen. El reclamo es atómico, por lo que dos eventos con la misma clave procesados
+ * a la vez por distintos workers tampoco se duplican.
+ * <p>
+ * La clave es la {@code reference} del evento o, con {@code include-status}, el par
+ * {@code reference}/{@code status}, de modo que un mismo evento con un estatus nuevo se procesa. Los
+ * eventos sin referencia no se deduplican.
+ * <p>
+ * Las claves se guardan en una caché Caffeine (W-TinyLFU) acotada a {@code max-entries} entradas y con
+ * expiración {@code ttl} desde su escritura. Cada entrada ocupa del orden de 150 bytes más la clave,
+ * por lo que el valor por defecto (100.000) ronda los 20 MB con referencias de unos 36 caracteres. La
+ * deduplicación es local a la instancia y no sobrevive a un reinicio: una reentrega que llega a otra
+ * instancia del grupo tras un rebalanceo no se detecta.
+ * <p>
+ * Métricas publicadas (con tag {@code cache=kafka.dedup}): {@code cache.size}, {@code cache.gets},
+ * {@code cache.puts} y {@code cache.evictions}. Los duplicados se cuentan como resultado
+ * {@link EventOutcome#DUPLICATE}.
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.processing.dedup.enabled} - habilita la deduplicación (por defecto false)</li>
+ *   <li>{@code kafka.processing.dedup.max-entries} - claves máximas en memoria (por defecto 100000)</li>
+ *   <li>{@code kafka.processing.dedup.ttl} - tiempo en ms que se recuerda una clave (por defecto 10 min)</li>
+ *   <li>{@code kafka.processing.dedup.include-status} - incluye {@code status} en la clave (por defecto false)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class EventDeduplicator {
+
+    /** Nombre de la caché en las métricas */
+    private static final String CACHE_NAME = "kafka.dedup";
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita la deduplicación */
+    @Value("${kafka.processing.dedup.enabled:false}")
+    private boolean enabled;
+
+    /** Claves máximas en memoria */
+    @Value("${kafka.processing.dedup.max-entries:100000}")
+    private long maxEntries;
+
+    /** Tiempo (ms) que se recuerda una clave desde que se reclama */
+    @Value("${kafka.processing.dedup.ttl:600000}")
+    private long ttl;
+
+    /** Incluye el {@code status} del evento en la clave */
+    @Value("${kafka.processing.dedup.include-status:false}")
+    private boolean includeStatus;
+
+    /** Claves reclamadas; el valor no se usa */
+    private Cache<Object, Boolean> claimedKeys;
+
+    /**
+     * Crea la caché y registra sus métricas si la deduplicación está habilitada.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        claimedKeys = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, claimedKeys, CACHE_NAME);
+
+        log.info("Deduplicación de eventos habilitada: clave {}, {} entradas, ttl {}ms",
+                includeStatus ? "reference/status" : "reference", maxEntries, ttl);
+    }
+
+    /**
+     * Indica si la deduplicación está habilitada.
+     *
+     * @return {@code true} si {@code kafka.processing.dedup.enabled} es verdadero
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reclama la clave de un evento antes de validarlo y procesarlo.
+     *
+     * @param kafkaEvent evento deserializado, no nulo
+     * @return {@code false} si la clave ya estaba reclamada (duplicado); {@code true} en otro caso,
+     *         también con la deduplicación deshabilitada o si el evento no tiene referencia
+     */
+    public boolean tryClaim(KafkaEvent kafkaEvent) {
+
+        if (!enabled || kafkaEvent.getReference() == null) {
+            return true;
+        }
+
+        return claimedKeys.asMap().putIfAbsent(keyOf(kafkaEvent), Boolean.TRUE) == null;
+    }
+
+    /**
+     * Libera la clave de un evento que no llegó a procesarse (inválido o con error), para que una
+     * reentrega o un reintento lo procesen.
+     *
+     * @param kafkaEvent evento reclamado con {@link #tryClaim(KafkaEvent)}
+     */
+    public void release(KafkaEvent kafkaEvent) {
+
+        if (!enabled || kafkaEvent.getReference() == null) {
+            return;
+        }
+
+        claimedKeys.invalidate(keyOf(kafkaEvent));
+    }
+
+    private Object keyOf(KafkaEvent kafkaEvent) {
+        return includeStatus ? new StatusKey(kafkaEvent.getReference(), kafkaEvent.getStatus()) : kafkaEvent.getReference();
+    }
+
+    /**
+     * Clave compuesta por referencia y estatus.
+     */
+    private record StatusKey(String reference, String status) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.pinncode.service.kafkalistener.processing;
+
+/**
+ * Resultado del procesamiento de un registro Kafka.
+ * <p>
+ * Lo reportan el listener y el motor de procesamiento para el logging y la observabilidad
+ * del pipeline de consumo.
+ */
+public enum EventOutcome {
+
+    /** El evento se procesó correctamente */
+    PROCESSED(false),
+
+    /** El payload estaba vacío; se confirma sin procesar */
+    BLANK(false),
+
+    /** El evento ya se procesó (misma clave de deduplicación); se confirma sin procesar */
+    DUPLICATE(false),
+
+    /** El payload no pudo deserializarse a {@code KafkaEvent} */
+    PARSE_FAILED(true),
+
+    /** El evento no cumple las reglas de negocio; se confirma sin procesar */
+    INVALID(true),
+
+    /** Error inesperado durante el procesamiento */
+    ERROR(true);
+
+    /** Indica si el resultado representa un fallo */
+    private final boolean failure;
+
+    EventOutcome(boolean failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * Indica si el resultado representa un fallo que debe registrarse siempre.
+     *
+     * @return {@code true} para resultados de error
+     */
+    public boolean isFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,178 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics.Stage;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.service.AdaptivePollController;
+import com.pinncode.service.kafkalistener.service.ConsumerLagMonitor;
+import com.pinncode.service.kafkalistener.service.IProcessEventService;
+import com.pinncode.service.kafkalistener.service.IValidateEventService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Etapas del procesamiento de un registro Kafka ya deserializado.
+ * <p>
+ * Ejecuta en orden la deduplicación ({@link EventDeduplicator}), la validación
+ * ({@link IValidateEventService}), la lógica de negocio ({@link IProcessEventService}) y el
+ * acknowledge, registrando la duración de cada etapa en {@link KafkaPipelineMetrics}. La usan el listener (en el hilo del consumidor) y el
+ * {@link KeyOrderedProcessingEngine} (en un worker), de modo que ambos caminos miden lo mismo.
+ * <p>
+ * Centraliza también el reporte del resultado de cada registro ({@link #report}), que se
+ * registra en el log y en el contador de resultados y, para los fallos, se publica en el DLT
+ * mediante {@link DeadLetterPublisher} si está habilitado. El timestamp de cada registro reportado
+ * alimenta la estimación del lag en tiempo de {@link ConsumerLagMonitor}.
+ */
+@Component
+public class EventPipeline {
+
+    /** Servicio para validar reglas de negocio del evento */
+    @Autowired
+    private IValidateEventService validateEventService;
+
+    /** Servicio para procesar eventos de negocio */
+    @Autowired
+    private IProcessEventService processEventService;
+
+    /** Métricas por etapa y por resultado */
+    @Autowired
+    private KafkaPipelineMetrics metrics;
+
+    /** Logging por registro */
+    @Autowired
+    private KafkaEventLogger eventLogger;
+
+    /** Control adaptativo del tamaño del poll; recibe el tiempo total de cada registro */
+    @Autowired
+    private AdaptivePollController pollController;
+
+    /** Publicación de los registros descartados en el DLT */
+    @Autowired
+    private DeadLetterPublisher deadLetterPublisher;
+
+    /** Deduplicación de eventos por referencia */
+    @Autowired
+    private EventDeduplicator deduplicator;
+
+    /** Monitor de lag; recibe el timestamp de cada registro reportado */
+    @Autowired
+    private ConsumerLagMonitor lagMonitor;
+
+    /**
+     * Valida, procesa y confirma un registro, y reporta su resultado.
+     * <p>
+     * Los eventos ya procesados (misma clave en {@link EventDeduplicator}) se confirman sin validar
+     * ni procesar con resultado {@link EventOutcome#DUPLICATE}. Los eventos que no cumplen las reglas
+     * de negocio se confirman sin procesar con resultado {@link EventOutcome#INVALID}. Las excepciones
+     * de la lógica de negocio se propagan sin confirmar el registro, para que el llamador decida cómo
+     * tratarlas; en ambos casos se libera la clave del evento. La duración total se entrega al
+     * {@link AdaptivePollController}.
+     *
+     * @param consumerRecord registro original (tópico, partición y offset)
+     * @param kafkaEvent evento deserializado, no nulo
+     * @param acknowledgment objeto para confirmar el registro
+     * @return resultado del procesamiento ({@link EventOutcome#PROCESSED}, {@link EventOutcome#INVALID}
+     *         o {@link EventOutcome#DUPLICATE})
+     */
+    public EventOutcome process(ConsumerRecord<String, KafkaEvent> consumerRecord, KafkaEvent kafkaEvent,
+            Acknowledgment acknowledgment) {
+
+        long processStart = System.nanoTime();
+        EventOutcome outcome = EventOutcome.DUPLICATE;
+
+        if (deduplicator.tryClaim(kafkaEvent)) {
+
+            outcome = EventOutcome.INVALID;
+
+            try {
+
+                if (validate(consumerRecord, kafkaEvent)) {
+
+                    long start = System.nanoTime();
+                    processEventService.processEvent(kafkaEvent);
+                    metrics.recordStage(consumerRecord, Stage.PROCESS, System.nanoTime() - start);
+
+                    outcome = EventOutcome.PROCESSED;
+                }
+
+            } finally {
+
+                if (outcome != EventOutcome.PROCESSED) {
+                    deduplicator.release(kafkaEvent);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        acknowledgment.acknowledge();
+        metrics.recordStage(consumerRecord, Stage.ACKNOWLEDGE, System.nanoTime() - start);
+
+        pollController.recordProcessingTime(System.nanoTime() - processStart);
+
+        report(consumerRecord, outcome, null);
+
+        return outcome;
+    }
+
+    /**
+     * Aplica las reglas de negocio a un evento y registra la duración de la validación.
+     *
+     * @param consumerRecord registro original (tópico y partición)
+     * @param kafkaEvent evento deserializado, no nulo
+     * @return {@code true} si el evento es válido
+     */
+    public boolean validate(ConsumerRecord<String, KafkaEvent> consumerRecord, KafkaEvent kafkaEvent) {
+
+        long start = System.nanoTime();
+        boolean valid = validateEventService.checkBusinessRulesForTheEvent(kafkaEvent);
+        metrics.recordStage(consumerRecord, Stage.VALIDATE, System.nanoTime() - start);
+
+        return valid;
+    }
+
+    /**
+     * Reporta el resultado de un registro en el log y en el contador de resultados. Los resultados
+     * de fallo ({@link EventOutcome#isFailure()}) se publican además en el DLT. Con cualquier
+     * resultado, el registro cuenta como procesado para el lag en tiempo.
+     *
+     * @param consumerRecord registro procesado
+     * @param outcome resultado del procesamiento
+     * @param error excepción asociada al resultado, o {@code null}
+     */
+    public void report(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome, Throwable error) {
+
+        eventLogger.logOutcome(consumerRecord, outcome, error);
+        metrics.recordOutcome(consumerRecord, outcome);
+        lagMonitor.recordProcessed(consumerRecord);
+
+        if (outcome.isFailure()) {
+            deadLetterPublisher.publish(consumerRecord, outcome, error);
+        }
+    }
+
+    /**
+     * Reporta un registro descartado por el manejador de errores del contenedor, tras agotar los
+     * reintentos o por una excepción no reintentable.
+     *
+     * @param consumerRecord registro descartado
+     * @param error excepción que provocó el descarte
+     */
+    public void reportFailure(ConsumerRecord<?, ?> consumerRecord, Exception error) {
+        report(consumerRecord, isDeserializationFailure(error) ? EventOutcome.PARSE_FAILED : EventOutcome.ERROR, error);
+    }
+
+    private static boolean isDeserializationFailure(Throwable error) {
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
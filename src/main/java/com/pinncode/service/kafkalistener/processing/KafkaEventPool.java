@@ -0,0 +1,347 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+
+/**
+ * Pool por hilo de instancias {@link KafkaEvent} reutilizables, para el modo sin asignaciones.
+ * <p>
+ * Con {@code kafka.processing.pooled.enabled} el deserializador toma el evento de cada registro del
+ * pool del hilo del consumidor ({@link #acquire()}) y lo rellena en el sitio, y el listener lo devuelve
+ * ({@link #release(KafkaEvent)}) en cuanto {@code EventPipeline} termina con el registro. En estado
+ * estable cada poll reutiliza los eventos del anterior: no se crean {@code KafkaEvent}, {@code Timestamp}
+ * ni parsers de Jackson por registro, y el contexto MDC del registro se publica sin asignaciones
+ * ({@link KafkaEventLogger#setLightweightContext(boolean)}). El modo {@code DETAILED} de logging se
+ * sustituye por {@code STRUCTURED}, que solo escribe (y asigna) en los resultados muestreados. Fuera de
+ * esas líneas, la única asignación que queda por registro en el camino correcto es el {@code String}
+ * de {@code reference}.
+ * <p>
+ * El pool de cada hilo guarda hasta {@code capacity} eventos libres; si está vacío se crea uno nuevo
+ * (métrica {@code kafka.processing.pool.allocations}), por lo que conviene que {@code capacity} no sea
+ * menor que {@code kafka.consumer.max-poll-records}. Un evento solo es válido hasta que se libera: el
+ * código de negocio no debe guardar referencias al evento ni al {@code ConsumerRecord} después de
+ * {@code processEvent}. Los eventos de los registros que se reintentan o que el contenedor descarta
+ * (excepción propagada, seek tras un error) no vuelven al pool: al propagar la excepción, el listener
+ * descarta con {@link #discardPending()} el evento en curso y los del resto del poll, que el contenedor
+ * vuelve a leer.
+ * <p>
+ * Para ello cada hilo lleva la lista de eventos prestados del poll en curso. El deserializador adquiere
+ * todos los eventos de un poll antes de que el listener reciba el primero, por lo que la primera
+ * adquisición tras una liberación abre un poll nuevo: los eventos que siguen prestados de polls
+ * anteriores dejan de seguirse, para que el detector de fugas pueda informarlos.
+ * <p>
+ * Como el evento se libera en el mismo hilo que lo deserializó, el modo no se activa junto con el
+ * listener por lotes, el procesamiento paralelo, el buffer de procesamiento ni los tópicos de
+ * reintento, que entregan los eventos a otros hilos o los conservan tras el listener.
+ * <p>
+ * Detección de fugas ({@code leak-detection}, para depuración): cada evento prestado se registra en un
+ * {@link Cleaner} con la traza de su adquisición. Si el recolector reclama un evento que no se liberó,
+ * se registra un error con esa traza y se incrementa {@code kafka.processing.pool.leaks}; liberar un
+ * evento que no está prestado (doble liberación) también se registra. La detección crea objetos por
+ * registro, por lo que no debe usarse para medir asignaciones.
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.processing.pooled.enabled} - habilita el modo (por defecto false)</li>
+ *   <li>{@code kafka.processing.pooled.capacity} - eventos libres máximos por hilo (por defecto 1000)</li>
+ *   <li>{@code kafka.processing.pooled.leak-detection} - detecta eventos no liberados (por defecto false)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class KafkaEventPool {
+
+    /** Limpiador compartido que ejecuta los informes de fugas */
+    private static final Cleaner LEAK_CLEANER = Cleaner.create();
+
+    /** Logging por registro; se cambia al contexto MDC sin asignaciones y al modo estructurado */
+    @Autowired
+    private KafkaEventLogger eventLogger;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita el modo */
+    @Value("${kafka.processing.pooled.enabled:false}")
+    private boolean enabled;
+
+    /** Eventos libres máximos por hilo */
+    @Value("${kafka.processing.pooled.capacity:1000}")
+    private int capacity;
+
+    /** Detecta eventos no liberados */
+    @Value("${kafka.processing.pooled.leak-detection:false}")
+    private boolean leakDetection;
+
+    /** El modo es incompatible con el listener por lotes */
+    @Value("${kafka.consumer.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    /** El modo es incompatible con el procesamiento paralelo */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean parallelProcessingEnabled;
+
+    /** El modo es incompatible con el buffer de procesamiento */
+    @Value("${kafka.processing.buffer.enabled:false}")
+    private boolean bufferEnabled;
+
+    /** El modo es incompatible con los tópicos de reintento */
+    @Value("${kafka.consumer.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
+
+    /** Eventos libres y prestados de cada hilo */
+    private final ThreadLocal<ThreadEvents> threadEvents = ThreadLocal.withInitial(ThreadEvents::new);
+
+    /** Eventos creados porque el pool del hilo estaba vacío */
+    private Counter allocations;
+
+    /** Eventos reclamados por el recolector sin haberse liberado */
+    private Counter leaks;
+
+    /**
+     * Registra las métricas y cambia el contexto MDC si el modo está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (batchEnabled || parallelProcessingEnabled || bufferEnabled || retryTopicEnabled) {
+            log.warn("Pool de eventos deshabilitado: no es compatible con kafka.consumer.batch.enabled, "
+                    + "kafka.processing.parallel.enabled, kafka.processing.buffer.enabled ni kafka.consumer.retry-topic.enabled");
+            enabled = false;
+            return;
+        }
+
+        allocations = Counter.builder("kafka.processing.pool.allocations")
+                .description("Eventos creados porque el pool del hilo estaba vacío").register(meterRegistry);
+        leaks = Counter.builder("kafka.processing.pool.leaks")
+                .description("Eventos del pool reclamados por el recolector sin haberse liberado").register(meterRegistry);
+
+        eventLogger.setLightweightContext(true);
+
+        // El bloque detallado por registro crea fechas, cadenas y arrays de argumentos en cada registro
+        if (eventLogger.getMode() == KafkaEventLogger.Mode.DETAILED) {
+            log.warn("kafka.logging.mode=DETAILED no es compatible con el pool de eventos, se usa STRUCTURED");
+            eventLogger.setMode(KafkaEventLogger.Mode.STRUCTURED);
+        }
+
+        log.info("Pool de eventos habilitado: {} eventos libres por hilo, detección de fugas {}",
+                capacity, leakDetection ? "activa" : "inactiva");
+    }
+
+    /**
+     * Indica si los eventos se toman del pool.
+     *
+     * @return {@code true} si {@code kafka.processing.pooled.enabled} es verdadero y el modo es compatible
+     *         con el resto de la configuración
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Toma un evento libre del pool del hilo actual, o crea uno si no hay.
+     *
+     * @return evento prestado; sus campos pueden conservar valores del registro anterior
+     */
+    public KafkaEvent acquire() {
+
+        ThreadEvents events = threadEvents.get();
+
+        // Primera adquisición de un poll nuevo: lo que sigue prestado no se liberó en el poll anterior
+        if (events.listening) {
+            events.borrowed.clear();
+            events.listening = false;
+        }
+
+        PooledKafkaEvent kafkaEvent = events.free.pollLast();
+
+        if (kafkaEvent == null) {
+            kafkaEvent = new PooledKafkaEvent();
+            allocations.increment();
+        }
+
+        kafkaEvent.acquired = true;
+        events.borrowed.addLast(kafkaEvent);
+
+        if (leakDetection) {
+            kafkaEvent.leakReport = new LeakReport(new Throwable("KafkaEvent adquirido en " + Thread.currentThread().getName()), leaks);
+            kafkaEvent.leakTracker = LEAK_CLEANER.register(kafkaEvent, kafkaEvent.leakReport);
+        }
+
+        return kafkaEvent;
+    }
+
+    /**
+     * Devuelve un evento al pool del hilo actual tras restablecerlo. Los eventos que no provienen del
+     * pool se ignoran.
+     *
+     * @param kafkaEvent evento adquirido con {@link #acquire()}; no debe usarse después
+     */
+    public void release(KafkaEvent kafkaEvent) {
+        release(kafkaEvent, true);
+    }
+
+    /**
+     * Devuelve al pool un evento que no llegó a entregarse al listener porque el payload no pudo
+     * deserializarse. A diferencia de {@link #release(KafkaEvent)}, no marca el final de las adquisiciones
+     * del poll en curso.
+     *
+     * @param kafkaEvent evento adquirido con {@link #acquire()}; no debe usarse después
+     */
+    public void releaseUndelivered(KafkaEvent kafkaEvent) {
+        release(kafkaEvent, false);
+    }
+
+    private void release(KafkaEvent kafkaEvent, boolean delivered) {
+
+        if (!(kafkaEvent instanceof PooledKafkaEvent pooledEvent) || !returned(pooledEvent, delivered)) {
+            return;
+        }
+
+        pooledEvent.reset();
+
+        ArrayDeque<PooledKafkaEvent> free = threadEvents.get().free;
+
+        if (free.size() < capacity) {
+            free.addLast(pooledEvent);
+        }
+    }
+
+    /**
+     * Da por terminado el préstamo de un evento que sigue referenciado fuera del pool (p. ej. por el
+     * manejador de errores del contenedor): no vuelve al pool ni se informa como fuga.
+     *
+     * @param kafkaEvent evento adquirido con {@link #acquire()}
+     */
+    public void discard(KafkaEvent kafkaEvent) {
+
+        if (kafkaEvent instanceof PooledKafkaEvent pooledEvent) {
+            returned(pooledEvent, true);
+        }
+    }
+
+    /**
+     * Descarta ({@link #discard(KafkaEvent)}) todos los eventos prestados del poll en curso en el hilo
+     * actual: el del registro que falló y los de los registros restantes del poll, que el contenedor
+     * descarta y vuelve a leer tras propagar la excepción.
+     */
+    public void discardPending() {
+
+        if (!enabled) {
+            return;
+        }
+
+        ThreadEvents events = threadEvents.get();
+        PooledKafkaEvent kafkaEvent;
+
+        while ((kafkaEvent = events.borrowed.pollFirst()) != null) {
+            closeLoan(kafkaEvent);
+        }
+
+        events.listening = true;
+    }
+
+    /**
+     * Marca el evento como no prestado, lo quita de los prestados del hilo y cierra su registro en el
+     * detector de fugas.
+     *
+     * @param delivered el evento llegó al listener: el poll en curso ya no adquiere más eventos
+     * @return {@code false} si el evento no estaba prestado
+     */
+    private boolean returned(PooledKafkaEvent kafkaEvent, boolean delivered) {
+
+        if (!kafkaEvent.acquired) {
+            log.error("KafkaEvent del pool liberado sin estar prestado (doble liberación): {}", kafkaEvent,
+                    leakDetection ? new Throwable("Liberado en " + Thread.currentThread().getName()) : null);
+            return false;
+        }
+
+        ThreadEvents events = threadEvents.get();
+
+        // Los eventos se liberan en el orden del poll: normalmente es el primero
+        events.borrowed.removeFirstOccurrence(kafkaEvent);
+        events.listening |= delivered;
+
+        closeLoan(kafkaEvent);
+
+        return true;
+    }
+
+    /**
+     * Marca el evento como no prestado y cierra su registro en el detector de fugas.
+     */
+    private static void closeLoan(PooledKafkaEvent kafkaEvent) {
+
+        kafkaEvent.acquired = false;
+
+        if (kafkaEvent.leakTracker != null) {
+            kafkaEvent.leakReport.closed = true;
+            kafkaEvent.leakTracker.clean();
+            kafkaEvent.leakTracker = null;
+            kafkaEvent.leakReport = null;
+        }
+    }
+
+    /**
+     * Eventos de un hilo consumidor. Solo los manipula ese hilo.
+     */
+    private static final class ThreadEvents {
+
+        /** Eventos libres */
+        final ArrayDeque<PooledKafkaEvent> free = new ArrayDeque<>();
+
+        /** Eventos prestados del poll en curso, en orden de adquisición */
+        final ArrayDeque<PooledKafkaEvent> borrowed = new ArrayDeque<>();
+
+        /** El listener ya liberó o descartó algún evento del poll en curso */
+        boolean listening;
+    }
+
+    /**
+     * Acción del {@link Cleaner} de un evento prestado: informa la fuga si el evento no se liberó.
+     * No referencia al evento, para no impedir que el recolector lo reclame.
+     */
+    static final class LeakReport implements Runnable {
+
+        /** Traza de la adquisición del evento */
+        private final Throwable acquisition;
+
+        /** Contador de fugas */
+        private final Counter leaks;
+
+        /** El evento se liberó o descartó */
+        volatile boolean closed;
+
+        LeakReport(Throwable acquisition, Counter leaks) {
+            this.acquisition = acquisition;
+            this.leaks = leaks;
+        }
+
+        @Override
+        public void run() {
+
+            if (closed) {
+                return;
+            }
+
+            leaks.increment();
+            log.error("Fuga de KafkaEvent: el evento no se liberó al pool antes de ser reclamado por el recolector",
+                    acquisition);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Carril de ejecución secuencial asociado a un conjunto de claves de ordenamiento.
+ * <p>
+ * Encola las tareas recibidas y las ejecuta una a una, en orden de llegada, sobre el
+ * {@link Executor} compartido del motor. Nunca hay dos tareas del mismo carril ejecutándose
+ * a la vez, lo que garantiza el orden por clave sin reservar un hilo por carril.
+ */
+class KeyLane implements Executor {
+
+    /** Executor compartido que aporta los hilos de ejecución */
+    private final Executor executor;
+
+    /** Tareas pendientes del carril, en orden de llegada */
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    /** Tarea actualmente entregada al executor, o {@code null} si el carril está inactivo */
+    private Runnable active;
+
+    KeyLane(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Encola una tarea en el carril; si el carril está inactivo la entrega inmediatamente al executor.
+     *
+     * @param task tarea a ejecutar tras las tareas previas del carril
+     */
+    @Override
+    public synchronized void execute(Runnable task) {
+
+        tasks.add(() -> {
+            try {
+                task.run();
+            } finally {
+                scheduleNext();
+            }
+        });
+
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Entrega al executor la siguiente tarea pendiente, si existe.
+     */
+    private synchronized void scheduleNext() {
+
+        active = tasks.poll();
+
+        if (active != null) {
+            executor.execute(active);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de procesamiento paralelo con orden garantizado por clave.
+ * <p>
+ * Se sitúa entre {@code KafkaListenerService} y el {@link EventPipeline}: el hilo del
+ * consumidor transforma el registro y lo entrega al motor, que lo asigna a un {@link KeyLane}
+ * según su clave de ordenamiento. Los carriles comparten un pool de workers, por lo que los
+ * registros de una misma partición se procesan en paralelo mientras que los de una misma
+ * clave se procesan siempre en orden.
+ * <p>
+ * Garantías de commit:
+ * <ul>
+ *   <li>Cada registro se confirma (acknowledge) desde el worker al terminar su procesamiento.</li>
+ *   <li>El contenedor se configura con {@code asyncAcks}, de modo que los acks fuera de orden se
+ *       difieren y solo se hace commit de un offset cuando todos los anteriores de la partición
+ *       están confirmados.</li>
+ *   <li>Con {@code asyncAcks} el consumidor queda pausado hasta confirmar todos los registros del
+ *       poll, lo que acota los registros en vuelo a {@code kafka.processing.parallel.max-poll-records}.</li>
+ * </ul>
+ * <p>
+ * Modo de hilos virtuales: con {@code kafka.processing.parallel.virtual-threads} cada tarea de un carril
+ * se ejecuta en un hilo virtual de Java 21 en lugar de en un pool fijo, adecuado para lógica de
+ * negocio dominada por I/O bloqueante (HTTP, JDBC). La concurrencia se limita con un semáforo de
+ * {@code kafka.processing.parallel.max-concurrency} permisos, adquirido ya dentro del hilo virtual
+ * para no bloquear al hilo del consumidor. Como un carril ejecuta una sola tarea a la vez, en este modo
+ * se usan al menos {@code max-concurrency} carriles, y {@code max-poll-records} toma por defecto el mismo
+ * valor para que el límite de registros en vuelo no quede por debajo del de concurrencia.
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.processing.parallel.enabled} - habilita el motor (por defecto false)</li>
+ *   <li>{@code kafka.processing.parallel.workers} - hilos del pool (por defecto, número de CPUs)</li>
+ *   <li>{@code kafka.processing.parallel.virtual-threads} - usa un hilo virtual por tarea (por defecto false)</li>
+ *   <li>{@code kafka.processing.parallel.max-concurrency} - tareas simultáneas en modo virtual (por defecto 1000)</li>
+ *   <li>{@code kafka.processing.parallel.lanes} - número de carriles de ordenamiento (por defecto 256;
+ *       en modo virtual, al menos {@code max-concurrency})</li>
+ *   <li>{@code kafka.processing.parallel.max-poll-records} - registros por poll (por defecto 500;
+ *       en modo virtual, {@code max-concurrency})</li>
+ *   <li>{@code kafka.processing.parallel.ordering-key} - {@code REFERENCE} o {@code RECORD_KEY} (por defecto REFERENCE)</li>
+ *   <li>{@code kafka.processing.parallel.shutdown-timeout} - espera máxima en ms al detener el pool (por defecto 30s)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class KeyOrderedProcessingEngine {
+
+    /**
+     * Origen de la clave utilizada para asignar registros a carriles.
+     */
+    public enum OrderingKey {
+        /** {@link KafkaEvent#getReference()}, con la clave del registro como respaldo */
+        REFERENCE,
+        /** Clave del registro Kafka ({@link ConsumerRecord#key()}) */
+        RECORD_KEY
+    }
+
+    /** Etapas de validación, procesamiento y acknowledge del registro */
+    @Autowired
+    private EventPipeline eventPipeline;
+
+    /** Logging por registro; el contexto MDC del registro se publica también en el worker */
+    @Autowired
+    private KafkaEventLogger eventLogger;
+
+    /** Habilita el procesamiento paralelo por clave */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean enabled;
+
+    /** Número de hilos del pool de workers */
+    @Value("${kafka.processing.parallel.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int workers;
+
+    /** Ejecuta cada tarea en un hilo virtual en lugar de en el pool fijo */
+    @Value("${kafka.processing.parallel.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    /** Máximo de tareas simultáneas en modo de hilos virtuales */
+    @Value("${kafka.processing.parallel.max-concurrency:1000}")
+    private int maxConcurrency;
+
+    /** Número de carriles de ordenamiento */
+    @Value("${kafka.processing.parallel.lanes:256}")
+    private int laneCount;
+
+    /** Registros por poll; acota los registros en vuelo porque el consumidor espera a confirmar el poll */
+    @Value("${kafka.processing.parallel.max-poll-records:#{${kafka.processing.parallel.virtual-threads:false} ? ${kafka.processing.parallel.max-concurrency:1000} : 500}}")
+    private int maxPollRecords;
+
+    /** Origen de la clave de ordenamiento */
+    @Value("${kafka.processing.parallel.ordering-key:REFERENCE}")
+    private OrderingKey orderingKey;
+
+    /** Espera máxima (ms) para terminar las tareas en curso al detener el motor */
+    @Value("${kafka.processing.parallel.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    /** Pool de workers (o executor de hilos virtuales) compartido por todos los carriles */
+    private ExecutorService workerPool;
+
+    /** Carriles de ordenamiento; cada clave se asigna siempre al mismo carril */
+    private KeyLane[] lanes;
+
+    /**
+     * Inicializa el pool de workers y los carriles si el motor está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        Executor laneExecutor;
+
+        if (virtualThreads) {
+
+            // Cada carril ejecuta una tarea a la vez: con menos carriles que permisos el semáforo nunca limita
+            laneCount = Math.max(laneCount, maxConcurrency);
+
+            if (maxPollRecords < maxConcurrency) {
+                log.warn("kafka.processing.parallel.max-poll-records ({}) es menor que max-concurrency ({}), la concurrencia efectiva queda limitada a {} registros",
+                        maxPollRecords, maxConcurrency, maxPollRecords);
+            }
+
+            workerPool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kafka-vworker-", 0).factory());
+            laneExecutor = boundedExecutor(workerPool, new Semaphore(maxConcurrency));
+
+            log.info("Procesamiento paralelo por clave habilitado con hilos virtuales: máximo {} tareas, {} carriles, clave {}",
+                    maxConcurrency, laneCount, orderingKey);
+
+        } else {
+
+            workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("kafka-worker-"));
+            laneExecutor = workerPool;
+
+            log.info("Procesamiento paralelo por clave habilitado: {} workers, {} carriles, clave {}",
+                    workers, laneCount, orderingKey);
+        }
+
+        lanes = new KeyLane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new KeyLane(laneExecutor);
+        }
+    }
+
+    /**
+     * Envuelve un executor de hilos virtuales para limitar las tareas que ejecutan lógica de negocio
+     * a la vez. El permiso se adquiere dentro del hilo virtual, donde bloquear es barato.
+     */
+    private static Executor boundedExecutor(ExecutorService executor, Semaphore permits) {
+
+        return task -> executor.execute(() -> {
+
+            permits.acquireUninterruptibly();
+
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Indica si el motor está habilitado y debe recibir los registros del listener.
+     *
+     * @return {@code true} si {@code kafka.processing.parallel.enabled} es verdadero
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Entrega un evento al carril correspondiente a su clave de ordenamiento.
+     * <p>
+     * La validación, el procesamiento y el acknowledge se ejecutan en un worker. Si el procesamiento falla,
+     * el error se registra y el registro se confirma igualmente para evitar loops infinitos,
+     * con el mismo criterio que el listener aplica a errores inesperados.
+     *
+     * @param consumerRecord registro original (clave, partición y offset)
+     * @param kafkaEvent evento ya transformado
+     * @param acknowledgment objeto para confirmar el registro al terminar
+     */
+    public void submit(ConsumerRecord<String, KafkaEvent> consumerRecord, KafkaEvent kafkaEvent, Acknowledgment acknowledgment) {
+
+        laneFor(consumerRecord, kafkaEvent).execute(() -> {
+
+            eventLogger.setContext(consumerRecord);
+
+            try {
+
+                eventPipeline.process(consumerRecord, kafkaEvent, acknowledgment);
+
+            } catch (Exception e) {
+
+                eventPipeline.report(consumerRecord, EventOutcome.ERROR, e);
+                acknowledgment.acknowledge();
+
+            } finally {
+
+                eventLogger.clearContext();
+            }
+        });
+    }
+
+    /**
+     * Selecciona el carril de un registro a partir de su clave de ordenamiento. Si el registro
+     * no tiene clave, se usa la partición para conservar al menos el orden por partición.
+     */
+    private KeyLane laneFor(ConsumerRecord<String, ?> consumerRecord, KafkaEvent kafkaEvent) {
+
+        String key = orderingKey == OrderingKey.REFERENCE && kafkaEvent.getReference() != null
+                ? kafkaEvent.getReference()
+                : consumerRecord.key();
+
+        int hash = key != null ? key.hashCode() : Integer.hashCode(consumerRecord.partition());
+
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+
+    /**
+     * Detiene el pool de workers esperando a que terminen las tareas en curso.
+     * <p>
+     * Spring detiene los contenedores de listeners antes de destruir este bean, por lo que
+     * no llegan registros nuevos durante la espera.
+     */
+    @PreDestroy
+    void shutdown() {
+
+        if (workerPool == null) {
+            return;
+        }
+
+        workerPool.shutdown();
+
+        try {
+
+            if (!workerPool.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("Tiempo de espera agotado deteniendo workers, se interrumpen las tareas pendientes");
+                workerPool.shutdownNow();
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            workerPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agrupación de los commits de offsets del listener por registro.
+ * <p>
+ * Con {@code AckMode.MANUAL_IMMEDIATE} cada {@code acknowledge()} hace un {@code commitSync} antes de
+ * pasar al siguiente registro. En modo {@link CommitMode#COALESCED} el contenedor usa
+ * {@code AckMode.MANUAL} con commits asíncronos ({@code commitAsync}) y este componente retiene
+ * localmente el último acknowledge de cada partición ({@link #defer(ConsumerRecord, Acknowledgment)}).
+ * Como el listener procesa cada partición en orden, ese acknowledge cubre todos los offsets anteriores:
+ * al liberarlo se confirma el offset contiguo más alto de la partición.
+ * <p>
+ * Los acknowledges retenidos se liberan:
+ * <ul>
+ *   <li>Al acumular {@code kafka.consumer.commit.count} acknowledges.</li>
+ *   <li>Al pasar {@code kafka.consumer.commit.interval} ms desde la última liberación, tanto al recibir
+ *       un acknowledge como de forma periódica sin tráfico. Los acknowledges liberados fuera del hilo del
+ *       consumidor se confirman tras el siguiente poll.</li>
+ *   <li>Al revocar particiones (rebalanceo o parada del contenedor): se confirman con
+ *       {@code commitSync} antes de ceder la partición.</li>
+ *   <li>Ante un fallo del registro, antes de que el manejador de errores confirme o reposicione la
+ *       partición ({@link #flush(ConsumerRecord)}), para no confirmar después un offset anterior.</li>
+ * </ul>
+ * Con el procesamiento paralelo los acknowledges no se retienen: el contenedor ya los ordena con
+ * {@code asyncAcks} y los confirma de forma asíncrona una vez por poll.
+ * <p>
+ * Métricas publicadas:
+ * <ul>
+ *   <li>{@code kafka.listener.commit.flushes} - liberaciones, con tag {@code trigger}
+ *       ({@code count}/{@code time}/{@code revocation})</li>
+ * </ul>
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.commit.mode} - {@code IMMEDIATE} o {@code COALESCED} (por defecto IMMEDIATE)</li>
+ *   <li>{@code kafka.consumer.commit.count} - acknowledges retenidos antes de liberar (por defecto 500)</li>
+ *   <li>{@code kafka.consumer.commit.interval} - tiempo máximo en ms entre liberaciones (por defecto 1s)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OffsetCommitCoalescer implements ConsumerAwareRebalanceListener {
+
+    /**
+     * Modo de commit de los offsets.
+     */
+    public enum CommitMode {
+
+        /** Un {@code commitSync} por acknowledge ({@code AckMode.MANUAL_IMMEDIATE}) */
+        IMMEDIATE,
+
+        /** Acknowledges retenidos por partición y liberados por número, tiempo, revocación o fallo */
+        COALESCED
+    }
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Modo de commit */
+    @Value("${kafka.consumer.commit.mode:IMMEDIATE}")
+    private CommitMode mode;
+
+    /** Acknowledges retenidos antes de liberar */
+    @Value("${kafka.consumer.commit.count:500}")
+    private int flushCount;
+
+    /** Tiempo máximo (ms) entre liberaciones */
+    @Value("${kafka.consumer.commit.interval:1000}")
+    private long flushInterval;
+
+    /** Con el procesamiento paralelo los acknowledges no se retienen */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean parallelProcessingEnabled;
+
+    /** Último acknowledge retenido por partición */
+    private final Map<TopicPartition, PendingAck> pendingAcks = new ConcurrentHashMap<>();
+
+    /** Acknowledges recibidos desde la última liberación */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /** Momento ({@link System#nanoTime()}) de la última liberación */
+    private volatile long lastFlush = System.nanoTime();
+
+    /** Los acknowledges se retienen ({@code COALESCED} sin procesamiento paralelo) */
+    private boolean deferring;
+
+    /** Liberaciones por número de acknowledges */
+    private Counter countFlushes;
+
+    /** Liberaciones por tiempo */
+    private Counter timeFlushes;
+
+    /** Liberaciones por revocación de particiones */
+    private Counter revocationFlushes;
+
+    /**
+     * Registra las métricas si los acknowledges se retienen.
+     */
+    @PostConstruct
+    void init() {
+
+        deferring = mode == CommitMode.COALESCED && !parallelProcessingEnabled;
+
+        if (!deferring) {
+            return;
+        }
+
+        countFlushes = flushCounter("count");
+        timeFlushes = flushCounter("time");
+        revocationFlushes = flushCounter("revocation");
+
+        log.info("Commits agrupados habilitados: cada {} acknowledges o {}ms, con commitAsync", flushCount, flushInterval);
+    }
+
+    private Counter flushCounter(String trigger) {
+        return Counter.builder("kafka.listener.commit.flushes").tag("trigger", trigger)
+                .description("Liberaciones de acknowledges retenidos").register(meterRegistry);
+    }
+
+    /**
+     * Indica si el contenedor debe usar {@code AckMode.MANUAL} con commits asíncronos.
+     *
+     * @return {@code true} con {@code kafka.consumer.commit.mode=COALESCED}
+     */
+    public boolean isEnabled() {
+        return mode == CommitMode.COALESCED;
+    }
+
+    /**
+     * Envuelve el acknowledge de un registro para retenerlo hasta la siguiente liberación.
+     *
+     * @param consumerRecord registro al que corresponde el acknowledge
+     * @param acknowledgment acknowledge del contenedor
+     * @return acknowledge retenido, o el original si los acknowledges no se retienen
+     */
+    public Acknowledgment defer(ConsumerRecord<?, ?> consumerRecord, Acknowledgment acknowledgment) {
+
+        if (!deferring) {
+            return acknowledgment;
+        }
+
+        return () -> retain(consumerRecord, acknowledgment);
+    }
+
+    /**
+     * Retiene el acknowledge como el último de su partición y libera si se alcanza algún umbral.
+     */
+    private void retain(ConsumerRecord<?, ?> consumerRecord, Acknowledgment acknowledgment) {
+
+        pendingAcks.put(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                new PendingAck(consumerRecord.offset(), acknowledgment));
+
+        if (pendingCount.incrementAndGet() >= flushCount) {
+            flushAll(countFlushes);
+        } else if (System.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS.toNanos(flushInterval)) {
+            flushAll(timeFlushes);
+        }
+    }
+
+    /**
+     * Libera periódicamente los acknowledges retenidos cuando no llegan registros nuevos.
+     */
+    @Scheduled(fixedDelayString = "${kafka.consumer.commit.interval:1000}")
+    public void flushIdle() {
+
+        if (deferring && !pendingAcks.isEmpty()
+                && System.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS.toNanos(flushInterval)) {
+            flushAll(timeFlushes);
+        }
+    }
+
+    /**
+     * Libera el acknowledge retenido de la partición de un registro fallido. Se invoca antes de
+     * relanzar la excepción al contenedor, para que el commit del manejador de errores no quede
+     * detrás de un offset anterior.
+     *
+     * @param consumerRecord registro fallido
+     */
+    public void flush(ConsumerRecord<?, ?> consumerRecord) {
+
+        if (!deferring) {
+            return;
+        }
+
+        PendingAck pendingAck = pendingAcks.remove(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()));
+
+        if (pendingAck != null) {
+            pendingAck.acknowledgment().acknowledge();
+        }
+    }
+
+    private void flushAll(Counter trigger) {
+
+        pendingCount.set(0);
+        lastFlush = System.nanoTime();
+
+        pendingAcks.forEach((partition, pendingAck) -> {
+            if (pendingAcks.remove(partition, pendingAck)) {
+                pendingAck.acknowledgment().acknowledge();
+            }
+        });
+
+        trigger.increment();
+    }
+
+    /**
+     * Confirma con {@code commitSync} los acknowledges retenidos de las particiones revocadas, antes de
+     * que el contenedor confirme sus acknowledges pendientes. Se ejecuta en el hilo del consumidor,
+     * también al parar el contenedor.
+     *
+     * @param consumer consumidor que pierde las particiones
+     * @param partitions particiones revocadas
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+
+        if (!deferring) {
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+
+        for (TopicPartition partition : partitions) {
+
+            PendingAck pendingAck = pendingAcks.remove(partition);
+
+            if (pendingAck != null) {
+                // También al contenedor, para que su commit posterior no confirme un offset anterior
+                pendingAck.acknowledgment().acknowledge();
+                offsets.put(partition, new OffsetAndMetadata(pendingAck.offset() + 1));
+            }
+        }
+
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        try {
+
+            consumer.commitSync(offsets);
+            revocationFlushes.increment();
+
+        } catch (Exception e) {
+
+            log.warn("No se pudieron confirmar los offsets de las particiones revocadas {}: {}", offsets, e.getMessage());
+        }
+    }
+
+    /**
+     * Acknowledge retenido de una partición.
+     *
+     * @param offset offset del registro
+     * @param acknowledgment acknowledge del contenedor
+     */
+    private record PendingAck(long offset, Acknowledgment acknowledgment) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * {@link KafkaEvent} reutilizable de {@link KafkaEventPool}, con el estado de préstamo.
+ * <p>
+ * Solo lo manipula el hilo del consumidor dueño del pool, por lo que sus campos no son volátiles.
+ */
+final class PooledKafkaEvent extends KafkaEvent {
+
+    /** El evento está prestado: adquirido y aún no liberado ni descartado */
+    boolean acquired;
+
+    /** Registro del detector de fugas mientras el evento está prestado ({@code null} sin detección) */
+    Cleaner.Cleanable leakTracker;
+
+    /** Acción del detector de fugas asociada a {@link #leakTracker} */
+    KafkaEventPool.LeakReport leakReport;
+}
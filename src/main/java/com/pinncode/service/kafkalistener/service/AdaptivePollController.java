@@ -0,0 +1,278 @@
+package com.pinncode.service.kafkalistener.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Controlador adaptativo del número de registros por poll del listener principal.
+ * <p>
+ * Mide el tiempo de procesamiento por registro (validación, lógica de negocio y acknowledge, reportado
+ * por {@code EventPipeline}) y lo compara con el presupuesto de cada poll: una fracción
+ * ({@code target-utilization}) de {@code max.poll.interval.ms}. A partir de la media móvil del tiempo
+ * por registro calcula el objetivo de {@code max.poll.records} que cabe en ese presupuesto:
+ * <ul>
+ *   <li><b>Reducción inmediata</b> si el valor actual supera en un 50% el objetivo, es decir, si un
+ *       poll completo consumiría más del 75% de {@code max.poll.interval.ms} con la utilización por
+ *       defecto: se adelanta a un downstream lento antes de que provoque un rebalanceo.</li>
+ *   <li><b>Aumento</b> si el objetivo duplica al valor actual y ha pasado {@code grow-cooldown} desde el
+ *       último cambio: lotes más grandes cuando el procesamiento es rápido.</li>
+ * </ul>
+ * El consumidor de Kafka no admite cambiar {@code max.poll.records} en caliente, por lo que cada ajuste
+ * se aplica reiniciando el contenedor con el nuevo valor en sus propiedades de consumidor. El reinicio
+ * provoca un rebalanceo del grupo; la histéresis y el periodo de espera acotan su frecuencia, y no se
+ * reinicia durante {@code kafka.consumer.restart.settle-time} tras otro reinicio, también los de
+ * {@link ListenerConcurrencyScaler} ({@link ListenerRestartGuard}). No se
+ * ajusta mientras el contenedor está pausado ni en los modos de procesamiento paralelo o con buffer,
+ * donde el tiempo medido es el de cada worker y no el del poll.
+ * <p>
+ * Métricas publicadas:
+ * <ul>
+ *   <li>{@code kafka.listener.poll.max.records} - {@code max.poll.records} aplicado</li>
+ *   <li>{@code kafka.listener.poll.target.records} - objetivo calculado en el último ciclo</li>
+ *   <li>{@code kafka.listener.poll.record.time} - media móvil del tiempo por registro (segundos)</li>
+ *   <li>{@code kafka.listener.poll.adjustments} - ajustes aplicados, con tag {@code direction} ({@code grow}/{@code shrink})</li>
+ * </ul>
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.adaptive-poll.enabled} - habilita el controlador (por defecto false)</li>
+ *   <li>{@code kafka.consumer.adaptive-poll.interval} - periodo de evaluación en ms (por defecto 30s)</li>
+ *   <li>{@code kafka.consumer.adaptive-poll.min-records} / {@code max-records} - límites de {@code max.poll.records} (por defecto 10 y 1000)</li>
+ *   <li>{@code kafka.consumer.adaptive-poll.target-utilization} - fracción de {@code max.poll.interval.ms} para un poll (por defecto 0.5)</li>
+ *   <li>{@code kafka.consumer.adaptive-poll.min-samples} - registros mínimos por ciclo para actualizar la media (por defecto 50)</li>
+ *   <li>{@code kafka.consumer.adaptive-poll.grow-cooldown} - espera mínima en ms desde el último ajuste para crecer (por defecto 10 min)</li>
+ *   <li>{@code kafka.consumer.max-poll-interval-ms} - {@code max.poll.interval.ms} del consumidor (por defecto 5 min)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AdaptivePollController {
+
+    /** Peso de la última muestra en la media móvil del tiempo por registro */
+    private static final double SMOOTHING = 0.3;
+
+    /** Exceso sobre el objetivo a partir del cual se reduce el tamaño del poll */
+    private static final double SHRINK_THRESHOLD = 1.5;
+
+    /** Factor del objetivo sobre el valor actual a partir del cual se aumenta */
+    private static final double GROW_THRESHOLD = 2.0;
+
+    /** Registro de contenedores creados a partir de {@code @KafkaListener} */
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    /** Reinicios compartidos con {@link ListenerConcurrencyScaler} */
+    @Autowired
+    private ListenerRestartGuard restartGuard;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita el controlador */
+    @Value("${kafka.consumer.adaptive-poll.enabled:false}")
+    private boolean enabled;
+
+    /** Mínimo de {@code max.poll.records} */
+    @Value("${kafka.consumer.adaptive-poll.min-records:10}")
+    private int minRecords;
+
+    /** Máximo de {@code max.poll.records} */
+    @Value("${kafka.consumer.adaptive-poll.max-records:1000}")
+    private int maxRecords;
+
+    /** Fracción de {@code max.poll.interval.ms} que puede ocupar el procesamiento de un poll */
+    @Value("${kafka.consumer.adaptive-poll.target-utilization:0.5}")
+    private double targetUtilization;
+
+    /** Registros mínimos procesados en un ciclo para actualizar la media */
+    @Value("${kafka.consumer.adaptive-poll.min-samples:50}")
+    private long minSamples;
+
+    /** Espera mínima (ms) desde el último ajuste para aumentar el tamaño del poll */
+    @Value("${kafka.consumer.adaptive-poll.grow-cooldown:600000}")
+    private long growCooldown;
+
+    /** {@code max.poll.interval.ms} del consumidor */
+    @Value("${kafka.consumer.max-poll-interval-ms:300000}")
+    private long maxPollInterval;
+
+    /** {@code max.poll.records} inicial del listener por registro */
+    @Value("${kafka.consumer.max-poll-records}")
+    private int initialMaxPollRecords;
+
+    /** El procesamiento paralelo mide el tiempo por worker; el controlador no actúa */
+    @Value("${kafka.processing.parallel.enabled:false}")
+    private boolean parallelProcessingEnabled;
+
+    /** El buffer de procesamiento también mide el tiempo por worker; el controlador no actúa */
+    @Value("${kafka.processing.buffer.enabled:false}")
+    private boolean bufferEnabled;
+
+    /** Registros procesados desde el último ciclo */
+    private final LongAdder processedRecords = new LongAdder();
+
+    /** Tiempo de procesamiento acumulado (ns) desde el último ciclo */
+    private final LongAdder processingNanos = new LongAdder();
+
+    /** Media móvil del tiempo de procesamiento por registro (ns); 0 sin muestras */
+    private volatile double recordNanos = 0;
+
+    /** {@code max.poll.records} aplicado al contenedor */
+    private volatile int currentMaxPollRecords;
+
+    /** Objetivo calculado en el último ciclo */
+    private volatile int targetMaxPollRecords;
+
+    /** Momento (ms) del último ajuste aplicado */
+    private long lastAdjustmentTime;
+
+    /** Ajustes que aumentan el tamaño del poll */
+    private Counter growCounter;
+
+    /** Ajustes que reducen el tamaño del poll */
+    private Counter shrinkCounter;
+
+    /**
+     * Inicializa el estado y registra las métricas si el controlador está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (parallelProcessingEnabled || bufferEnabled) {
+            log.warn("Control adaptativo del poll deshabilitado: no aplica con kafka.processing.parallel.enabled "
+                    + "ni kafka.processing.buffer.enabled");
+            enabled = false;
+            return;
+        }
+
+        currentMaxPollRecords = initialMaxPollRecords;
+        targetMaxPollRecords = initialMaxPollRecords;
+        lastAdjustmentTime = System.currentTimeMillis();
+
+        Gauge.builder("kafka.listener.poll.max.records", this, controller -> controller.currentMaxPollRecords)
+                .description("max.poll.records aplicado al listener principal")
+                .register(meterRegistry);
+
+        Gauge.builder("kafka.listener.poll.target.records", this, controller -> controller.targetMaxPollRecords)
+                .description("max.poll.records objetivo según el tiempo de procesamiento por registro")
+                .register(meterRegistry);
+
+        Gauge.builder("kafka.listener.poll.record.time", this, controller -> controller.recordNanos / TimeUnit.SECONDS.toNanos(1))
+                .description("Media móvil del tiempo de procesamiento por registro")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        growCounter = Counter.builder("kafka.listener.poll.adjustments").tag("direction", "grow")
+                .description("Ajustes de max.poll.records aplicados").register(meterRegistry);
+        shrinkCounter = Counter.builder("kafka.listener.poll.adjustments").tag("direction", "shrink")
+                .description("Ajustes de max.poll.records aplicados").register(meterRegistry);
+
+        log.info("Control adaptativo del poll habilitado: max.poll.records inicial {}, límites [{}, {}], {}% de max.poll.interval.ms ({}ms)",
+                initialMaxPollRecords, minRecords, maxRecords, Math.round(targetUtilization * 100), maxPollInterval);
+    }
+
+    /**
+     * Registra el tiempo de procesamiento de un registro. Se invoca desde el hilo del consumidor; el
+     * coste es la actualización de dos {@link LongAdder}.
+     *
+     * @param nanos duración de validación, procesamiento y acknowledge en nanosegundos
+     */
+    public void recordProcessingTime(long nanos) {
+
+        if (!enabled) {
+            return;
+        }
+
+        processedRecords.increment();
+        processingNanos.add(nanos);
+    }
+
+    /**
+     * Evalúa periódicamente el tiempo por registro y ajusta {@code max.poll.records} si es necesario.
+     */
+    @Scheduled(fixedDelayString = "${kafka.consumer.adaptive-poll.interval:30000}")
+    public void adjust() {
+
+        if (!enabled) {
+            return;
+        }
+
+        long records = processedRecords.sumThenReset();
+        long nanos = processingNanos.sumThenReset();
+
+        if (records >= minSamples) {
+            double sample = (double) nanos / records;
+            recordNanos = recordNanos == 0 ? sample : SMOOTHING * sample + (1 - SMOOTHING) * recordNanos;
+        }
+
+        if (recordNanos == 0) {
+            return;
+        }
+
+        double budgetNanos = TimeUnit.MILLISECONDS.toNanos(maxPollInterval) * targetUtilization;
+        int target = (int) Math.max(minRecords, Math.min(maxRecords, budgetNanos / recordNanos));
+        targetMaxPollRecords = target;
+
+        if (currentMaxPollRecords > target * SHRINK_THRESHOLD) {
+
+            apply(target, shrinkCounter);
+
+        } else if (target >= currentMaxPollRecords * GROW_THRESHOLD
+                && System.currentTimeMillis() - lastAdjustmentTime >= growCooldown) {
+
+            apply(target, growCounter);
+        }
+    }
+
+    /**
+     * Reinicia el contenedor del listener principal con el nuevo {@code max.poll.records}. Se omite si
+     * el contenedor no está en ejecución, está pausado (p. ej. por el circuit breaker) u otro reinicio
+     * se está asentando; se reintenta en el siguiente ciclo.
+     */
+    private void apply(int maxPollRecords, Counter counter) {
+
+        MessageListenerContainer container =
+                kafkaListenerEndpointRegistry.getListenerContainer(KafkaListenerService.LISTENER_ID);
+
+        if (container == null || !container.isRunning() || container.isPauseRequested()) {
+            return;
+        }
+
+        boolean restarted = restartGuard.restart(container, () -> {
+            Properties consumerOverrides = new Properties();
+            consumerOverrides.putAll(container.getContainerProperties().getKafkaConsumerProperties());
+            consumerOverrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+            container.getContainerProperties().setKafkaConsumerProperties(consumerOverrides);
+        });
+
+        if (!restarted) {
+            return;
+        }
+
+        log.info("Ajustando max.poll.records de {} a {} (tiempo medio por registro {}ms), se reinicia el listener",
+                currentMaxPollRecords, maxPollRecords, String.format("%.3f", recordNanos / 1_000_000));
+
+        currentMaxPollRecords = maxPollRecords;
+        lastAdjustmentTime = System.currentTimeMillis();
+        counter.increment();
+    }
+}
@@ -0,0 +1,417 @@
+package com.pinncode.service.kafkalistener.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monitor del lag del grupo de consumo, en offsets y en tiempo, por partición.
+ * <p>
+ * Cada {@code kafka.consumer.lag.interval} ms consulta con el {@link AdminClient} los offsets
+ * confirmados del grupo ({@code listConsumerGroupOffsets}) y los offsets finales de cada partición del
+ * tópico ({@code listOffsets}) y guarda el resultado en una instantánea inmutable ({@link LagSnapshot}).
+ * Las métricas, el endpoint y el {@link ListenerConcurrencyScaler} leen esa instantánea sin volver a
+ * consultar al broker.
+ * <p>
+ * El lag en tiempo se estima a partir del timestamp del último registro procesado de cada partición,
+ * que el pipeline reporta con {@link #recordProcessed(ConsumerRecord)}: si la partición tiene lag, es
+ * la antigüedad de ese registro; si no tiene, es cero. Una partición con lag en la que no se ha
+ * procesado ningún registro desde el arranque tiene lag en tiempo desconocido.
+ * <p>
+ * Las consultas se ejecutan en el hilo dedicado {@code kafka-lag-}, sin ocupar el hilo de
+ * {@code @Scheduled} de Spring, y se omiten mientras el circuito de los listeners está abierto.
+ * <p>
+ * Expone el endpoint de Actuator {@code /actuator/kafkalag}, con las particiones ordenadas de mayor a
+ * menor lag en tiempo (y en offsets a igualdad), y las métricas por partición:
+ * <ul>
+ *   <li>{@code kafka.consumer.lag} - registros pendientes, con tags {@code topic} y {@code partition}</li>
+ *   <li>{@code kafka.consumer.lag.time} - lag estimado en segundos, con tags {@code topic} y {@code partition}</li>
+ * </ul>
+ * Ambas valen {@code NaN} mientras el valor es desconocido (sin offset confirmado o sin registros procesados).
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.lag.enabled} - habilita el monitor (por defecto true)</li>
+ *   <li>{@code kafka.consumer.lag.interval} - periodo de consulta en ms (por defecto 15s)</li>
+ *   <li>{@code kafka.consumer.lag.ranking-size} - particiones devueltas por el endpoint (por defecto 10)</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@Endpoint(id = "kafkalag")
+public class ConsumerLagMonitor {
+
+    /**
+     * Orden del ranking de {@link #lag}: primero las particiones con registros pendientes y lag en tiempo
+     * desconocido (ningún registro procesado desde el arranque, las más probablemente atascadas), por lag
+     * en registros; después por lag en tiempo y, a igualdad, por lag en registros, de mayor a menor.
+     */
+    private static final Comparator<PartitionLag> MOST_LAGGING_FIRST = Comparator
+            .comparing((PartitionLag partitionLag) -> partitionLag.lag() > 0 && partitionLag.timeLagMs() < 0)
+            .thenComparingLong(PartitionLag::timeLagMs)
+            .thenComparingLong(PartitionLag::lag)
+            .reversed();
+
+    /**
+     * Cliente de administración de Kafka. Se resuelve en el primer refresco: {@code KafkaConfig}
+     * depende de este servicio a través de {@code EventPipeline}.
+     */
+    @Autowired
+    private ObjectProvider<AdminClient> kafkaAdminClient;
+
+    /** Circuit breaker de los listeners; no se consulta al broker mientras está abierto */
+    @Autowired
+    private KafkaListenerCircuitBreaker circuitBreaker;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita el monitor */
+    @Value("${kafka.consumer.lag.enabled:true}")
+    private boolean enabled;
+
+    /** Tópico consumido */
+    @Value("${kafka.consumer.topic}")
+    private String topic;
+
+    /** Grupo de consumo cuyo lag se mide */
+    @Value("${kafka.consumer.group-id}")
+    private String groupId;
+
+    /** Particiones devueltas por defecto en el endpoint */
+    @Value("${kafka.consumer.lag.ranking-size:10}")
+    private int rankingSize;
+
+    /** Timeout (ms) de las consultas al {@link AdminClient} */
+    @Value("${kafka.connection.health-check.timeout:30000}")
+    private long adminTimeout;
+
+    /** Hilo dedicado a las consultas de offsets */
+    private ExecutorService lagExecutor;
+
+    /**
+     * Timestamp del último registro procesado por partición (-1 sin registros). Crece bajo demanda
+     * si aparecen particiones nuevas.
+     */
+    private volatile AtomicLongArray processedTimestamps = new AtomicLongArray(0);
+
+    /** Última instantánea calculada */
+    private volatile LagSnapshot snapshot = LagSnapshot.EMPTY;
+
+    /** Particiones con gauges registrados (solo se accede desde {@link #lagExecutor}) */
+    private int registeredPartitions;
+
+    /** Último error de consulta, para registrarlo una sola vez */
+    private String lastError;
+
+    /**
+     * Crea el hilo de consultas si el monitor está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kafka-lag-");
+        threadFactory.setDaemon(true);
+        lagExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * Detiene el hilo de consultas.
+     */
+    @PreDestroy
+    void shutdown() {
+
+        if (lagExecutor != null) {
+            lagExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Registra el timestamp de un registro del tópico principal ya procesado. Se invoca desde el hilo
+     * del consumidor o de un worker; el coste es una escritura en un {@link AtomicLongArray}.
+     *
+     * @param consumerRecord registro procesado, con cualquier resultado
+     */
+    public void recordProcessed(ConsumerRecord<?, ?> consumerRecord) {
+
+        if (!enabled || !topic.equals(consumerRecord.topic())) {
+            return;
+        }
+
+        int partition = consumerRecord.partition();
+        AtomicLongArray timestamps = processedTimestamps;
+
+        if (partition >= timestamps.length()) {
+            timestamps = growTimestamps(partition + 1);
+        }
+
+        timestamps.set(partition, consumerRecord.timestamp());
+    }
+
+    /**
+     * Amplía el array de timestamps. Una escritura concurrente sobre el array anterior puede perderse;
+     * la corrige el siguiente registro de la partición.
+     */
+    private synchronized AtomicLongArray growTimestamps(int length) {
+
+        AtomicLongArray current = processedTimestamps;
+
+        if (length <= current.length()) {
+            return current;
+        }
+
+        AtomicLongArray grown = new AtomicLongArray(length);
+
+        for (int i = 0; i < length; i++) {
+            grown.set(i, i < current.length() ? current.get(i) : -1);
+        }
+
+        processedTimestamps = grown;
+        return grown;
+    }
+
+    /**
+     * Programa la consulta periódica de offsets en el hilo dedicado.
+     */
+    @Scheduled(fixedDelayString = "${kafka.consumer.lag.interval:15000}")
+    public void refresh() {
+
+        if (!enabled || circuitBreaker.isOpen()) {
+            return;
+        }
+
+        lagExecutor.execute(this::readLag);
+    }
+
+    /**
+     * Consulta los offsets y publica una nueva instantánea. Solo se ejecuta en el hilo dedicado.
+     */
+    private void readLag() {
+
+        try {
+
+            AdminClient adminClient = kafkaAdminClient.getObject();
+
+            TopicDescription description = adminClient.describeTopics(List.of(topic)).allTopicNames()
+                    .get(adminTimeout, TimeUnit.MILLISECONDS).get(topic);
+
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(adminTimeout, TimeUnit.MILLISECONDS);
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            description.partitions().forEach(partition ->
+                    latest.put(new TopicPartition(topic, partition.partition()), OffsetSpec.latest()));
+
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = adminClient.listOffsets(latest)
+                    .all().get(adminTimeout, TimeUnit.MILLISECONDS);
+
+            snapshot = buildSnapshot(description.partitions().size(), committed, endOffsets);
+            registerGauges(snapshot.partitions().size());
+
+            if (lastError != null) {
+                log.info("Consulta de lag del grupo {} restablecida", groupId);
+                lastError = null;
+            }
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+        } catch (Exception e) {
+
+            if (!e.toString().equals(lastError)) {
+                log.warn("No se pudo consultar el lag del grupo {}: {}", groupId, e.getMessage());
+            }
+
+            lastError = e.toString();
+        }
+    }
+
+    /**
+     * Combina los offsets consultados con los timestamps de los últimos registros procesados.
+     */
+    private LagSnapshot buildSnapshot(int partitionCount, Map<TopicPartition, OffsetAndMetadata> committed,
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets) {
+
+        long now = System.currentTimeMillis();
+        AtomicLongArray timestamps = processedTimestamps;
+
+        List<PartitionLag> partitions = new ArrayList<>(partitionCount);
+        long totalLag = 0;
+
+        for (int partition = 0; partition < partitionCount; partition++) {
+
+            TopicPartition topicPartition = new TopicPartition(topic, partition);
+            ListOffsetsResult.ListOffsetsResultInfo endOffset = endOffsets.get(topicPartition);
+            OffsetAndMetadata offset = committed.get(topicPartition);
+
+            long end = endOffset != null ? endOffset.offset() : -1;
+            long committedOffset = offset != null ? offset.offset() : -1;
+            long lag = end >= 0 && committedOffset >= 0 ? Math.max(0, end - committedOffset) : -1;
+
+            long lastTimestamp = partition < timestamps.length() ? timestamps.get(partition) : -1;
+            long timeLag = lag == 0 ? 0 : lag > 0 && lastTimestamp >= 0 ? Math.max(0, now - lastTimestamp) : -1;
+
+            if (lag > 0) {
+                totalLag += lag;
+            }
+
+            partitions.add(new PartitionLag(partition, committedOffset, end, lag, timeLag));
+        }
+
+        return new LagSnapshot(now, totalLag, List.copyOf(partitions));
+    }
+
+    /**
+     * Registra los gauges de las particiones que aún no los tienen. Leen la instantánea vigente.
+     */
+    private void registerGauges(int partitionCount) {
+
+        for (int partition = registeredPartitions; partition < partitionCount; partition++) {
+
+            int index = partition;
+            String partitionTag = String.valueOf(partition);
+
+            Gauge.builder("kafka.consumer.lag", this, monitor -> monitor.partitionLag(index).lagOrNaN())
+                    .description("Registros pendientes de consumir por partición")
+                    .tag("topic", topic).tag("partition", partitionTag)
+                    .register(meterRegistry);
+
+            Gauge.builder("kafka.consumer.lag.time", this, monitor -> monitor.partitionLag(index).timeLagSecondsOrNaN())
+                    .description("Lag estimado en tiempo por partición")
+                    .baseUnit("seconds")
+                    .tag("topic", topic).tag("partition", partitionTag)
+                    .register(meterRegistry);
+        }
+
+        registeredPartitions = Math.max(registeredPartitions, partitionCount);
+    }
+
+    private PartitionLag partitionLag(int partition) {
+
+        List<PartitionLag> partitions = snapshot.partitions();
+
+        return partition < partitions.size() ? partitions.get(partition) : PartitionLag.unknown(partition);
+    }
+
+    /**
+     * Endpoint {@code /actuator/kafkalag}: lag total y particiones más retrasadas.
+     *
+     * @param limit número de particiones devueltas (por defecto {@code kafka.consumer.lag.ranking-size})
+     * @return lag del grupo con las particiones ordenadas de más a menos retrasada
+     */
+    @ReadOperation
+    public Map<String, Object> lag(@Nullable Integer limit) {
+
+        LagSnapshot current = snapshot;
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        response.put("topic", topic);
+        response.put("groupId", groupId);
+        response.put("enabled", enabled);
+
+        if (current.timestamp() > 0) {
+            response.put("lastUpdate", LocalDateTime.ofInstant(Instant.ofEpochMilli(current.timestamp()), ZoneId.systemDefault()));
+        }
+
+        response.put("totalLag", current.totalLag());
+        response.put("partitions", current.partitions().stream()
+                .sorted(MOST_LAGGING_FIRST)
+                .limit(Math.max(0, limit != null ? limit : rankingSize))
+                .toList());
+
+        return response;
+    }
+
+    /**
+     * Indica si el monitor está habilitado.
+     *
+     * @return {@code true} si {@code kafka.consumer.lag.enabled} es verdadero
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Obtiene la última instantánea de lag. Es thread-safe y no consulta al broker.
+     *
+     * @return instantánea vigente, o {@link LagSnapshot#EMPTY} si aún no se ha consultado
+     */
+    public LagSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Lag de una partición.
+     *
+     * @param partition número de partición
+     * @param committedOffset offset confirmado por el grupo (-1 si no hay)
+     * @param endOffset offset final de la partición (-1 si no se pudo consultar)
+     * @param lag registros pendientes (-1 si es desconocido)
+     * @param timeLagMs lag estimado en milisegundos (-1 si es desconocido)
+     */
+    public record PartitionLag(int partition, long committedOffset, long endOffset, long lag, long timeLagMs) {
+
+        static PartitionLag unknown(int partition) {
+            return new PartitionLag(partition, -1, -1, -1, -1);
+        }
+
+        double lagOrNaN() {
+            return lag >= 0 ? lag : Double.NaN;
+        }
+
+        double timeLagSecondsOrNaN() {
+            return timeLagMs >= 0 ? timeLagMs / 1000.0 : Double.NaN;
+        }
+    }
+
+    /**
+     * Lag del grupo en un instante.
+     *
+     * @param timestamp momento de la consulta (ms, 0 si aún no se ha consultado)
+     * @param totalLag suma del lag conocido de todas las particiones
+     * @param partitions lag por partición, indexado por número de partición
+     */
+    public record LagSnapshot(long timestamp, long totalLag, List<PartitionLag> partitions) {
+
+        /** Instantánea inicial, antes de la primera consulta */
+        public static final LagSnapshot EMPTY = new LagSnapshot(0, 0, List.of());
+    }
+}
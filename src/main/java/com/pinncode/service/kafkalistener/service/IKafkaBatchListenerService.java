@@ -0,0 +1,24 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+/**
+ * Servicio para escuchar y procesar lotes de mensajes de Kafka.
+ * <p>
+ * Define el contrato para consumir el resultado completo de un poll con una única
+ * confirmación de procesamiento.
+ */
+public interface IKafkaBatchListenerService {
+
+    /**
+     * Método para consumir lotes de mensajes/eventos de Kafka (resultado completo de un poll).
+     *
+     * @param consumerRecords Los registros del consumidor recibidos en el poll.
+     * @param acknowledgment Acknowledgment para confirmar el procesamiento del lote completo.
+     */
+    void eventBatch(List<ConsumerRecord<String, KafkaEvent>> consumerRecords, Acknowledgment acknowledgment);
+}
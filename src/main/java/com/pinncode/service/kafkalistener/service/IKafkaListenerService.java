@@ -1,5 +1,6 @@
 package com.pinncode.service.kafkalistener.service;
 
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -16,15 +17,23 @@ public interface IKafkaListenerService {
     /**
      * Método para consumir mensajes/eventos de Kafka.
      *
-     * @param consumerRecord El registro del consumidor que contiene el mensaje.
+     * @param consumerRecord El registro del consumidor que contiene el mensaje deserializado.
      * @param topic El topic del mensaje recibido.
      * @param partition La partición del mensaje recibido.
      * @param timestamp La marca de tiempo del mensaje recibido.
      * @param acknowledgment Acknowledgment para confirmar el procesamiento del mensaje.
      */
-    void event(ConsumerRecord<String, String> consumerRecord,
+    void event(ConsumerRecord<String, KafkaEvent> consumerRecord,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
             @Header(KafkaHeaders.RECEIVED_TIMESTAMP) Long timestamp,
             Acknowledgment acknowledgment);
+
+    /**
+     * Método para consumir el DLT de los tópicos de reintento (registros que agotaron sus reintentos).
+     *
+     * @param consumerRecord El registro publicado en el DLT, con las cabeceras del fallo original.
+     * @param acknowledgment Acknowledgment para confirmar el registro.
+     */
+    void eventDlt(ConsumerRecord<String, KafkaEvent> consumerRecord, Acknowledgment acknowledgment);
 }
@@ -2,15 +2,30 @@ package com.pinncode.service.kafkalistener.service;
 
 import com.pinncode.service.kafkalistener.model.KafkaEvent;
 
+import java.util.List;
+
 /**
  * Interface para el servicio de procesamiento de mensajes Kafka.
  */
 public interface IProcessEventService {
     
     /**
-     * Procesa un mensaje/evento de Kafka recibido.
-     * 
+     * Procesa un mensaje/evento de Kafka recibido, ya validado por el pipeline de consumo.
+     *
      * @param kafkaEvent El mensaje/evento a procesar
      */
     void processEvent(KafkaEvent kafkaEvent);
+
+    /**
+     * Procesa un lote de mensajes/eventos de Kafka recibidos en un mismo poll.
+     * <p>
+     * La implementación por defecto delega en {@link #processEvent(KafkaEvent)} evento a evento.
+     * Las implementaciones pueden sobrescribirla para amortizar llamadas a sistemas externos
+     * (inserciones masivas, peticiones agrupadas, etc.).
+     *
+     * @param kafkaEvents Los mensajes/eventos válidos a procesar, en el orden en que fueron recibidos
+     */
+    default void processEvents(List<KafkaEvent> kafkaEvents) {
+        kafkaEvents.forEach(this::processEvent);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.exception.KafkaException;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.EventDeduplicator;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import com.pinncode.service.kafkalistener.processing.EventPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio de consumo por lotes de eventos Kafka.
+ * <p>
+ * Solo se crea con {@code kafka.consumer.batch.enabled}; en ese caso el listener por registro de
+ * {@link KafkaListenerService} no arranca. Al ser un bean condicional, su endpoint no existe fuera
+ * del modo por lotes, lo que permite aplicar tópicos de reintento (no compatibles con listeners por
+ * lotes) al listener por registro.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "kafka.consumer.batch.enabled", havingValue = "true")
+public class KafkaBatchListenerService implements IKafkaBatchListenerService {
+
+    /** ID del contenedor del listener por lotes en el {@code KafkaListenerEndpointRegistry} */
+    public static final String LISTENER_ID = "kafkaEventBatchListener";
+
+    /** Servicio para procesar eventos de negocio */
+    @Autowired
+    private IProcessEventService processEventService;
+
+    /** Etapas de validación y reporte de resultados de cada registro */
+    @Autowired
+    private EventPipeline eventPipeline;
+
+    /** Deduplicación de eventos por referencia */
+    @Autowired
+    private EventDeduplicator deduplicator;
+
+    /** Métricas del pipeline de consumo */
+    @Autowired
+    private KafkaPipelineMetrics metrics;
+
+    /**
+     * Listener por lotes para consumir eventos desde Kafka.
+     * <p>
+     * Recibe el resultado completo de un poll y lo procesa con las mismas validaciones que
+     * {@link KafkaListenerService#event}, pero con un único commit para todo el lote:
+     * <ol>
+     *   <li>Omite los payloads vacíos y los que no pudieron deserializarse a {@link KafkaEvent}
+     *       (en modo lote llegan con valor {@code null} y la excepción en la cabecera
+     *       {@link SerializationUtils#VALUE_DESERIALIZER_EXCEPTION_HEADER})</li>
+     *   <li>Omite los eventos duplicados, ya procesados o repetidos dentro del lote ({@link EventDeduplicator})</li>
+     *   <li>Omite los eventos que no cumplen las reglas de negocio</li>
+     *   <li>Delega el lote completo a {@link IProcessEventService#processEvents(List)}</li>
+     *   <li>Confirma todos los offsets del lote (acknowledge)</li>
+     * </ol>
+     *
+     * Los registros omitidos se reportan al terminar el lote, una vez confirmado: si el lote se
+     * reintenta no se registran, cuentan ni publican en el DLT en cada entrega.
+     * <p>
+     * En caso de errores de Kafka, relanza la excepción para reintentar el lote.
+     * Para otros errores, reporta los eventos cuya clave de deduplicación se reclamó (los entregados a la
+     * lógica de negocio y, si falla la validación, el que se estaba validando) con resultado
+     * {@link EventOutcome#ERROR} (y los publica en el DLT si está habilitado) y confirma el lote para
+     * evitar loops infinitos. En ambos casos se liberan las claves reclamadas, cuyos eventos no llegaron
+     * a procesarse.
+     *
+     * @param consumerRecords registros recibidos en el poll, en orden por partición
+     * @param acknowledgment objeto para confirmar el procesamiento del lote
+     * @throws KafkaException si hay problemas de Kafka durante el procesamiento (se reintenta)
+     */
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = "${kafka.consumer.topic}",
+        groupId = "${kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void eventBatch(List<ConsumerRecord<String, KafkaEvent>> consumerRecords, Acknowledgment acknowledgment) {
+
+        if (consumerRecords.isEmpty()) {
+            return;
+        }
+
+        log.info("---------------- Start Lote Kafka ({} eventos) ----------------", consumerRecords.size());
+
+        List<KafkaEvent> kafkaEvents = new ArrayList<>(consumerRecords.size());
+        List<ConsumerRecord<String, KafkaEvent>> claimedRecords = new ArrayList<>(consumerRecords.size());
+        List<SkippedRecord> skippedRecords = new ArrayList<>();
+
+        try {
+
+            for (ConsumerRecord<String, KafkaEvent> consumerRecord : consumerRecords) {
+
+                KafkaEvent kafkaEvent = consumerRecord.value();
+
+                log.debug("Topic: {}, Partition: {}, Offset: {}, Event: {}", consumerRecord.topic(),
+                        consumerRecord.partition(), consumerRecord.offset(), kafkaEvent);
+
+                if (kafkaEvent == null) {
+
+                    EventOutcome outcome = consumerRecord.headers()
+                            .lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null
+                            ? EventOutcome.PARSE_FAILED
+                            : EventOutcome.BLANK;
+
+                    skippedRecords.add(new SkippedRecord(consumerRecord, outcome));
+                    continue;
+                }
+
+                if (!deduplicator.tryClaim(kafkaEvent)) {
+                    skippedRecords.add(new SkippedRecord(consumerRecord, EventOutcome.DUPLICATE));
+                    continue;
+                }
+
+                claimedRecords.add(consumerRecord);
+
+                if (!eventPipeline.validate(consumerRecord, kafkaEvent)) {
+                    claimedRecords.remove(claimedRecords.size() - 1);
+                    deduplicator.release(kafkaEvent);
+                    skippedRecords.add(new SkippedRecord(consumerRecord, EventOutcome.INVALID));
+                    continue;
+                }
+
+                kafkaEvents.add(kafkaEvent);
+            }
+
+            if (!kafkaEvents.isEmpty()) {
+
+                long start = System.nanoTime();
+                processEventService.processEvents(kafkaEvents);
+                metrics.recordBatch(consumerRecords.get(0).topic(), System.nanoTime() - start);
+
+                claimedRecords.forEach(consumerRecord -> eventPipeline.report(consumerRecord, EventOutcome.PROCESSED, null));
+            }
+
+            acknowledgment.acknowledge();
+            reportSkipped(skippedRecords);
+
+            log.info("Lote kafka procesado: {} eventos, {} omitidos", kafkaEvents.size(),
+                    consumerRecords.size() - kafkaEvents.size());
+
+            log.info("----------------- End Lote Kafka -----------------");
+
+        } catch (KafkaException e) {
+
+            log.error("Error de conexión kafka: ", e);
+            releaseClaims(claimedRecords);
+            throw e;
+
+        } catch (Exception e) {
+
+            log.error("Error inesperado durante el procesamiento del lote :", e);
+            releaseClaims(claimedRecords);
+            claimedRecords.forEach(consumerRecord -> eventPipeline.report(consumerRecord, EventOutcome.ERROR, e));
+            acknowledgment.acknowledge();
+            reportSkipped(skippedRecords);
+        }
+    }
+
+    /**
+     * Libera las claves de deduplicación reclamadas por los registros de un lote que no se procesó.
+     */
+    private void releaseClaims(List<ConsumerRecord<String, KafkaEvent>> claimedRecords) {
+        claimedRecords.forEach(consumerRecord -> deduplicator.release(consumerRecord.value()));
+    }
+
+    /**
+     * Reporta los registros omitidos de un lote ya confirmado.
+     */
+    private void reportSkipped(List<SkippedRecord> skippedRecords) {
+        skippedRecords.forEach(skipped -> eventPipeline.report(skipped.consumerRecord(), skipped.outcome(), null));
+    }
+
+    /**
+     * Registro del lote que no llega a la lógica de negocio, con el resultado que se reporta al confirmar el lote.
+     */
+    private record SkippedRecord(ConsumerRecord<String, KafkaEvent> consumerRecord, EventOutcome outcome) {
+    }
+}
@@ -1,5 +1,11 @@
 package com.pinncode.service.kafkalistener.service;
 
+import com.pinncode.service.kafkalistener.event.KafkaConnectionState;
+import com.pinncode.service.kafkalistener.event.KafkaHealthChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.DescribeClusterResult;
@@ -7,15 +13,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,25 +39,33 @@ import java.util.concurrent.TimeUnit;
  * <ul>
  *   <li>Verificación programada cada {@code kafka.connection.health-check.interval} ms (por defecto 60s).</li>
  *   <li>Timeout configurable para las operaciones de verificación.</li>
- *   <li>Reintentos automáticos con backoff exponencial en caso de fallos.</li>
+ *   <li>Máquina de estados de reconexión ({@link KafkaConnectionState}) no bloqueante, ejecutada en un
+ *       {@link ScheduledExecutorService} propio con backoff exponencial y jitter.</li>
  *   <li>Posibilidad de desactivar completamente las verificaciones.</li>
  *   <li>Estado volátil thread-safe para acceso concurrente.</li>
+ *   <li>Publica un {@link KafkaHealthChangedEvent} tras la primera verificación y en cada cambio de estado.</li>
+ *   <li>Expone las métricas {@code kafka.connection.available} (1/0) y {@code kafka.connection.reconnect.attempts}.</li>
  * </ul>
+ * Ni la verificación periódica ni los reintentos ocupan el hilo de {@code @Scheduled} de Spring:
+ * ambos se ejecutan en el hilo dedicado {@code kafka-health-}, por lo que el resto de tareas
+ * programadas no se detienen mientras el broker no está disponible.
  * <p>
  * Propiedades relevantes:
  * <ul>
  *   <li>{@code kafka.connection.health-check.enabled} - habilita/deshabilita verificaciones (por defecto true)</li>
  *   <li>{@code kafka.connection.health-check.timeout} - timeout en ms para operaciones (por defecto 30s)</li>
  *   <li>{@code kafka.connection.health-check.interval} - intervalo entre verificaciones en ms (por defecto 60s)</li>
- *   <li>{@code kafka.connection.retry.max-attempts} - intentos máximos de reconexión</li>
+ *   <li>{@code kafka.connection.retry.enabled} - habilita los reintentos de reconexión (por defecto true)</li>
+ *   <li>{@code kafka.connection.retry.max-attempts} - intentos máximos de reconexión (-1 = infinito)</li>
  *   <li>{@code kafka.connection.retry.initial-interval} - intervalo inicial de reintento</li>
  *   <li>{@code kafka.connection.retry.max-interval} - intervalo máximo de reintento</li>
  *   <li>{@code kafka.connection.retry.multiplier} - multiplicador de backoff</li>
+ *   <li>{@code kafka.connection.retry.jitter} - variación aleatoria relativa del intervalo (por defecto 0.2 = ±20%)</li>
  * </ul>
  *
  * @see HealthIndicator
  * @see AdminClient
- * @see Retryable
+ * @see KafkaConnectionState
  * @see Scheduled
  */
 @Slf4j
@@ -59,6 +76,14 @@ public class KafkaHealthService implements HealthIndicator {
     @Autowired
     private AdminClient kafkaAdminClient;
 
+    /** Publicador de eventos de cambio de estado de Kafka */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /** Habilita o deshabilita las verificaciones de salud */
     @Value("${kafka.connection.health-check.enabled:true}")
     private boolean healthCheckEnabled;
@@ -67,15 +92,79 @@ public class KafkaHealthService implements HealthIndicator {
     @Value("${kafka.connection.health-check.timeout:30000}")
     private long healthCheckTimeout;
 
+    /** Habilita los reintentos de reconexión */
+    @Value("${kafka.connection.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    /** Máximo de reintentos de reconexión (-1 = infinito) */
+    @Value("${kafka.connection.retry.max-attempts:-1}")
+    private int maxReconnectAttempts;
+
+    /** Intervalo inicial de reintento (ms) */
+    @Value("${kafka.connection.retry.initial-interval:60000}")
+    private long initialReconnectInterval;
+
+    /** Intervalo máximo de reintento (ms) */
+    @Value("${kafka.connection.retry.max-interval:300000}")
+    private long maxReconnectInterval;
+
+    /** Multiplicador de intervalo de reintento */
+    @Value("${kafka.connection.retry.multiplier:1.5}")
+    private double reconnectMultiplier;
+
+    /** Variación aleatoria relativa aplicada a cada intervalo de reintento */
+    @Value("${kafka.connection.retry.jitter:0.2}")
+    private double reconnectJitter;
+
     /** Estado actual de disponibilidad de Kafka (thread-safe) */
     private volatile boolean kafkaAvailable = false;
-    
+
     /** Último error registrado durante las verificaciones (thread-safe) */
     private volatile String lastError = "";
-    
+
     /** Timestamp de la última verificación realizada (thread-safe) */
     private volatile long lastCheckTime = 0;
 
+    /** Estado de la máquina de reconexión (thread-safe) */
+    private volatile KafkaConnectionState connectionState = KafkaConnectionState.UNKNOWN;
+
+    /** Reintentos de reconexión realizados desde la última conexión exitosa */
+    private volatile int reconnectAttempts = 0;
+
+    /** Hilo dedicado a verificaciones y reintentos de reconexión */
+    private ScheduledExecutorService healthExecutor;
+
+    /** Reintento de reconexión pendiente, si existe (solo se accede desde {@link #healthExecutor}) */
+    private ScheduledFuture<?> pendingReconnect;
+
+    /**
+     * Crea el hilo dedicado a las verificaciones de salud y reintentos de reconexión.
+     */
+    @PostConstruct
+    void init() {
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kafka-health-");
+        threadFactory.setDaemon(true);
+
+        healthExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        Gauge.builder("kafka.connection.available", this, service -> service.kafkaAvailable ? 1 : 0)
+                .description("Disponibilidad de Kafka según la última verificación (1 = disponible)")
+                .register(meterRegistry);
+
+        Gauge.builder("kafka.connection.reconnect.attempts", this, service -> service.reconnectAttempts)
+                .description("Intentos de reconexión consecutivos en curso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Detiene el hilo de verificaciones, cancelando cualquier reintento pendiente.
+     */
+    @PreDestroy
+    void shutdown() {
+        healthExecutor.shutdownNow();
+    }
+
     /**
      * Implementación del contrato {@link HealthIndicator} de Spring Boot Actuator.
      * <p>
@@ -93,6 +182,8 @@ public class KafkaHealthService implements HealthIndicator {
      * <ul>
      *   <li>{@code kafka} - estado de la conexión ("Connected"/"Disconnected")</li>
      *   <li>{@code lastCheck} - timestamp de la última verificación</li>
+     *   <li>{@code connectionState} - estado de la máquina de reconexión</li>
+     *   <li>{@code reconnectAttempts} - reintentos realizados (solo si hay fallo)</li>
      *   <li>{@code error} - mensaje del último error (solo si hay fallo)</li>
      *   <li>{@code status} - estado descriptivo</li>
      * </ul>
@@ -105,6 +196,7 @@ public class KafkaHealthService implements HealthIndicator {
 
         var kafka = "kafka";
         var lastCheck = "lastCheck";
+        var state = "connectionState";
 
         if (!healthCheckEnabled) {
             return Health.up().withDetail("status", "Health check disabled").build();
@@ -115,10 +207,12 @@ public class KafkaHealthService implements HealthIndicator {
         try {
 
             if (kafkaAvailable) {
-                return Health.up().withDetail(kafka, "Connected").withDetail(lastCheck, localDateTime).build();
+                return Health.up().withDetail(kafka, "Connected").withDetail(lastCheck, localDateTime)
+                        .withDetail(state, connectionState).build();
             } else {
                 return Health.down().withDetail(kafka, "Disconnected").withDetail("error", lastError)
-                        .withDetail(lastCheck, localDateTime).build();
+                        .withDetail(lastCheck, localDateTime).withDetail(state, connectionState)
+                        .withDetail("reconnectAttempts", reconnectAttempts).build();
             }
 
         } catch (Exception e) {
@@ -129,43 +223,46 @@ public class KafkaHealthService implements HealthIndicator {
     }
 
     /**
-     * Realiza verificación periódica de la conectividad con Kafka.
+     * Programa la verificación periódica de la conectividad con Kafka.
      * <p>
      * Este método se ejecuta automáticamente según el intervalo configurado
-     * ({@code kafka.connection.health-check.interval}, por defecto 60s). Utiliza
-     * {@link AdminClient#describeCluster()} para verificar la disponibilidad del
-     * clúster y actualiza el estado interno.
+     * ({@code kafka.connection.health-check.interval}, por defecto 60s) y solo entrega la
+     * verificación al hilo dedicado, por lo que retorna de inmediato sin bloquear el hilo de
+     * {@code @Scheduled}.
      * <p>
-     * Comportamiento:
-     * <ul>
-     *   <li>Si las verificaciones están deshabilitadas, termina inmediatamente.</li>
-     *   <li>Realiza una operación {@code describeCluster()} con timeout configurable.</li>
-     *   <li>Actualiza {@link #kafkaAvailable}, {@link #lastError} y {@link #lastCheckTime}.</li>
-     *   <li>Registra cambios de estado (conectado/desconectado) en los logs.</li>
-     *   <li>En caso de fallo, programa una reconexión vía {@link #scheduleReconnect()}.</li>
-     * </ul>
-     * Configuración de reintentos:
-     * <ul>
-     *   <li>Máximo 3 intentos con backoff exponencial (5s, 10s, 20s).</li>
-     *   <li>Solo reintenta en caso de {@link Exception}.</li>
-     * </ul>
+     * Si hay una reconexión en curso ({@link KafkaConnectionState#RECONNECTING}) la verificación
+     * periódica se omite: el propio reintento programado verificará la conexión.
      *
      * @see Scheduled
-     * @see Retryable
-     * @see AdminClient#describeCluster()
+     * @see #scheduleReconnect()
      */
     @Scheduled(fixedDelayString = "${kafka.connection.health-check.interval:60000}")
-    @Retryable(
-        retryFor = {Exception.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 5000, multiplier = 2)
-    )
     public void checkKafkaHealth() {
 
-        if (!healthCheckEnabled) {
+        if (!healthCheckEnabled || connectionState == KafkaConnectionState.RECONNECTING) {
             return;
         }
 
+        healthExecutor.execute(this::verifyConnection);
+    }
+
+    /**
+     * Verifica la conectividad con Kafka y avanza la máquina de estados de reconexión.
+     * <p>
+     * Comportamiento:
+     * <ul>
+     *   <li>Realiza una operación {@code describeCluster()} con timeout configurable.</li>
+     *   <li>Actualiza {@link #kafkaAvailable}, {@link #lastError} y {@link #lastCheckTime}.</li>
+     *   <li>Si la verificación es exitosa pasa a {@link KafkaConnectionState#CONNECTED} y reinicia los reintentos.</li>
+     *   <li>En caso de fallo programa una reconexión vía {@link #scheduleReconnect()}.</li>
+     *   <li>Registra y publica como {@link KafkaHealthChangedEvent} cada cambio de estado.</li>
+     * </ul>
+     * Solo se ejecuta en el hilo dedicado, por lo que nunca hay dos verificaciones simultáneas.
+     *
+     * @see AdminClient#describeCluster()
+     */
+    private void verifyConnection() {
+
         log.info("Validando conexión con Kafka...");
         lastCheckTime = System.currentTimeMillis();
 
@@ -181,10 +278,18 @@ public class KafkaHealthService implements HealthIndicator {
 
             kafkaAvailable = true;
             lastError = "";
+            reconnectAttempts = 0;
+
+            transitionTo(KafkaConnectionState.CONNECTED);
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            log.warn("Verificación de conexión Kafka interrumpida: {}", e.getMessage());
 
         } catch (Exception e) {
 
-            log.warn("Error de conexión Kafka, intentando reconectar: ", e);
+            log.warn("Error de conexión Kafka, intentando reconectar: {}", e.getMessage());
 
             kafkaAvailable = false;
             lastError = e.getMessage();
@@ -196,50 +301,79 @@ public class KafkaHealthService implements HealthIndicator {
     /**
      * Programa un reintento de reconexión con Kafka tras un fallo de conectividad.
      * <p>
-     * Este método se invoca automáticamente desde {@link #checkKafkaHealth()} cuando
-     * se detecta una pérdida de conexión. Implementa una estrategia de reintento
-     * configurable con backoff exponencial.
+     * Este método se invoca desde {@link #verifyConnection()} cuando se detecta una pérdida de
+     * conexión. No bloquea: agenda la siguiente verificación en el hilo dedicado y retorna.
      * <p>
      * Comportamiento:
      * <ul>
-     *   <li>Espera 1 minuto antes de realizar el primer reintento.</li>
-     *   <li>Invoca {@link #checkKafkaHealth()} para verificar la conectividad.</li>
-     *   <li>Maneja interrupciones del hilo de manera adecuada.</li>
-     * </ul>
-     * Configuración de reintentos (extraída de propiedades):
-     * <ul>
-     *   <li>Intentos máximos: {@code kafka.connection.retry.max-attempts} (por defecto -1 = infinito).</li>
-     *   <li>Intervalo inicial: {@code kafka.connection.retry.initial-interval} (por defecto 60s).</li>
-     *   <li>Intervalo máximo: {@code kafka.connection.retry.max-interval} (por defecto 300s).</li>
-     *   <li>Multiplicador: {@code kafka.connection.retry.multiplier} (por defecto 1.5).</li>
+     *   <li>Intervalo del reintento {@code n}: {@code initial-interval * multiplier^n}, acotado a
+     *       {@code max-interval}, con una variación aleatoria de ±{@code jitter} para evitar que
+     *       varias instancias reintenten a la vez.</li>
+     *   <li>Mientras haya reintentos disponibles el estado es {@link KafkaConnectionState#RECONNECTING}.</li>
+     *   <li>Al agotar {@code max-attempts} pasa a {@link KafkaConnectionState#DISCONNECTED} y la
+     *       verificación periódica toma el relevo.</li>
+     *   <li>Si {@code kafka.connection.retry.enabled} es falso, pasa directamente a
+     *       {@link KafkaConnectionState#DISCONNECTED}.</li>
      * </ul>
+     */
+    private void scheduleReconnect() {
+
+        if (!retryEnabled || (maxReconnectAttempts >= 0 && reconnectAttempts >= maxReconnectAttempts)) {
+
+            if (connectionState != KafkaConnectionState.DISCONNECTED) {
+                log.warn("Reintentos de reconexión con Kafka agotados ({}), se espera a la verificación periódica",
+                        reconnectAttempts);
+            }
+
+            transitionTo(KafkaConnectionState.DISCONNECTED);
+            return;
+        }
+
+        long delay = nextReconnectDelay(reconnectAttempts);
+        reconnectAttempts++;
+
+        log.info("Programando reintento {} de conexión con Kafka en {} ms...", reconnectAttempts, delay);
+
+        transitionTo(KafkaConnectionState.RECONNECTING);
+
+        pendingReconnect = healthExecutor.schedule(this::verifyConnection, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Calcula el intervalo del siguiente reintento con backoff exponencial y jitter.
      *
-     * @see Retryable
-     * @see Thread#sleep(long)
+     * @param attempt número de reintentos ya realizados
+     * @return intervalo en milisegundos
      */
-    @Retryable(
-        retryFor = {Exception.class},
-        maxAttemptsExpression = "${kafka.connection.retry.max-attempts:-1}",
-        backoff = @Backoff(
-            delayExpression = "${kafka.connection.retry.initial-interval:60000}",
-            maxDelayExpression = "${kafka.connection.retry.max-interval:300000}",
-            multiplierExpression = "${kafka.connection.retry.multiplier:1.5}"
-        )
-    )
-    public void scheduleReconnect() {
-
-        log.info("Programando reintento de conexión con Kafka...");
+    private long nextReconnectDelay(int attempt) {
 
-        try {
+        double backoff = Math.min(initialReconnectInterval * Math.pow(reconnectMultiplier, attempt), maxReconnectInterval);
+        double jitter = 1 + reconnectJitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
 
-            Thread.sleep(Duration.ofMinutes(1).toMillis());
-            checkKafkaHealth();
+        return Math.max(1L, (long) (backoff * jitter));
+    }
 
-        } catch (InterruptedException e) {
+    /**
+     * Actualiza el estado de la máquina de reconexión y publica un {@link KafkaHealthChangedEvent}
+     * si el estado cambió o si es la primera verificación realizada.
+     *
+     * @param newState nuevo estado de la conexión
+     */
+    private void transitionTo(KafkaConnectionState newState) {
 
-            Thread.currentThread().interrupt();
-            log.warn("Reconexión Kafka interrumpida: {}", e.getMessage());
+        if (connectionState == newState) {
+            return;
+        }
+
+        if (newState == KafkaConnectionState.CONNECTED && pendingReconnect != null) {
+            pendingReconnect.cancel(false);
+            pendingReconnect = null;
         }
+
+        connectionState = newState;
+
+        eventPublisher.publishEvent(new KafkaHealthChangedEvent(kafkaAvailable, newState, reconnectAttempts,
+                lastError, lastCheckTime));
     }
 
     /**
@@ -256,6 +390,16 @@ public class KafkaHealthService implements HealthIndicator {
         return kafkaAvailable;
     }
 
+    /**
+     * Obtiene el estado actual de la máquina de reconexión.
+     *
+     * @return estado de la conexión con Kafka
+     * @see KafkaConnectionState
+     */
+    public KafkaConnectionState getConnectionState() {
+        return connectionState;
+    }
+
     /**
      * Obtiene el mensaje del último error registrado durante las verificaciones.
      * <p>
@@ -283,4 +427,4 @@ public class KafkaHealthService implements HealthIndicator {
     public long getLastCheckTime() {
         return lastCheckTime;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.pinncode.service.kafkalistener.service;
+
+import com.pinncode.service.kafkalistener.event.KafkaHealthChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker de los contenedores de listeners ante caídas del broker.
+ * <p>
+ * Sustituye a la verificación de salud por registro: en lugar de lanzar una excepción por cada
+ * mensaje mientras Kafka no está disponible (con los consiguientes seeks y esperas del
+ * {@code DefaultErrorHandler}), pausa todos los contenedores del {@link KafkaListenerEndpointRegistry}
+ * cuando {@link KafkaHealthService} informa que Kafka no está disponible y los reanuda cuando
+ * vuelve a estarlo. Mientras el circuito está abierto los registros permanecen en el broker y
+ * los consumidores siguen haciendo poll (sin recibir registros) para mantener su membresía en el grupo.
+ * <p>
+ * El estado del circuito se publica como la métrica {@code kafka.listener.circuit.open} (1 abierto, 0 cerrado).
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.listener.circuit-breaker.enabled} - habilita el circuit breaker (por defecto true)</li>
+ * </ul>
+ *
+ * @see KafkaHealthChangedEvent
+ * @see MessageListenerContainer#pause()
+ */
+@Slf4j
+@Component
+public class KafkaListenerCircuitBreaker {
+
+    /** Registro de contenedores creados a partir de {@code @KafkaListener} */
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita la pausa/reanudación automática de los contenedores */
+    @Value("${kafka.listener.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    /** Estado del circuito: {@code true} mientras los contenedores están pausados (thread-safe) */
+    private volatile boolean open = false;
+
+    /**
+     * Registra el estado del circuito como gauge.
+     */
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("kafka.listener.circuit.open", this, breaker -> breaker.open ? 1 : 0)
+                .description("Listeners pausados por indisponibilidad de Kafka (1 = abierto)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reacciona a los cambios de disponibilidad de Kafka pausando o reanudando los contenedores.
+     * <p>
+     * Se pausan también los contenedores que aún no han arrancado, de modo que arranquen en pausa
+     * si el broker no está disponible al inicio de la aplicación.
+     *
+     * @param event cambio de estado publicado por {@link KafkaHealthService}
+     */
+    @EventListener
+    public void onKafkaHealthChanged(KafkaHealthChangedEvent event) {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (!event.isAvailable() && !open) {
+
+            log.warn("Kafka no está disponible, se pausan los listeners: {}", event.getLastError());
+            kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+            open = true;
+
+        } else if (event.isAvailable() && open) {
+
+            log.info("Kafka disponible nuevamente, se reanudan los listeners");
+            kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+            open = false;
+        }
+    }
+
+    /**
+     * Indica si el circuito está abierto, es decir, si los contenedores están pausados por
+     * indisponibilidad de Kafka.
+     *
+     * @return {@code true} si los listeners están pausados por el circuit breaker
+     */
+    public boolean isOpen() {
+        return open;
+    }
+}
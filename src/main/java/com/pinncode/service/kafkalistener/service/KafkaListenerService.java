@@ -1,151 +1,242 @@
 package com.pinncode.service.kafkalistener.service;
 
 import com.pinncode.service.kafkalistener.exception.KafkaException;
+import com.pinncode.service.kafkalistener.logging.KafkaEventLogger;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
 import com.pinncode.service.kafkalistener.model.KafkaEvent;
-import com.pinncode.service.kafkalistener.transform.KafkaTransform;
+import com.pinncode.service.kafkalistener.processing.BufferedProcessingStage;
+import com.pinncode.service.kafkalistener.processing.DeadLetterPublisher;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import com.pinncode.service.kafkalistener.processing.EventPipeline;
+import com.pinncode.service.kafkalistener.processing.KafkaEventPool;
+import com.pinncode.service.kafkalistener.processing.KeyOrderedProcessingEngine;
+import com.pinncode.service.kafkalistener.processing.OffsetCommitCoalescer;
+import com.pinncode.service.kafkalistener.transform.KafkaEventDeserializer;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Servicio principal para el consumo y procesamiento de eventos Kafka.
  * <p>
  * Escucha mensajes del tópico configurado y los procesa de manera asíncrona.
- * Incluye manejo de errores, validaciones de conectividad y logging detallado.
+ * Incluye manejo de errores y logging por registro mediante {@link KafkaEventLogger}.
  * <p>
  * Características:
  * <ul>
  *   <li>Consumo automático desde {@code kafka.consumer.topic}</li>
  *   <li>Acknowledgment manual para control de offsets</li>
- *   <li>Verificación de estado de Kafka antes del procesamiento</li>
- *   <li>Transformación de payload a objeto {@link KafkaEvent}</li>
- *   <li>Delegación del procesamiento a {@link IProcessEventService}</li>
+ *   <li>Sin verificación de conectividad por registro: ante caídas del broker los contenedores se
+ *       pausan mediante {@link KafkaListenerCircuitBreaker}</li>
+ *   <li>Payload deserializado a {@link KafkaEvent} durante el poll por {@link KafkaEventDeserializer}</li>
+ *   <li>Validación, procesamiento y acknowledge mediante {@link EventPipeline}, con métricas por
+ *       etapa y por resultado ({@link KafkaPipelineMetrics})</li>
+ *   <li>Procesamiento paralelo opcional con orden por clave ({@code kafka.processing.parallel.enabled})</li>
+ *   <li>Buffer acotado opcional entre el poll y los workers, con pausa de particiones por contrapresión
+ *       ({@code kafka.processing.buffer.enabled}) mediante {@link BufferedProcessingStage}</li>
+ *   <li>Tópicos de reintento no bloqueantes opcionales ({@code kafka.consumer.retry-topic.enabled}) con DLT</li>
+ *   <li>Commits agrupados opcionales ({@code kafka.consumer.commit.mode=COALESCED}) mediante {@link OffsetCommitCoalescer}</li>
+ *   <li>Modo sin asignaciones opcional ({@code kafka.processing.pooled.enabled}): eventos reutilizables
+ *       de {@link KafkaEventPool}</li>
  * </ul>
+ * En modo por lotes ({@code kafka.consumer.batch.enabled}) el listener {@link #event} no arranca
+ * y el consumo lo realiza {@link KafkaBatchListenerService}.
  */
 @Slf4j
 @Service
 public class KafkaListenerService implements IKafkaListenerService {
 
-    /** Servicio para verificar el estado de conectividad con Kafka */
+    /** ID del contenedor del listener principal en el {@code KafkaListenerEndpointRegistry} */
+    public static final String LISTENER_ID = "kafkaEventListener";
+
+    /** Etapas de validación, procesamiento y acknowledge de cada registro */
+    @Autowired
+    private EventPipeline eventPipeline;
+
+    /** Métricas del pipeline de consumo */
     @Autowired
-    private KafkaHealthService kafkaHealthService;
+    private KafkaPipelineMetrics metrics;
 
-    /** Servicio para procesar eventos de negocio */
+    /** Motor de procesamiento paralelo con orden por clave */
     @Autowired
-    private IProcessEventService processEventService;
+    private KeyOrderedProcessingEngine processingEngine;
 
-    /** Transformador para convertir payload JSON a objetos KafkaEvent */
+    /** Buffer acotado entre el hilo del consumidor y los workers */
     @Autowired
-    private KafkaTransform kafkaTransform;
+    private BufferedProcessingStage processingBuffer;
+
+    /** Agrupación de commits; retiene los acknowledges en modo {@code COALESCED} */
+    @Autowired
+    private OffsetCommitCoalescer commitCoalescer;
+
+    /** Logging por registro (detallado o estructurado con muestreo) */
+    @Autowired
+    private KafkaEventLogger eventLogger;
+
+    /** Pool de eventos del modo sin asignaciones; el evento vuelve al pool al terminar el registro */
+    @Autowired
+    private KafkaEventPool eventPool;
+
+    /** Con tópicos de reintento, los errores inesperados se propagan para mover el registro a reintento */
+    @Value("${kafka.consumer.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
 
     /**
      * Listener principal para consumir eventos desde Kafka.
      * <p>
      * Procesa mensajes del tópico configurado con las siguientes validaciones:
      * <ol>
-     *   <li>Verifica conectividad con Kafka</li>
      *   <li>Valida que el payload no esté vacío</li>
-     *   <li>Transforma el JSON a objeto {@link KafkaEvent}</li>
+     *   <li>Valida las reglas de negocio; los eventos inválidos se confirman sin procesar</li>
      *   <li>Delega el procesamiento al servicio de negocio</li>
      *   <li>Confirma el mensaje (acknowledge)</li>
      * </ol>
+     * Los tres últimos pasos los ejecuta el {@link EventPipeline}, que mide cada etapa.
+     * Con el procesamiento paralelo habilitado, se delegan al
+     * {@link KeyOrderedProcessingEngine}, que los ejecuta en un worker respetando el orden por clave; con el
+     * buffer de procesamiento habilitado, al {@link BufferedProcessingStage}, que los ejecuta en el worker de
+     * su partición mientras el consumidor sigue haciendo poll.
      * 
+     * El payload llega ya deserializado a {@link KafkaEvent}; los payloads inválidos no llegan a este
+     * método, sino al manejador de errores del contenedor como {@code DeserializationException}.
      * En caso de errores de Kafka, relanza la excepción para reintento.
-     * Para otros errores, confirma el mensaje para evitar loops infinitos.
+     * Para otros errores, confirma el mensaje para evitar loops infinitos, salvo con tópicos de
+     * reintento habilitados: entonces relanza la excepción y el registro sale de la partición hacia
+     * el tópico de reintento (o al DLT si la excepción no es reintentable). El mismo método consume
+     * los tópicos de reintento.
+     * <p>
+     * Con commits agrupados, el acknowledge lo retiene el {@link OffsetCommitCoalescer}; antes de relanzar
+     * una excepción se libera el de la partición, para que el commit del manejador de errores no quede
+     * detrás de un offset anterior.
+     * <p>
+     * Con el pool de eventos habilitado, el evento vuelve al {@link KafkaEventPool} en cuanto el registro
+     * termina en este hilo; si la excepción se relanza, el evento queda en manos del manejador de errores
+     * y se descarta del pool.
      *
-     * @param consumerRecord registro completo del consumidor con metadatos
+     * @param consumerRecord registro completo del consumidor con metadatos y el evento deserializado
      * @param topic nombre del tópico origen (inyectado por Spring)
      * @param partition partición del mensaje (inyectado por Spring)
      * @param timestamp timestamp del mensaje (inyectado por Spring)
      * @param acknowledgment objeto para confirmar el procesamiento
-     * @throws KafkaException si hay problemas de conectividad (se reintenta)
+     * @throws KafkaException si hay problemas de Kafka durante el procesamiento (se reintenta)
      */
     @KafkaListener(
+        id = LISTENER_ID,
         topics = "${kafka.consumer.topic}",
         groupId = "${kafka.consumer.group-id}",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{!${kafka.consumer.batch.enabled:false}}"
     )
-    public void event(ConsumerRecord<String, String> consumerRecord,
+    public void event(ConsumerRecord<String, KafkaEvent> consumerRecord,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
             @Header(KafkaHeaders.RECEIVED_TIMESTAMP) Long timestamp,
             Acknowledgment acknowledgment) {
 
-        String eventPayload = consumerRecord.value();
+        KafkaEvent kafkaEvent = consumerRecord.value();
+        Acknowledgment recordAcknowledgment = commitCoalescer.defer(consumerRecord, acknowledgment);
 
-        logEvent(topic, partition, timestamp, eventPayload);
+        eventLogger.setContext(consumerRecord);
+        eventLogger.logReceived(consumerRecord);
 
         try {
 
-            if (!kafkaHealthService.isKafkaAvailable()) {
-                log.warn("Kafka no está disponible, el mensaje del evento será reintentado.");
-                throw new KafkaException("Kafka connection not available");
+            if (kafkaEvent == null) {
+                eventPipeline.report(consumerRecord, EventOutcome.BLANK, null);
+                recordAcknowledgment.acknowledge();
+                return;
             }
 
-            if (StringUtils.isBlank(eventPayload)) {
-                log.warn("Mensaje/evento vacío, confirmación de lectura, se omite procesamiento de evento");
-                acknowledgment.acknowledge();
+            if (processingEngine.isEnabled()) {
+                processingEngine.submit(consumerRecord, kafkaEvent, acknowledgment);
                 return;
             }
 
-            KafkaEvent kafkaEvent = kafkaTransform.kafkaEventStringToObjectTransform(eventPayload);
-
-            if (kafkaEvent == null) {
-                log.error("Error al transformar el payload del evento, confirmación de lectura, se omite procesamiento");
-                acknowledgment.acknowledge();
+            if (processingBuffer.isEnabled()) {
+                processingBuffer.submit(consumerRecord, kafkaEvent, recordAcknowledgment);
                 return;
             }
 
-            processEventService.processEvent(kafkaEvent);
-
-            acknowledgment.acknowledge();
-
-            log.info("Mensaje/evento kafka procesado");
-
-            log.info("----------------- End Evento Kafka -----------------");
+            eventPipeline.process(consumerRecord, kafkaEvent, recordAcknowledgment);
+            eventPool.release(kafkaEvent);
 
         } catch (KafkaException e) {
 
             log.error("Error de conexión kafka: ", e);
+            commitCoalescer.flush(consumerRecord);
+            eventPool.discardPending();
+            eventLogger.resetContext();
             throw e;
             
         } catch (Exception e) {
 
-            log.error("Error inesperado durante el procesamiento del evento :", e);
-            acknowledgment.acknowledge();
+            if (retryTopicEnabled) {
+                log.warn("Error procesando el evento en offset {}, se envía a reintento: {}", consumerRecord.offset(),
+                        e.getMessage());
+                commitCoalescer.flush(consumerRecord);
+                throw e;
+            }
+
+            eventPipeline.report(consumerRecord, EventOutcome.ERROR, e);
+            recordAcknowledgment.acknowledge();
+            eventPool.release(kafkaEvent);
+            eventLogger.resetContext();
+
+        } finally {
+
+            eventLogger.clearContext();
         }
     }
 
     /**
-     * Registra los detalles del evento recibido en los logs.
+     * Listener del DLT de los tópicos de reintento.
      * <p>
-     * Formatea la información del mensaje de manera legible incluyendo:
-     * timestamp convertido a fecha local, tópico, partición y payload.
-     * Útil para trazabilidad y debugging.
+     * Recibe los registros que agotaron sus reintentos o fallaron con una excepción no reintentable,
+     * los reporta como {@link EventOutcome#ERROR} (con el tópico del DLT como tag de las métricas)
+     * y los confirma. Lo registra {@code KafkaConfig#retryTopicConfiguration()}; no se usa si los
+     * tópicos de reintento están deshabilitados. Si {@code kafka.consumer.dlt.topic} se configura con
+     * este mismo tópico, los registros publicados por {@link DeadLetterPublisher} (cabecera
+     * {@link DeadLetterPublisher#SOURCE_HEADER}) ya los reportó el pipeline: solo se confirman.
      *
-     * @param topic nombre del tópico origen
-     * @param partition número de partición
-     * @param timestamp timestamp en milisegundos (epoch)
-     * @param eventPayload contenido del mensaje
+     * @param consumerRecord registro publicado en el DLT, con las cabeceras {@code kafka_dlt-exception-*} del fallo
+     * @param acknowledgment objeto para confirmar el registro
      */
-    private void logEvent (String topic, Integer partition, Long timestamp, String eventPayload) {
+    public void eventDlt(ConsumerRecord<String, KafkaEvent> consumerRecord, Acknowledgment acknowledgment) {
+
+        eventLogger.setContext(consumerRecord);
+
+        try {
+
+            if (consumerRecord.headers().lastHeader(DeadLetterPublisher.SOURCE_HEADER) != null) {
+                acknowledgment.acknowledge();
+                return;
+            }
+
+            org.apache.kafka.common.header.Header exceptionCause =
+                    consumerRecord.headers().lastHeader(KafkaHeaders.EXCEPTION_CAUSE_FQCN);
+
+            if (exceptionCause == null) {
+                exceptionCause = consumerRecord.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN);
+            }
+
+            log.error("Evento descartado en el DLT (excepción: {}): {}",
+                    exceptionCause != null ? new String(exceptionCause.value(), StandardCharsets.UTF_8) : null,
+                    consumerRecord.value());
 
-        LocalDateTime localDateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+            metrics.recordOutcome(consumerRecord, EventOutcome.ERROR);
+            acknowledgment.acknowledge();
 
-        log.info("---------------- Start Evento Kafka ----------------");
-        log.info("Topic: {}", topic);
-        log.info("Partition: {}", partition);
-        log.info("Timestamp: {} ({})", timestamp, localDateTime);
-        log.info("Event payload: {}", eventPayload);
+        } finally {
+
+            eventLogger.clearContext();
+        }
     }
-}
\ No newline at end of file
+}
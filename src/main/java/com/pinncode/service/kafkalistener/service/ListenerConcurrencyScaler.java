@@ -0,0 +1,281 @@
+package com.pinncode.service.kafkalistener.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Escalado de la concurrencia de los contenedores de listeners según el lag del grupo de consumo.
+ * <p>
+ * Cada {@code kafka.consumer.autoscale.interval} ms lee el lag total y el número de particiones de la
+ * última instantánea de {@link ConsumerLagMonitor}, sin consultar al broker. La concurrencia deseada
+ * es el número de consumidores necesario para que cada uno tenga como máximo {@code scale-up-lag}
+ * registros de lag, limitada a {@code [min, max]} y al número de particiones del tópico. Cada
+ * instantánea se evalúa una sola vez, de modo que las evaluaciones consecutivas corresponden a
+ * consultas distintas.
+ * <p>
+ * Histéresis para evitar oscilaciones:
+ * <ul>
+ *   <li>Escala hacia arriba (directamente a la concurrencia deseada) cuando la deseada supera a la
+ *       actual durante {@code stable-cycles} evaluaciones consecutivas.</li>
+ *   <li>Escala hacia abajo de uno en uno cuando, con un consumidor menos, el lag por consumidor
+ *       seguiría por debajo de {@code scale-down-lag} durante {@code stable-cycles} evaluaciones.</li>
+ *   <li>Tras cada cambio espera {@code cooldown} ms antes de volver a escalar.</li>
+ * </ul>
+ * La concurrencia de un {@link ConcurrentMessageListenerContainer} solo se aplica al arrancar, por lo
+ * que cada cambio reinicia el contenedor (con el consiguiente rebalanceo). No se escala con el
+ * circuito abierto ni con el contenedor pausado. Tras cualquier reinicio, también los de
+ * {@link AdaptivePollController}, se descartan las evaluaciones durante {@code kafka.consumer.restart.settle-time}
+ * ({@link ListenerRestartGuard}), ya que el lag medido durante el rebalanceo no es representativo.
+ * Requiere {@code kafka.consumer.lag.enabled}.
+ * <p>
+ * Métricas publicadas:
+ * <ul>
+ *   <li>{@code kafka.listener.concurrency} - consumidores del contenedor</li>
+ *   <li>{@code kafka.listener.autoscale.lag} - lag total del grupo en la última evaluación</li>
+ *   <li>{@code kafka.listener.autoscale.adjustments} - cambios aplicados, con tag {@code direction} ({@code up}/{@code down})</li>
+ * </ul>
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.autoscale.enabled} - habilita el escalado (por defecto false)</li>
+ *   <li>{@code kafka.consumer.autoscale.interval} - periodo de evaluación en ms (por defecto 30s)</li>
+ *   <li>{@code kafka.consumer.autoscale.min} / {@code max} - límites de concurrencia (por defecto 1 y número de particiones; el mínimo no baja de 1)</li>
+ *   <li>{@code kafka.consumer.autoscale.scale-up-lag} - lag máximo por consumidor (por defecto 1000)</li>
+ *   <li>{@code kafka.consumer.autoscale.scale-down-lag} - lag por consumidor por debajo del cual se reduce (por defecto 100)</li>
+ *   <li>{@code kafka.consumer.autoscale.stable-cycles} - evaluaciones consecutivas antes de escalar (por defecto 3)</li>
+ *   <li>{@code kafka.consumer.autoscale.cooldown} - espera mínima en ms tras un cambio (por defecto 2 min)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ListenerConcurrencyScaler {
+
+    /** Contenedores escalables: el listener por registro o el listener por lotes, el que esté en ejecución */
+    private static final List<String> LISTENER_IDS =
+            List.of(KafkaListenerService.LISTENER_ID, KafkaBatchListenerService.LISTENER_ID);
+
+    /** Monitor de lag del grupo de consumo */
+    @Autowired
+    private ConsumerLagMonitor lagMonitor;
+
+    /** Registro de contenedores creados a partir de {@code @KafkaListener} */
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    /** Reinicios compartidos con {@link AdaptivePollController} */
+    @Autowired
+    private ListenerRestartGuard restartGuard;
+
+    /** Circuit breaker de los listeners; no se escala mientras Kafka no está disponible */
+    @Autowired
+    private KafkaListenerCircuitBreaker circuitBreaker;
+
+    /** Registro de métricas de la aplicación */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Habilita el escalado automático */
+    @Value("${kafka.consumer.autoscale.enabled:false}")
+    private boolean enabled;
+
+    /** Grupo de consumo cuyo lag se mide */
+    @Value("${kafka.consumer.group-id}")
+    private String groupId;
+
+    /** Concurrencia inicial de los contenedores */
+    @Value("${kafka.consumer.concurrency:1}")
+    private int initialConcurrency;
+
+    /** Concurrencia mínima (al menos 1) */
+    @Value("${kafka.consumer.autoscale.min:1}")
+    private int minConcurrency;
+
+    /** Concurrencia máxima (-1 = número de particiones) */
+    @Value("${kafka.consumer.autoscale.max:-1}")
+    private int maxConcurrency;
+
+    /** Lag máximo deseado por consumidor */
+    @Value("${kafka.consumer.autoscale.scale-up-lag:1000}")
+    private long scaleUpLag;
+
+    /** Lag por consumidor por debajo del cual se retira un consumidor */
+    @Value("${kafka.consumer.autoscale.scale-down-lag:100}")
+    private long scaleDownLag;
+
+    /** Evaluaciones consecutivas en la misma dirección antes de escalar */
+    @Value("${kafka.consumer.autoscale.stable-cycles:3}")
+    private int stableCycles;
+
+    /** Espera mínima (ms) tras un cambio de concurrencia */
+    @Value("${kafka.consumer.autoscale.cooldown:120000}")
+    private long cooldown;
+
+    /** Lag total en la última evaluación */
+    private volatile long totalLag;
+
+    /** Concurrencia del contenedor en ejecución */
+    private volatile int currentConcurrency;
+
+    /** Evaluaciones consecutivas que piden escalar hacia arriba (positivo) o hacia abajo (negativo) */
+    private int pendingCycles;
+
+    /** Momento (ms) de la última instantánea evaluada */
+    private long lastSnapshotTime;
+
+    /** Momento (ms) del último cambio aplicado */
+    private long lastAdjustmentTime;
+
+    /** Cambios que añaden consumidores */
+    private Counter scaleUpCounter;
+
+    /** Cambios que retiran consumidores */
+    private Counter scaleDownCounter;
+
+    /**
+     * Registra las métricas si el escalado está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (!lagMonitor.isEnabled()) {
+            log.warn("Escalado por lag deshabilitado: requiere kafka.consumer.lag.enabled");
+            enabled = false;
+            return;
+        }
+
+        // Un contenedor activo tiene al menos un consumidor; el cálculo de reducción divide entre current - 1
+        if (minConcurrency < 1) {
+            log.warn("kafka.consumer.autoscale.min ({}) menor que 1, se usa 1", minConcurrency);
+            minConcurrency = 1;
+        }
+
+        currentConcurrency = initialConcurrency;
+
+        Gauge.builder("kafka.listener.concurrency", this, scaler -> scaler.currentConcurrency)
+                .description("Consumidores del contenedor del listener")
+                .register(meterRegistry);
+
+        Gauge.builder("kafka.listener.autoscale.lag", this, scaler -> scaler.totalLag)
+                .description("Lag total del grupo de consumo en la última evaluación")
+                .register(meterRegistry);
+
+        scaleUpCounter = Counter.builder("kafka.listener.autoscale.adjustments").tag("direction", "up")
+                .description("Cambios de concurrencia aplicados").register(meterRegistry);
+        scaleDownCounter = Counter.builder("kafka.listener.autoscale.adjustments").tag("direction", "down")
+                .description("Cambios de concurrencia aplicados").register(meterRegistry);
+
+        log.info("Escalado por lag habilitado para {}: lag por consumidor [{}, {}], {} evaluaciones estables, cooldown {}ms",
+                groupId, scaleDownLag, scaleUpLag, stableCycles, cooldown);
+    }
+
+    /**
+     * Evalúa la última instantánea de lag y escala el contenedor en ejecución si se cumplen las
+     * condiciones de histéresis. No bloquea: solo lee la instantánea y, si escala, solicita el
+     * reinicio del contenedor.
+     */
+    @Scheduled(fixedDelayString = "${kafka.consumer.autoscale.interval:30000}")
+    public void checkLag() {
+
+        if (!enabled || circuitBreaker.isOpen()) {
+            return;
+        }
+
+        ConcurrentMessageListenerContainer<?, ?> container = runningContainer();
+
+        if (container == null || restartGuard.isSettling()) {
+            pendingCycles = 0;
+            return;
+        }
+
+        ConsumerLagMonitor.LagSnapshot snapshot = lagMonitor.getSnapshot();
+
+        if (snapshot.timestamp() <= lastSnapshotTime || snapshot.partitions().isEmpty()) {
+            return;
+        }
+
+        lastSnapshotTime = snapshot.timestamp();
+
+        int partitions = snapshot.partitions().size();
+        totalLag = snapshot.totalLag();
+
+        int current = container.getConcurrency();
+        currentConcurrency = current;
+
+        int upper = Math.min(partitions, maxConcurrency > 0 ? maxConcurrency : partitions);
+        int lower = Math.min(minConcurrency, upper);
+        int desired = (int) Math.max(lower, Math.min(upper, (totalLag + scaleUpLag - 1) / scaleUpLag));
+
+        boolean scaleUp = desired > current;
+        boolean scaleDown = current > lower && totalLag / (current - 1) < scaleDownLag;
+
+        pendingCycles = scaleUp ? Math.max(pendingCycles, 0) + 1
+                : scaleDown ? Math.min(pendingCycles, 0) - 1
+                : 0;
+
+        if (Math.abs(pendingCycles) < stableCycles
+                || System.currentTimeMillis() - lastAdjustmentTime < cooldown) {
+            return;
+        }
+
+        if (scaleUp) {
+            apply(container, desired, scaleUpCounter);
+        } else {
+            apply(container, current - 1, scaleDownCounter);
+        }
+    }
+
+    /**
+     * Contenedor escalable en ejecución y no pausado, o {@code null} si no hay ninguno.
+     */
+    private ConcurrentMessageListenerContainer<?, ?> runningContainer() {
+
+        for (String listenerId : LISTENER_IDS) {
+
+            MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(listenerId);
+
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrentContainer
+                    && container.isRunning() && !container.isPauseRequested()) {
+                return concurrentContainer;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reinicia el contenedor con la nueva concurrencia, salvo que otro reinicio se esté asentando.
+     */
+    private void apply(ConcurrentMessageListenerContainer<?, ?> container, int concurrency, Counter counter) {
+
+        int previous = container.getConcurrency();
+
+        if (!restartGuard.restart(container, () -> container.setConcurrency(concurrency))) {
+            pendingCycles = 0;
+            return;
+        }
+
+        log.info("Escalando {} de {} a {} consumidores (lag total {}), se reinicia el listener",
+                container.getListenerId(), previous, concurrency, totalLag);
+
+        currentConcurrency = concurrency;
+        pendingCycles = 0;
+        lastAdjustmentTime = System.currentTimeMillis();
+        counter.increment();
+    }
+}
@@ -0,0 +1,61 @@
+package com.pinncode.service.kafkalistener.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reinicios de los contenedores de listeners solicitados por los ajustes automáticos.
+ * <p>
+ * {@link ListenerConcurrencyScaler} y {@link AdaptivePollController} aplican sus cambios reiniciando el
+ * contenedor, cada uno con su propio periodo de espera. Este componente guarda el momento del último
+ * reinicio de cualquiera de los dos y rechaza otro durante {@code kafka.consumer.restart.settle-time} ms:
+ * así no se encadenan dos rebalanceos, ni un reinicio en curso recibe un segundo {@code stop}, y las
+ * mediciones tomadas durante el rebalanceo (p. ej. el lag) no disparan un nuevo cambio. Es thread-safe.
+ * <p>
+ * Propiedades relevantes:
+ * <ul>
+ *   <li>{@code kafka.consumer.restart.settle-time} - espera mínima en ms entre reinicios (por defecto 1 min)</li>
+ * </ul>
+ */
+@Component
+public class ListenerRestartGuard {
+
+    /** Espera mínima (ms) entre reinicios */
+    @Value("${kafka.consumer.restart.settle-time:60000}")
+    private long settleTime;
+
+    /** Momento (ms) del último reinicio; 0 sin reinicios */
+    private long lastRestartTime;
+
+    /**
+     * Indica si un contenedor se reinició hace menos de {@code settle-time}.
+     *
+     * @return {@code true} mientras el último reinicio se está asentando
+     */
+    public synchronized boolean isSettling() {
+        return System.currentTimeMillis() - lastRestartTime < settleTime;
+    }
+
+    /**
+     * Aplica un cambio de configuración al contenedor y lo reinicia, salvo que otro reinicio se esté
+     * asentando.
+     *
+     * @param container contenedor a reiniciar
+     * @param change cambio a aplicar antes del reinicio
+     * @return {@code true} si se aplicó el cambio y se solicitó el reinicio
+     */
+    public synchronized boolean restart(MessageListenerContainer container, Runnable change) {
+
+        if (isSettling()) {
+            return false;
+        }
+
+        change.run();
+        lastRestartTime = System.currentTimeMillis();
+
+        container.stop(container::start);
+
+        return true;
+    }
+}
@@ -1,62 +1,42 @@
 package com.pinncode.service.kafkalistener.service;
 
 import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.EventPipeline;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Servicio de procesamiento de eventos de negocio desde Kafka.
  * <p>
  * Implementa la lógica de negocio para procesar eventos {@link KafkaEvent}
- * recibidos a través del listener. Incluye validación de reglas de negocio
- * y manejo de errores específicos del dominio.
+ * recibidos a través del listener, con manejo de errores específicos del dominio.
  * <p>
- * Flujo de procesamiento:
- * <ol>
- *   <li>Validación de reglas de negocio</li>
- *   <li>Procesamiento específico del evento</li>
- *   <li>Manejo de errores con propagación controlada</li>
- * </ol>
+ * Los eventos llegan ya validados: la validación de reglas de negocio es una etapa previa del
+ * pipeline ({@link EventPipeline}), medida por separado, y los eventos inválidos no llegan a este servicio.
  */
 @Slf4j
 @Service
 public class ProcessEventService implements IProcessEventService {
 
-    /** Servicio para validar reglas de negocio del evento */
-    @Autowired
-    private IValidateEventService validateEventService;
-
     /**
-     * Procesa un evento Kafka aplicando validaciones y lógica de negocio.
+     * Procesa un evento Kafka aplicando la lógica de negocio.
      * <p>
-     * Ejecuta el flujo completo de procesamiento:
-     * <ul>
-     *   <li>Valida reglas de negocio mediante {@link IValidateEventService}</li>
-     *   <li>Si la validación falla, omite el procesamiento</li>
-     *   <li>Ejecuta la lógica de negocio específica del evento</li>
-     *   <li>Propaga errores como {@link RuntimeException} para manejo upstream</li>
-     * </ul>
+     * Propaga errores como {@link RuntimeException} para manejo upstream.
      *
-     * @param kafkaEvent evento a procesar con datos de negocio
+     * @param kafkaEvent evento válido a procesar con datos de negocio
      * @throws RuntimeException si ocurre un error durante el procesamiento
      */
     @Override
     public void processEvent(KafkaEvent kafkaEvent) {
 
-        log.info("Inicia flujo de negocio");
+        log.debug("Inicia flujo de negocio");
         
         try {
 
-            final Boolean validInformation = validateEventService.checkBusinessRulesForTheEvent(kafkaEvent);
-
-            if (Boolean.FALSE.equals(validInformation)) {
-                log.error("Información inválida o incompleta, se omite el procesamiento");
-                return;
-            }
-
             // Agregar lógica de negocio sobre el evento
-            log.info("Procesando evento ...........");
+            log.debug("Procesando evento ...........");
             
         } catch (Exception e) {
 
@@ -64,4 +44,30 @@ public class ProcessEventService implements IProcessEventService {
             throw new RuntimeException("Error en el procesamiento del evento: ", e);
         }
     }
+
+    /**
+     * Procesa un lote de eventos Kafka recibidos en un mismo poll.
+     * <p>
+     * Ejecuta la lógica de negocio una sola vez sobre los eventos válidos del lote.
+     * Punto de extensión para amortizar llamadas a sistemas externos (p. ej. inserciones masivas).
+     *
+     * @param kafkaEvents eventos válidos a procesar en el orden recibido
+     * @throws RuntimeException si ocurre un error durante el procesamiento del lote
+     */
+    @Override
+    public void processEvents(List<KafkaEvent> kafkaEvents) {
+
+        log.info("Inicia flujo de negocio por lote ({} eventos)", kafkaEvents.size());
+
+        try {
+
+            // Agregar lógica de negocio sobre el lote de eventos
+            log.info("Procesando lote de {} eventos ...........", kafkaEvents.size());
+
+        } catch (Exception e) {
+
+            log.error("Error en el procesamiento del lote en el flujo de negocio: ", e);
+            throw new RuntimeException("Error en el procesamiento del lote de eventos: ", e);
+        }
+    }
 }
\ No newline at end of file
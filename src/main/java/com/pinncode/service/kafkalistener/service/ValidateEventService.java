@@ -1,10 +1,13 @@
 package com.pinncode.service.kafkalistener.service;
 
 import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.validation.CompiledValidator;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Set;
@@ -19,6 +22,8 @@ import java.util.Set;
  * Características:
  * <ul>
  *   <li>Validación automática usando {@link Validator}</li>
+ *   <li>Restricciones compiladas al arranque con {@link CompiledValidator}: los eventos válidos se
+ *       validan sin reflexión ni asignaciones ({@code kafka.validation.compiled}, por defecto true)</li>
  *   <li>Logging detallado de violaciones encontradas</li>
  *   <li>Retorno booleano simple para decisiones de procesamiento</li>
  * </ul>
@@ -31,10 +36,29 @@ public class ValidateEventService implements IValidateEventService {
     @Autowired
     private Validator validator;
 
+    /** Usa el validador compilado en lugar de {@link Validator#validate} en cada evento */
+    @Value("${kafka.validation.compiled:true}")
+    private boolean compiled;
+
+    /** Restricciones de {@link KafkaEvent} compiladas al arranque */
+    private CompiledValidator<KafkaEvent> compiledValidator;
+
+    /**
+     * Compila las restricciones de {@link KafkaEvent} si el validador compilado está habilitado.
+     */
+    @PostConstruct
+    void init() {
+
+        if (compiled) {
+            compiledValidator = CompiledValidator.compile(validator, KafkaEvent.class);
+        }
+    }
+
     /**
      * Válida un evento Kafka contra las reglas de negocio definidas.
      * <p>
-     * Ejecuta validación completa del objeto usando Bean Validation:
+     * Ejecuta validación completa del objeto usando Bean Validation, mediante el
+     * {@link CompiledValidator} si está habilitado:
      * <ul>
      *   <li>Aplica todas las anotaciones de validación del modelo</li>
      *   <li>Registra violaciones detalladas en logs (Propiedad, valor, error)</li>
@@ -49,7 +73,9 @@ public class ValidateEventService implements IValidateEventService {
     @Override
     public boolean checkBusinessRulesForTheEvent(KafkaEvent message) {
 
-        Set<ConstraintViolation<KafkaEvent>> violations = validator.validate(message);
+        Set<ConstraintViolation<KafkaEvent>> violations = compiledValidator != null
+                ? compiledValidator.validate(message).getViolations()
+                : validator.validate(message);
 
         if (!violations.isEmpty()) {
 
@@ -0,0 +1,46 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Codec CBOR (RFC 8949).
+ * <p>
+ * Se reconoce por el byte inicial de un mapa (tipo mayor 5, {@code 0xA0}-{@code 0xBF}) o por la
+ * etiqueta de autodescripción {@code 0xD9D9F7}; ninguno es un carácter válido al inicio de un
+ * documento JSON. Jackson no tiene parser CBOR no bloqueante, por lo que se crea un parser por
+ * registro también en el modo sin asignaciones.
+ */
+public final class CborPayloadCodec extends JacksonPayloadCodec {
+
+    /** Etiqueta 55799 (autodescripción CBOR) */
+    private static final int SELF_DESCRIBE_TAG_1 = 0xD9;
+    private static final int SELF_DESCRIBE_TAG_2 = 0xD9;
+    private static final int SELF_DESCRIBE_TAG_3 = 0xF7;
+
+    public CborPayloadCodec() {
+        super(new CBORFactory(), false);
+    }
+
+    @Override
+    public String name() {
+        return "cbor";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/cbor";
+    }
+
+    @Override
+    public boolean matches(byte[] data, int offset, int length) {
+
+        int first = data[offset] & 0xFF;
+
+        if (first >= 0xA0 && first <= 0xBF) {
+            return true;
+        }
+
+        return length >= 3 && first == SELF_DESCRIBE_TAG_1 && (data[offset + 1] & 0xFF) == SELF_DESCRIBE_TAG_2
+                && (data[offset + 2] & 0xFF) == SELF_DESCRIBE_TAG_3;
+    }
+}
@@ -0,0 +1,228 @@
+package com.pinncode.service.kafkalistener.transform;
+
+/**
+ * Conversión de fechas ISO-8601 a epoch en milisegundos sin objetos intermedios.
+ * <p>
+ * Lee directamente los caracteres del texto (por ejemplo, el buffer del {@code JsonParser}) y calcula
+ * el epoch con aritmética de calendario, sin {@code DateTimeFormatter}, {@code SimpleDateFormat} ni
+ * {@code String}. Formato soportado, el de {@code Instant.parse} y {@code OffsetDateTime.parse}:
+ * <pre>
+ *   yyyy-MM-dd'T'HH:mm[:ss[.fracción]](Z | ±HH[:mm[:ss]] | ±HHmm)
+ * </pre>
+ * La fracción admite de 1 a 9 dígitos y se trunca a milisegundos, igual que {@code Instant.toEpochMilli}
+ * y el deserializador de {@code java.sql.Timestamp} de Jackson. Cualquier otra forma (sin zona, años de
+ * más de cuatro dígitos, segundo intercalar) retorna {@link #NONE} para que el llamador recurra a un
+ * parser completo. Es thread-safe: no guarda estado.
+ */
+public final class EpochMillis {
+
+    /**
+     * Valor centinela: fecha ausente o con un formato no soportado. Un epoch numérico igual a
+     * {@link Long#MIN_VALUE} se interpreta también como ausente.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    /** Días entre 0000-03-01 y 1970-01-01 en el calendario gregoriano proléptico */
+    private static final long DAYS_0000_TO_1970 = 719_468;
+
+    /** Días de un ciclo gregoriano de 400 años */
+    private static final long DAYS_PER_CYCLE = 146_097;
+
+    /** Desplazamiento máximo de zona admitido ({@code ZoneOffset}), en segundos */
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private EpochMillis() {
+    }
+
+    /**
+     * Convierte una fecha ISO-8601 con zona a epoch en milisegundos.
+     *
+     * @param text fecha en texto
+     * @return epoch en milisegundos, o {@link #NONE} si el formato no está soportado
+     */
+    public static long parseIso(CharSequence text) {
+
+        char[] chars = new char[text.length()];
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+
+        return parseIso(chars, 0, chars.length);
+    }
+
+    /**
+     * Convierte una fecha ISO-8601 con zona, contenida en un rango de un buffer, a epoch en milisegundos.
+     *
+     * @param buffer caracteres del texto
+     * @param offset posición inicial de la fecha
+     * @param length número de caracteres de la fecha
+     * @return epoch en milisegundos, o {@link #NONE} si el formato no está soportado
+     */
+    public static long parseIso(char[] buffer, int offset, int length) {
+
+        int end = offset + length;
+
+        // yyyy-MM-ddTHH:mm es la forma mínima
+        if (length < 17 || buffer[offset + 4] != '-' || buffer[offset + 7] != '-'
+                || (buffer[offset + 10] != 'T' && buffer[offset + 10] != 't') || buffer[offset + 13] != ':') {
+            return NONE;
+        }
+
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 14, 2);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return NONE;
+        }
+
+        int pos = offset + 16;
+        int second = 0;
+        int millis = 0;
+
+        if (pos < end && buffer[pos] == ':') {
+
+            second = pos + 3 <= end ? digits(buffer, pos + 1, 2) : -1;
+
+            if (second < 0 || second > 59) {
+                return NONE;
+            }
+
+            pos += 3;
+
+            if (pos < end && (buffer[pos] == '.' || buffer[pos] == ',')) {
+
+                int fractionStart = ++pos;
+
+                while (pos < end && pos - fractionStart < 9 && isDigit(buffer[pos])) {
+                    if (pos - fractionStart < 3) {
+                        millis = millis * 10 + (buffer[pos] - '0');
+                    }
+                    pos++;
+                }
+
+                int fractionDigits = pos - fractionStart;
+
+                if (fractionDigits == 0) {
+                    return NONE;
+                }
+
+                for (int i = fractionDigits; i < 3; i++) {
+                    millis *= 10;
+                }
+            }
+        }
+
+        int offsetSeconds = zoneOffsetSeconds(buffer, pos, end);
+
+        if (offsetSeconds == Integer.MIN_VALUE) {
+            return NONE;
+        }
+
+        long epochSecond = epochDay(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+
+        return epochSecond * 1000 + millis;
+    }
+
+    /**
+     * Lee la zona desde {@code pos} hasta el final: {@code Z}, {@code ±HH}, {@code ±HH:mm},
+     * {@code ±HHmm} o {@code ±HH:mm:ss}.
+     *
+     * @return desplazamiento en segundos, o {@link Integer#MIN_VALUE} si no hay zona o no es válida
+     */
+    private static int zoneOffsetSeconds(char[] buffer, int pos, int end) {
+
+        int remaining = end - pos;
+
+        if (remaining == 1 && (buffer[pos] == 'Z' || buffer[pos] == 'z')) {
+            return 0;
+        }
+
+        if (remaining < 3 || (buffer[pos] != '+' && buffer[pos] != '-')) {
+            return Integer.MIN_VALUE;
+        }
+
+        int sign = buffer[pos] == '-' ? -1 : 1;
+        int hours = digits(buffer, pos + 1, 2);
+        int minutes = 0;
+        int seconds = 0;
+
+        switch (remaining) {
+            case 3 -> {
+            }
+            case 5 -> minutes = digits(buffer, pos + 3, 2);
+            case 6, 9 -> {
+                if (buffer[pos + 3] != ':') {
+                    return Integer.MIN_VALUE;
+                }
+                minutes = digits(buffer, pos + 4, 2);
+                if (remaining == 9) {
+                    seconds = buffer[pos + 6] == ':' ? digits(buffer, pos + 7, 2) : -1;
+                }
+            }
+            default -> {
+                return Integer.MIN_VALUE;
+            }
+        }
+
+        if (hours < 0 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+            return Integer.MIN_VALUE;
+        }
+
+        int total = hours * 3600 + minutes * 60 + seconds;
+
+        return total > MAX_OFFSET_SECONDS ? Integer.MIN_VALUE : sign * total;
+    }
+
+    /**
+     * Días desde 1970-01-01 de una fecha del calendario gregoriano proléptico.
+     */
+    private static long epochDay(int year, int month, int day) {
+
+        // Años que empiezan en marzo: el día bisiesto queda al final del año
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Valor decimal de {@code count} dígitos consecutivos.
+     *
+     * @return el valor, o -1 si algún carácter no es un dígito
+     */
+    private static int digits(char[] buffer, int pos, int count) {
+
+        int value = 0;
+
+        for (int i = pos; i < pos + count; i++) {
+
+            if (!isDigit(buffer[i])) {
+                return -1;
+            }
+
+            value = value * 10 + (buffer[i] - '0');
+        }
+
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,77 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.sql.Timestamp;
+
+/**
+ * Deserializador Jackson de fechas a epoch en milisegundos para propiedades {@code long}.
+ * <p>
+ * Acepta epochs numéricos y fechas ISO-8601 con zona, que convierte con {@link EpochMillis} sobre el
+ * buffer de caracteres del parser, sin crear un {@code String} ni un {@link Timestamp}. El resto de
+ * formatos que admitía el deserializador de {@link Timestamp} de Jackson (epoch entre comillas, fechas
+ * sin zona, RFC-1123) se delegan en {@link DeserializationContext#parseDate(String)}, de modo que los
+ * payloads aceptados no cambian. {@code null} se lee como {@link EpochMillis#NONE}.
+ * <p>
+ * Los arreglos se resuelven como en el resto de deserializadores escalares de Jackson (p. ej.
+ * {@code UNWRAP_SINGLE_VALUE_ARRAYS}) y los tokens inesperados se reportan para el tipo {@code long},
+ * de modo que un {@code DeserializationProblemHandler} debe resolverlos con un {@link Long}.
+ */
+public class EpochMillisJsonDeserializer extends StdScalarDeserializer<Long> {
+
+    /**
+     * Serial version UID para compatibilidad de serialización.
+     */
+    @Serial
+    private static final long serialVersionUID = 5995054797933746107L;
+
+    public EpochMillisJsonDeserializer() {
+        super(Long.TYPE);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+
+        JsonToken token = parser.currentToken();
+
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+
+        if (token == JsonToken.START_ARRAY) {
+            return _deserializeFromArray(parser, ctxt);
+        }
+
+        if (token != JsonToken.VALUE_STRING) {
+            return (Long) ctxt.handleUnexpectedToken(Long.TYPE, parser);
+        }
+
+        long epochMillis = EpochMillis.parseIso(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+
+        if (epochMillis != EpochMillis.NONE) {
+            return epochMillis;
+        }
+
+        String text = parser.getText().trim();
+
+        if (text.isEmpty()) {
+            return EpochMillis.NONE;
+        }
+
+        try {
+            return ctxt.parseDate(text).getTime();
+        } catch (IllegalArgumentException e) {
+            throw ctxt.weirdStringException(text, Timestamp.class, e.getMessage());
+        }
+    }
+
+    @Override
+    public Long getNullValue(DeserializationContext ctxt) {
+        return EpochMillis.NONE;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * Serializador Jackson de propiedades {@code long} con epoch en milisegundos.
+ * <p>
+ * Escribe el epoch como número, igual que Jackson serializa un {@code java.sql.Timestamp} por defecto,
+ * y {@link EpochMillis#NONE} como {@code null}.
+ */
+public class EpochMillisJsonSerializer extends StdSerializer<Long> {
+
+    /**
+     * Serial version UID para compatibilidad de serialización.
+     */
+    @Serial
+    private static final long serialVersionUID = 4479732124426313519L;
+
+    public EpochMillisJsonSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long epochMillis, JsonGenerator generator, SerializerProvider provider) throws IOException {
+
+        if (epochMillis == EpochMillis.NONE) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(epochMillis);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.pinncode.service.kafkalistener.model.EventStatus;
+
+import java.util.Arrays;
+
+/**
+ * Conversión del texto de {@code status} a {@link EventStatus} con una tabla de hash perfecta.
+ * <p>
+ * Al cargar la clase busca un multiplicador con el que el hash de cada texto canónico cae en una
+ * posición distinta de una tabla de tamaño potencia de dos (al menos el doble de estatus conocidos).
+ * Una búsqueda calcula el hash de los caracteres (el mismo que {@link String#hashCode()}), lee una
+ * única posición y compara el texto con el candidato: sin colisiones que recorrer, sin
+ * {@code HashMap} y, sobre el buffer del parser, sin crear el {@code String} del payload.
+ * <p>
+ * La comparación distingue mayúsculas y minúsculas; cualquier otro texto es {@link EventStatus#UNKNOWN}.
+ * Es thread-safe: la tabla es inmutable tras la carga de la clase.
+ */
+public final class EventStatusCodec {
+
+    /** Constante de Fibonacci hashing; punto de partida de la búsqueda del multiplicador */
+    private static final int SEED = 0x9E3779B9;
+
+    /** Intentos de multiplicador antes de duplicar la tabla */
+    private static final int MAX_ATTEMPTS = 1 << 16;
+
+    /** Estatus por posición; {@code null} en las posiciones libres */
+    private static final EventStatus[] TABLE;
+
+    /** Multiplicador sin colisiones para {@link #TABLE} */
+    private static final int MULTIPLIER;
+
+    /** {@code 32 - log2(TABLE.length)}: desplazamiento que deja los bits altos del hash */
+    private static final int SHIFT;
+
+    static {
+        EventStatus[] known = Arrays.stream(EventStatus.values()).filter(status -> status.text() != null)
+                .toArray(EventStatus[]::new);
+
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(known.length * 2 - 1));
+        int multiplier = SEED;
+        EventStatus[] table = build(known, multiplier, bits);
+
+        for (int attempt = 1; table == null; attempt++) {
+
+            if (attempt == MAX_ATTEMPTS) {
+                bits++;
+                attempt = 0;
+                multiplier = SEED;
+            } else {
+                multiplier += 2;
+            }
+
+            table = build(known, multiplier, bits);
+        }
+
+        TABLE = table;
+        MULTIPLIER = multiplier;
+        SHIFT = 32 - bits;
+    }
+
+    private EventStatusCodec() {
+    }
+
+    /**
+     * Convierte un texto a su estatus.
+     *
+     * @param text texto del payload
+     * @return el estatus, {@link EventStatus#UNKNOWN} si no es conocido o {@code null} si el texto es {@code null}
+     */
+    public static EventStatus decode(String text) {
+
+        if (text == null) {
+            return null;
+        }
+
+        EventStatus candidate = TABLE[slot(text.hashCode(), MULTIPLIER, SHIFT)];
+
+        return candidate != null && text.equals(candidate.text()) ? candidate : EventStatus.UNKNOWN;
+    }
+
+    /**
+     * Convierte un rango de un buffer de caracteres (p. ej. {@code JsonParser#getTextCharacters()})
+     * a su estatus, sin crear un {@code String}.
+     *
+     * @param buffer caracteres del texto
+     * @param offset posición inicial del texto
+     * @param length número de caracteres del texto
+     * @return el estatus, o {@link EventStatus#UNKNOWN} si no es conocido
+     */
+    public static EventStatus decode(char[] buffer, int offset, int length) {
+
+        int hash = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        EventStatus candidate = TABLE[slot(hash, MULTIPLIER, SHIFT)];
+
+        if (candidate == null || candidate.text().length() != length) {
+            return EventStatus.UNKNOWN;
+        }
+
+        String text = candidate.text();
+
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != buffer[offset + i]) {
+                return EventStatus.UNKNOWN;
+            }
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Tabla con {@code 2^bits} posiciones para el multiplicador, o {@code null} si hay una colisión.
+     */
+    private static EventStatus[] build(EventStatus[] known, int multiplier, int bits) {
+
+        EventStatus[] table = new EventStatus[1 << bits];
+
+        for (EventStatus status : known) {
+
+            int slot = slot(status.text().hashCode(), multiplier, 32 - bits);
+
+            if (table[slot] != null) {
+                return null;
+            }
+
+            table[slot] = status;
+        }
+
+        return table;
+    }
+
+    private static int slot(int hash, int multiplier, int shift) {
+        return (hash * multiplier) >>> shift;
+    }
+}
@@ -0,0 +1,94 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+
+import java.io.IOException;
+
+/**
+ * Base de los codecs sobre un formato de Jackson (JSON, Smile, CBOR).
+ * <p>
+ * Cada codec construye una sola vez su {@link ObjectMapper} sobre la fábrica del formato, con
+ * {@link JavaTimeModule} e ignorando campos desconocidos, y a partir de él un {@link ObjectReader}
+ * y un {@link ObjectWriter} ligados a {@link KafkaEvent}, inmutables y compartidos por todos los hilos.
+ * Decodifica con {@link KafkaEventStreamingParser}, que funciona sobre los tokens de cualquier formato,
+ * y recurre al {@link ObjectReader} ante formas inesperadas.
+ */
+public abstract class JacksonPayloadCodec implements PayloadCodec {
+
+    /** Mapper del formato, configurado con {@link JavaTimeModule} e ignorando campos desconocidos */
+    private final ObjectMapper objectMapper;
+
+    /** Lector ligado a {@link KafkaEvent}, fallback del parser en streaming */
+    private final ObjectReader kafkaEventReader;
+
+    /** Escritor ligado a {@link KafkaEvent} */
+    private final ObjectWriter kafkaEventWriter;
+
+    /** Parser en streaming de los campos mapeados sobre la fábrica del formato */
+    private final KafkaEventStreamingParser streamingParser;
+
+    /**
+     * @param jsonFactory fábrica de parsers y generadores del formato
+     * @param reuseParser reutiliza un parser no bloqueante por hilo en {@link #decodeInto}; solo es
+     *        posible si la fábrica admite parsers no bloqueantes que aceptan documentos consecutivos
+     */
+    protected JacksonPayloadCodec(JsonFactory jsonFactory, boolean reuseParser) {
+        this.objectMapper = new ObjectMapper(jsonFactory)
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.kafkaEventReader = objectMapper.readerFor(KafkaEvent.class);
+        this.kafkaEventWriter = objectMapper.writerFor(KafkaEvent.class);
+        this.streamingParser = new KafkaEventStreamingParser(objectMapper.getFactory(), reuseParser);
+    }
+
+    @Override
+    public KafkaEvent decode(byte[] data, int offset, int length) throws IOException {
+
+        KafkaEvent kafkaEvent = streamingParser.parse(data, offset, length);
+
+        return kafkaEvent != null ? kafkaEvent : kafkaEventReader.readValue(data, offset, length);
+    }
+
+    /**
+     * Restablece el evento y extrae los campos con {@link KafkaEventStreamingParser#parseInto}. Si el
+     * documento requiere el fallback, lo lee con el {@link ObjectReader} compartido y copia sus campos
+     * al evento; ese camino sí asigna.
+     */
+    @Override
+    public void decodeInto(byte[] data, int offset, int length, KafkaEvent kafkaEvent) throws IOException {
+
+        kafkaEvent.reset();
+
+        if (!streamingParser.parseInto(data, offset, length, kafkaEvent)) {
+
+            // Se lee sobre un evento nuevo para conservar los errores de databind (p. ej. un array)
+            KafkaEvent parsed = kafkaEventReader.readValue(data, offset, length);
+
+            kafkaEvent.setReference(parsed.getReference());
+            kafkaEvent.setStatus(parsed.getStatus());
+            kafkaEvent.setCreatedEpochMillis(parsed.getCreatedEpochMillis());
+        }
+    }
+
+    @Override
+    public byte[] encode(KafkaEvent kafkaEvent) throws JsonProcessingException {
+        return kafkaEventWriter.writeValueAsBytes(kafkaEvent);
+    }
+
+    /**
+     * Extrae un {@link KafkaEvent} de un payload JSON en texto (solo {@link JsonPayloadCodec}).
+     */
+    KafkaEvent decode(String eventPayload) throws IOException {
+
+        KafkaEvent kafkaEvent = streamingParser.parse(eventPayload);
+
+        return kafkaEvent != null ? kafkaEvent : kafkaEventReader.readValue(eventPayload);
+    }
+}
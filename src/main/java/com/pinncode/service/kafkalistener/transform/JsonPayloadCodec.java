@@ -0,0 +1,46 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * Codec JSON (UTF-8), el formato por defecto.
+ * <p>
+ * Es el único que reutiliza un parser no bloqueante por hilo en el modo sin asignaciones. Se elige
+ * por la cabecera {@code application/json} o cuando ningún otro codec reconoce el payload, de modo
+ * que los payloads inválidos producen los errores de Jackson para JSON.
+ */
+public final class JsonPayloadCodec extends JacksonPayloadCodec {
+
+    /** Tipo de contenido de los payloads JSON */
+    public static final String CONTENT_TYPE = "application/json";
+
+    public JsonPayloadCodec() {
+        super(new JsonFactory(), true);
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    /**
+     * Documento cuyo primer carácter distinto de espacio abre un objeto o un arreglo.
+     */
+    @Override
+    public boolean matches(byte[] data, int offset, int length) {
+
+        for (int i = offset; i < offset + length; i++) {
+
+            if (!Character.isWhitespace(data[i])) {
+                return data[i] == '{' || data[i] == '[';
+            }
+        }
+
+        return false;
+    }
+}
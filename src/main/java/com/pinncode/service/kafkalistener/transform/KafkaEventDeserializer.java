@@ -0,0 +1,138 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.KafkaEventPool;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Deserializador de valores Kafka que convierte el payload (JSON, Smile o CBOR) directamente a
+ * {@link KafkaEvent}.
+ * <p>
+ * Elige el {@link PayloadCodec} de cada registro con {@link KafkaTransform#codecFor} (cabecera
+ * {@code contentType} o bytes iniciales) y parsea desde el {@code byte[]} (o {@link ByteBuffer}) del
+ * registro con el lector compartido del codec, evitando la decodificación UTF-8 a un {@code String}
+ * intermedio y el segundo recorrido del payload. El parsing ocurre dentro del poll del consumidor, antes de que el
+ * registro llegue al listener. Su duración se registra en {@link KafkaPipelineMetrics#DESERIALIZE_TIMER}.
+ * Con el pool de eventos habilitado ({@link KafkaEventPool}), el evento se toma del pool del hilo del
+ * consumidor y se rellena en el sitio, sin crear el parser ni el evento.
+ * <p>
+ * Comportamiento:
+ * <ul>
+ *   <li>Payload nulo, vacío o solo con espacios: retorna {@code null} (el listener lo trata como evento vacío).</li>
+ *   <li>Payload inválido: lanza {@link SerializationException}. Envuelto en
+ *       {@code ErrorHandlingDeserializer}, el fallo llega al manejador de errores del contenedor
+ *       como {@code DeserializationException} en lugar de un valor {@code null}.</li>
+ * </ul>
+ *
+ * @see org.springframework.kafka.support.serializer.ErrorHandlingDeserializer
+ */
+@Component
+public class KafkaEventDeserializer implements Deserializer<KafkaEvent> {
+
+    /** Transformador con el lector JSON compartido */
+    @Autowired
+    private KafkaTransform kafkaTransform;
+
+    /** Pool de eventos del modo sin asignaciones */
+    @Autowired
+    private KafkaEventPool eventPool;
+
+    /** Métricas del pipeline de consumo */
+    @Autowired
+    private KafkaPipelineMetrics metrics;
+
+    @Override
+    public KafkaEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public KafkaEvent deserialize(String topic, Headers headers, byte[] data) {
+
+        if (data == null) {
+            return null;
+        }
+
+        return deserialize(topic, headers, data, 0, data.length);
+    }
+
+    /**
+     * Variante sin copia: si el buffer tiene un arreglo accesible, se parsea directamente sobre él.
+     */
+    @Override
+    public KafkaEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+
+        if (data == null) {
+            return null;
+        }
+
+        if (data.hasArray()) {
+            return deserialize(topic, headers, data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+
+        byte[] copy = new byte[data.remaining()];
+        data.duplicate().get(copy);
+
+        return deserialize(topic, headers, copy, 0, copy.length);
+    }
+
+    private KafkaEvent deserialize(String topic, Headers headers, byte[] data, int offset, int length) {
+
+        if (isBlank(data, offset, length)) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        PayloadCodec codec = kafkaTransform.codecFor(headers, data, offset, length);
+        KafkaEvent pooledEvent = eventPool.isEnabled() ? eventPool.acquire() : null;
+        boolean decoded = false;
+
+        try {
+
+            if (pooledEvent == null) {
+                return codec.decode(data, offset, length);
+            }
+
+            codec.decodeInto(data, offset, length, pooledEvent);
+            decoded = true;
+
+            return pooledEvent;
+
+        } catch (IOException e) {
+
+            throw new SerializationException("Error al parsear el payload " + codec.name()
+                    + " del evento kafka del tópico " + topic, e);
+
+        } finally {
+
+            // Cualquier fallo del codec (también RuntimeException de un codec externo) devuelve el evento
+            if (pooledEvent != null && !decoded) {
+                eventPool.releaseUndelivered(pooledEvent);
+            }
+
+            metrics.recordDeserialize(topic, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Equivalente en bytes de {@code StringUtils.isBlank}: vacío o solo espacios en blanco ASCII.
+     */
+    private static boolean isBlank(byte[] data, int offset, int length) {
+
+        for (int i = offset; i < offset + length; i++) {
+            if (!Character.isWhitespace(data[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
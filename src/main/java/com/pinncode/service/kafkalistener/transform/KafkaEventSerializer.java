@@ -0,0 +1,64 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializador de valores Kafka que convierte un {@link KafkaEvent} a su payload JSON.
+ * <p>
+ * Contraparte de {@link KafkaEventDeserializer}: usa el escritor compartido de
+ * {@link KafkaTransform}, por lo que los eventos republicados (tópicos de reintento, DLT) se
+ * leen de nuevo con el mismo formato.
+ * <p>
+ * Los eventos se escriben siempre en JSON, aunque el registro original llegara en Smile o CBOR. Por
+ * eso la cabecera {@code contentType} que el recoverer copia del registro original se sustituye por
+ * {@code application/json}: de lo contrario el consumidor del tópico de reintento o del DLT elegiría el
+ * codec del formato original ({@link KafkaTransform#codecFor}) y no podría leer el payload.
+ */
+@Component
+public class KafkaEventSerializer implements Serializer<KafkaEvent> {
+
+    /** Transformador con el escritor JSON compartido */
+    @Autowired
+    private KafkaTransform kafkaTransform;
+
+    /** Valor de la cabecera {@code contentType} de los eventos serializados */
+    private static final byte[] JSON_CONTENT_TYPE = JsonPayloadCodec.CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, KafkaEvent data) {
+
+        byte[] payload = serialize(topic, data);
+
+        if (payload != null && headers != null) {
+            headers.remove(KafkaTransform.CONTENT_TYPE_HEADER);
+            headers.add(KafkaTransform.CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
+        }
+
+        return payload;
+    }
+
+    @Override
+    public byte[] serialize(String topic, KafkaEvent data) {
+
+        if (data == null) {
+            return null;
+        }
+
+        try {
+
+            return kafkaTransform.kafkaEventObjectToBytesTransform(data);
+
+        } catch (JsonProcessingException e) {
+
+            throw new SerializationException("Error al serializar el evento kafka para el tópico " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.pinncode.service.kafkalistener.model.EventStatus;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Parser en streaming que extrae únicamente los campos mapeados de {@link KafkaEvent}.
+ * <p>
+ * Recorre el documento (JSON, Smile o CBOR, según la fábrica del codec) con un {@link JsonParser}
+ * sin pasar por el deserializador genérico de beans: lee {@code reference}, {@code status} y {@code created_datetime}, salta los objetos y arreglos
+ * anidados con {@link JsonParser#skipChildren()} sin construirlos y deja de leer en cuanto ha
+ * encontrado los tres campos. En payloads grandes evita tokenizar el resto del documento. Las fechas
+ * ISO-8601 se convierten con {@link EpochMillis} y los estatus conocidos con {@link EventStatusCodec}, ambos
+ * sobre el buffer del parser y sin {@code String} intermedio.
+ * <p>
+ * Si el documento tiene una forma inesperada (raíz que no es objeto, campos mapeados con valores
+ * no escalares, fechas en un formato distinto de epoch o ISO-8601 con zona), retorna {@code null}
+ * para que {@link JacksonPayloadCodec} recurra al {@code ObjectReader} de databind, que conserva la
+ * semántica y los mensajes de error completos de Jackson.
+ * <p>
+ * Al detenerse en cuanto encuentra los tres campos, el contenido posterior del documento no se
+ * valida. Es thread-safe: {@link #parseInto} guarda un parser por hilo y el resto no guarda estado
+ * entre llamadas.
+ */
+final class KafkaEventStreamingParser {
+
+    private static final int REFERENCE = 1;
+    private static final int STATUS = 1 << 1;
+    private static final int CREATED_DATETIME = 1 << 2;
+    private static final int ALL_FIELDS = REFERENCE | STATUS | CREATED_DATETIME;
+
+    /** Fábrica de parsers compartida con el {@code ObjectMapper} del codec */
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Parser no bloqueante de cada hilo para {@link #parseInto}; se crea al primer uso. Es {@code null}
+     * si el formato no permite reutilizarlo y {@link #parseInto} crea un parser por registro.
+     */
+    private final ThreadLocal<JsonParser> reusableParser;
+
+    /**
+     * @param jsonFactory fábrica de parsers del formato
+     * @param reuseParser reutiliza un parser no bloqueante por hilo en {@link #parseInto}
+     */
+    KafkaEventStreamingParser(JsonFactory jsonFactory, boolean reuseParser) {
+        this.jsonFactory = jsonFactory;
+        this.reusableParser = reuseParser ? ThreadLocal.withInitial(this::createReusableParser) : null;
+    }
+
+    private JsonParser createReusableParser() {
+
+        try {
+            return jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Extrae un {@link KafkaEvent} de un payload JSON en texto.
+     *
+     * @param eventPayload JSON recibido desde Kafka
+     * @return evento extraído, o {@code null} si se requiere el fallback de databind
+     * @throws IOException si el JSON está mal formado
+     */
+    KafkaEvent parse(String eventPayload) throws IOException {
+
+        try (JsonParser parser = jsonFactory.createParser(eventPayload)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * Extrae un {@link KafkaEvent} de un payload en bytes (JSON en UTF-8 o el formato binario del codec).
+     *
+     * @param eventPayload buffer con el payload recibido desde Kafka
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @return evento extraído, o {@code null} si se requiere el fallback de databind
+     * @throws IOException si el documento está mal formado
+     */
+    KafkaEvent parse(byte[] eventPayload, int offset, int length) throws IOException {
+
+        try (JsonParser parser = jsonFactory.createParser(eventPayload, offset, length)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * Extrae los campos de un payload en bytes sobre un {@link KafkaEvent} existente.
+     * <p>
+     * Si el formato lo permite, usa un parser no bloqueante por hilo ({@link JsonFactory#createNonBlockingByteArrayParser()}) al
+     * que se entrega cada payload con {@link ByteArrayFeeder#feedInput}: el parser, sus buffers y su
+     * tabla de nombres de campo se reutilizan entre registros. A diferencia de {@link #parse(byte[], int, int)}
+     * lee el documento hasta el final, ya que el parser debe consumir toda la entrada antes de recibir la
+     * siguiente. Si el documento está mal formado o tiene una forma inesperada, descarta el parser del
+     * hilo y retorna {@code false}; el llamador debe restablecer el evento y recurrir al camino normal,
+     * que reproduce los errores de Jackson. Si el formato no permite reutilizar el parser, crea uno para
+     * el registro y se detiene en cuanto encuentra los tres campos, como {@link #parse(byte[], int, int)}.
+     *
+     * @param eventPayload buffer con el payload recibido desde Kafka
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @param kafkaEvent evento restablecido sobre el que se escriben los campos
+     * @return {@code true} si se extrajeron los campos
+     */
+    boolean parseInto(byte[] eventPayload, int offset, int length, KafkaEvent kafkaEvent) {
+
+        if (reusableParser == null) {
+
+            try (JsonParser parser = jsonFactory.createParser(eventPayload, offset, length)) {
+                return readFields(parser, kafkaEvent, true);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        JsonParser parser = reusableParser.get();
+
+        try {
+
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(eventPayload, offset, offset + length);
+
+            if (!readFields(parser, kafkaEvent, false) || parser.currentToken() != JsonToken.END_OBJECT) {
+                discardReusableParser(parser);
+                return false;
+            }
+
+            // Consume los espacios finales; cualquier otro contenido tras el documento se ignora, como en parse()
+            if (parser.nextToken() != JsonToken.NOT_AVAILABLE) {
+                discardReusableParser(parser);
+            }
+
+            return true;
+
+        } catch (IOException e) {
+
+            discardReusableParser(parser);
+            return false;
+        }
+    }
+
+    private KafkaEvent parse(JsonParser parser) throws IOException {
+
+        KafkaEvent kafkaEvent = new KafkaEvent();
+
+        return readFields(parser, kafkaEvent, true) ? kafkaEvent : null;
+    }
+
+    /**
+     * Lee los campos mapeados del objeto raíz sobre {@code kafkaEvent}.
+     *
+     * @param stopEarly deja de leer en cuanto ha encontrado los tres campos
+     * @return {@code false} si se requiere el fallback de databind
+     */
+    private boolean readFields(JsonParser parser, KafkaEvent kafkaEvent, boolean stopEarly) throws IOException {
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+
+        int found = 0;
+
+        while ((!stopEarly || found != ALL_FIELDS) && parser.nextToken() == JsonToken.FIELD_NAME) {
+
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (fieldName) {
+                case "reference" -> {
+                    if (!value.isScalarValue()) {
+                        return false;
+                    }
+                    kafkaEvent.setReference(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                    found |= REFERENCE;
+                }
+                case "status" -> {
+                    if (!value.isScalarValue()) {
+                        return false;
+                    }
+                    EventStatus statusCode = value == JsonToken.VALUE_STRING ? EventStatusCodec.decode(
+                            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()) : EventStatus.UNKNOWN;
+                    if (statusCode != EventStatus.UNKNOWN) {
+                        kafkaEvent.setStatusCode(statusCode);
+                    } else {
+                        kafkaEvent.setStatus(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                    }
+                    found |= STATUS;
+                }
+                case "created_datetime" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        kafkaEvent.setCreatedEpochMillis(parser.getLongValue());
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        long createdEpochMillis = EpochMillis.parseIso(parser.getTextCharacters(),
+                                parser.getTextOffset(), parser.getTextLength());
+                        if (createdEpochMillis == EpochMillis.NONE) {
+                            return false;
+                        }
+                        kafkaEvent.setCreatedEpochMillis(createdEpochMillis);
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        return false;
+                    }
+                    found |= CREATED_DATETIME;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return true;
+    }
+
+    private void discardReusableParser(JsonParser parser) {
+
+        reusableParser.remove();
+
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // El parser descartado no tiene recursos externos
+        }
+    }
+}
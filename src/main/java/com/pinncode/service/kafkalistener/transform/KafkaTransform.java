@@ -1,22 +1,43 @@
 package com.pinncode.service.kafkalistener.transform;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
- * Transformador para convertir payloads JSON de Kafka en objetos de dominio.
+ * Transformador para convertir payloads de Kafka en objetos de dominio.
  * <p>
- * Utiliza Jackson ObjectMapper para deserializar cadenas JSON recibidas
- * desde Kafka hacia objetos {@link KafkaEvent}. Incluye soporte para
+ * Utiliza un {@link ObjectReader} de Jackson para deserializar cadenas JSON
+ * recibidas desde Kafka hacia objetos {@link KafkaEvent}. Incluye soporte para
  * tipos de fecha/hora de Java 8+ mediante {@link JavaTimeModule}.
  * <p>
  * Características:
  * <ul>
  *   <li>Deserialización JSON a objeto tipado</li>
+ *   <li>{@link ObjectReader} inmutable y thread-safe construido una sola vez y compartido
+ *       por todos los hilos consumidores (sin reconstruir cachés de deserializadores por mensaje)</li>
+ *   <li>Parser en streaming ({@link KafkaEventStreamingParser}) que extrae solo los campos mapeados y
+ *       se detiene al encontrarlos, con fallback al {@link ObjectReader} ante formas inesperadas</li>
+ *   <li>Los campos desconocidos del payload se ignoran</li>
+ *   <li>Lectura directa desde {@code byte[]} para el deserializador de Kafka, sin {@code String} intermedio</li>
+ *   <li>Payloads JSON, Smile y CBOR ({@link PayloadCodec}), elegidos por registro según la cabecera
+ *       {@code contentType} o los primeros bytes del payload, con un lector por codec</li>
+ *   <li>Escritura a {@code byte[]} con un {@link ObjectWriter} compartido, para republicar eventos
+ *       (tópicos de reintento y DLT)</li>
  *   <li>Soporte para LocalDateTime, Instant, etc.</li>
  *   <li>Manejo robusto de errores de parsing</li>
  *   <li>Logging detallado para debugging</li>
@@ -26,46 +47,188 @@ import org.springframework.stereotype.Component;
 @Component
 public class KafkaTransform {
 
+    /** Cabecera del registro con el tipo de contenido del payload */
+    public static final String CONTENT_TYPE_HEADER = MessageHeaders.CONTENT_TYPE;
+
+    /** Codec JSON: formato por defecto y de los eventos republicados */
+    private final JsonPayloadCodec jsonCodec = new JsonPayloadCodec();
+
+    /**
+     * Codecs en orden de prioridad. JSON va el último: se usa también cuando ningún otro reconoce
+     * el payload.
+     */
+    private PayloadCodec[] codecs = {new SmilePayloadCodec(), new CborPayloadCodec(), jsonCodec};
+
+    /** Codecs adicionales declarados como beans; tienen prioridad sobre los incluidos */
+    @Autowired(required = false)
+    private List<PayloadCodec> customCodecs;
+
+    @PostConstruct
+    void init() {
+
+        if (customCodecs == null || customCodecs.isEmpty()) {
+            return;
+        }
+
+        List<PayloadCodec> all = new ArrayList<>(customCodecs);
+        all.addAll(Arrays.asList(codecs));
+        codecs = all.toArray(PayloadCodec[]::new);
+
+        log.info("Codecs de payload: {}", all.stream().map(PayloadCodec::name).toList());
+    }
+
+    /**
+     * Elige el codec de un registro.
+     * <p>
+     * Si el registro trae la cabecera {@link #CONTENT_TYPE_HEADER} con el tipo de contenido de un codec
+     * (sin distinguir mayúsculas y sin parámetros como {@code charset}), usa ese codec. Si no, el primero
+     * cuyo {@link PayloadCodec#matches} reconozca los bytes iniciales, y JSON si ninguno lo hace. No
+     * crea objetos por registro.
+     *
+     * @param headers cabeceras del registro, o {@code null}
+     * @param data buffer con el payload
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload, mayor que cero
+     * @return codec del payload
+     */
+    public PayloadCodec codecFor(Headers headers, byte[] data, int offset, int length) {
+
+        Header contentType = headers != null ? headers.lastHeader(CONTENT_TYPE_HEADER) : null;
+
+        if (contentType != null && contentType.value() != null) {
+            for (PayloadCodec codec : codecs) {
+                if (isContentType(contentType.value(), codec.contentType())) {
+                    return codec;
+                }
+            }
+        }
+
+        for (PayloadCodec codec : codecs) {
+            if (codec.matches(data, offset, length)) {
+                return codec;
+            }
+        }
+
+        return jsonCodec;
+    }
+
+    /**
+     * Compara el valor de la cabecera con un tipo de contenido, sin distinguir mayúsculas y admitiendo
+     * comillas (valores serializados como JSON), espacios y parámetros tras {@code ;}.
+     */
+    private static boolean isContentType(byte[] value, String contentType) {
+
+        int start = 0;
+
+        while (start < value.length && (value[start] == '"' || value[start] == ' ')) {
+            start++;
+        }
+
+        int end = start + contentType.length();
+
+        if (end > value.length) {
+            return false;
+        }
+
+        for (int i = 0; i < contentType.length(); i++) {
+            if (Character.toLowerCase(value[start + i]) != contentType.charAt(i)) {
+                return false;
+            }
+        }
+
+        return end == value.length || value[end] == ';' || value[end] == ' ' || value[end] == '"';
+    }
+
     /**
      * Transforma un payload JSON de Kafka a un objeto {@link KafkaEvent}.
      * <p>
-     * Utiliza Jackson ObjectMapper configurado con {@link JavaTimeModule}
-     * para manejar correctamente tipos de fecha/hora modernos. En caso de
-     * error de parsing, registra el error y retorna {@code null}.
+     * Extrae los campos con {@link KafkaEventStreamingParser} y, si el documento tiene una forma
+     * inesperada, recurre al {@link ObjectReader} compartido configurado con {@link JavaTimeModule}.
+     * En caso de error de parsing, registra el error y retorna {@code null}.
      * <p>
      * Proceso de transformación:
      * <ol>
-     *   <li>Configura ObjectMapper con módulo de tiempo Java 8+</li>
-     *   <li>Deserializa JSON a objeto KafkaEvent</li>
+     *   <li>Extrae los campos mapeados en streaming (fallback a databind)</li>
      *   <li>Registra éxito y objeto resultante (debug level)</li>
      *   <li>En caso de error, registra excepción y retorna null</li>
      * </ol>
      *
      * @param eventPayload cadena JSON recibida desde Kafka
      * @return objeto {@link KafkaEvent} deserializado o {@code null} si hay error
-     * @see ObjectMapper#readValue(String, Class)
+     * @see ObjectReader#readValue(String)
      * @see JavaTimeModule
      */
     public KafkaEvent kafkaEventStringToObjectTransform (String eventPayload) {
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-
         try {
 
-            KafkaEvent kafkaEvent = objectMapper.readValue(eventPayload, KafkaEvent.class);
+            KafkaEvent kafkaEvent = jsonCodec.decode(eventPayload);
 
-            log.info("Se ha transformado el payload del evento a un objeto de manera correcta");
+            log.debug("Se ha transformado el payload del evento a un objeto de manera correcta");
 
-            log.debug(kafkaEvent.toString());
+            log.debug("{}", kafkaEvent);
 
             return kafkaEvent;
 
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
 
             log.error("Error al parsear el payload del evento kafka: ", e);
         }
 
         return null;
     }
+
+    /**
+     * Transforma un payload en bytes (JSON en UTF-8, Smile o CBOR) a un objeto {@link KafkaEvent}.
+     * <p>
+     * A diferencia de {@link #kafkaEventStringToObjectTransform(String)}, no decodifica el payload
+     * a {@code String} ni captura los errores de parsing: los propaga para que el llamador
+     * (p. ej. {@link KafkaEventDeserializer}) los convierta en fallos tipados. El formato se detecta
+     * por los bytes iniciales ({@link #codecFor}) y cada codec usa el mismo parser en streaming con
+     * fallback a databind.
+     *
+     * @param eventPayload buffer con el payload recibido desde Kafka
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @return objeto {@link KafkaEvent} deserializado
+     * @throws IOException si el payload no es válido para {@link KafkaEvent}
+     * @see ObjectReader#readValue(byte[], int, int)
+     */
+    public KafkaEvent kafkaEventBytesToObjectTransform (byte[] eventPayload, int offset, int length) throws IOException {
+        return codecFor(null, eventPayload, offset, length).decode(eventPayload, offset, length);
+    }
+
+    /**
+     * Transforma un payload en bytes sobre un {@link KafkaEvent} existente, para el modo sin
+     * asignaciones ({@code KafkaEventPool}).
+     * <p>
+     * Detecta el formato por los bytes iniciales ({@link #codecFor}) y delega en
+     * {@link PayloadCodec#decodeInto}; en JSON los campos se extraen con el parser no bloqueante
+     * reutilizado del hilo ({@link KafkaEventStreamingParser#parseInto}).
+     *
+     * @param eventPayload buffer con el payload recibido desde Kafka
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @param kafkaEvent evento que se reutiliza
+     * @throws IOException si el payload no es válido para {@link KafkaEvent}
+     */
+    public void kafkaEventBytesIntoObjectTransform (byte[] eventPayload, int offset, int length, KafkaEvent kafkaEvent)
+            throws IOException {
+        codecFor(null, eventPayload, offset, length).decodeInto(eventPayload, offset, length, kafkaEvent);
+    }
+
+    /**
+     * Transforma un {@link KafkaEvent} a su payload JSON en bytes (UTF-8).
+     * <p>
+     * Las fechas se escriben como epoch en milisegundos, formato que el parser en streaming
+     * lee sin recurrir al fallback de databind.
+     *
+     * @param kafkaEvent evento a serializar
+     * @return payload JSON del evento
+     * @throws JsonProcessingException si el evento no puede serializarse
+     * @see ObjectWriter#writeValueAsBytes(Object)
+     */
+    public byte[] kafkaEventObjectToBytesTransform (KafkaEvent kafkaEvent) throws JsonProcessingException {
+        return jsonCodec.encode(kafkaEvent);
+    }
 }
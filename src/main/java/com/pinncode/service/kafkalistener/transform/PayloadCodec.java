@@ -0,0 +1,79 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+
+import java.io.IOException;
+
+/**
+ * Formato de los payloads de {@link KafkaEvent} en Kafka (SPI de codecs).
+ * <p>
+ * {@link KafkaTransform} elige el codec de cada registro por la cabecera {@code contentType}
+ * ({@link #contentType()}) o, si no viene o no es conocida, por los primeros bytes del payload
+ * ({@link #matches}); sin coincidencias se usa JSON. Incluye JSON ({@link JsonPayloadCodec}),
+ * Smile ({@link SmilePayloadCodec}) y CBOR ({@link CborPayloadCodec}). Otros formatos se añaden
+ * declarando un bean que implemente esta interfaz, que tiene prioridad sobre los incluidos.
+ * <p>
+ * Las implementaciones deben ser thread-safe: se comparten entre todos los hilos consumidores.
+ */
+public interface PayloadCodec {
+
+    /**
+     * @return nombre corto del formato ({@code json}, {@code smile}, {@code cbor})
+     */
+    String name();
+
+    /**
+     * @return tipo de contenido (MIME) del formato, comparado sin distinguir mayúsculas ni parámetros
+     *         con la cabecera {@code contentType} del registro
+     */
+    String contentType();
+
+    /**
+     * Indica si el payload empieza con la firma del formato (byte mágico o cabecera).
+     *
+     * @param data buffer con el payload
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload, mayor que cero
+     * @return {@code true} si el payload parece de este formato
+     */
+    boolean matches(byte[] data, int offset, int length);
+
+    /**
+     * Decodifica un payload a un {@link KafkaEvent} nuevo.
+     *
+     * @param data buffer con el payload
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @return evento decodificado
+     * @throws IOException si el payload no es válido para {@link KafkaEvent} en este formato
+     */
+    KafkaEvent decode(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Decodifica un payload sobre un {@link KafkaEvent} existente (modo sin asignaciones,
+     * {@code KafkaEventPool}). Por defecto decodifica un evento nuevo y copia sus campos.
+     *
+     * @param data buffer con el payload
+     * @param offset posición inicial del payload dentro del buffer
+     * @param length número de bytes del payload
+     * @param kafkaEvent evento que se reutiliza; todos sus campos se sobrescriben
+     * @throws IOException si el payload no es válido para {@link KafkaEvent} en este formato
+     */
+    default void decodeInto(byte[] data, int offset, int length, KafkaEvent kafkaEvent) throws IOException {
+
+        KafkaEvent decoded = decode(data, offset, length);
+
+        kafkaEvent.setReference(decoded.getReference());
+        kafkaEvent.setStatus(decoded.getStatus());
+        kafkaEvent.setCreatedEpochMillis(decoded.getCreatedEpochMillis());
+    }
+
+    /**
+     * Codifica un {@link KafkaEvent} en este formato.
+     *
+     * @param kafkaEvent evento a codificar
+     * @return payload codificado
+     * @throws IOException si el evento no puede codificarse
+     */
+    byte[] encode(KafkaEvent kafkaEvent) throws IOException;
+}
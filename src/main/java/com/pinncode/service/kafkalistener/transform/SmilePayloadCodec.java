@@ -0,0 +1,36 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+/**
+ * Codec Smile, el formato binario de Jackson equivalente a JSON.
+ * <p>
+ * Se reconoce por la cabecera de documento {@code :)\n} que los generadores de Jackson escriben por
+ * defecto; un payload Smile sin cabecera de documento se acepta, pero solo se detecta con la cabecera
+ * {@code contentType}. El parser no bloqueante de Smile no admite documentos consecutivos con
+ * cabecera, por lo que se crea un parser por registro también en el modo sin asignaciones.
+ */
+public final class SmilePayloadCodec extends JacksonPayloadCodec {
+
+    public SmilePayloadCodec() {
+        super(SmileFactory.builder().disable(SmileParser.Feature.REQUIRE_HEADER).build(), false);
+    }
+
+    @Override
+    public String name() {
+        return "smile";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/x-jackson-smile";
+    }
+
+    @Override
+    public boolean matches(byte[] data, int offset, int length) {
+        return length >= 3 && data[offset] == SmileConstants.HEADER_BYTE_1
+                && data[offset + 1] == SmileConstants.HEADER_BYTE_2 && data[offset + 2] == SmileConstants.HEADER_BYTE_3;
+    }
+}
@@ -0,0 +1,314 @@
+package com.pinncode.service.kafkalistener.validation;
+
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.groups.Default;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Validador compilado al arranque a partir de las restricciones de Bean Validation de una clase.
+ * <p>
+ * Lee una única vez los metadatos del {@link Validator} ({@link Validator#getConstraintsForClass(Class)})
+ * y convierte cada restricción soportada en una comprobación directa sobre el valor de la propiedad,
+ * leído con un accessor generado mediante {@link LambdaMetafactory} (sin reflexión por objeto). En el
+ * camino correcto no recorre metadatos, no construye violaciones y no asigna memoria.
+ * <p>
+ * Restricciones compiladas (solo con el grupo {@link Default} y sin restricciones compuestas):
+ * <ul>
+ *   <li>{@link NotNull} y {@link Null}</li>
+ *   <li>{@link NotBlank} sobre {@link CharSequence}</li>
+ *   <li>{@link NotEmpty} y {@link Size} sobre {@link CharSequence}, {@link Collection} y {@link Map}</li>
+ * </ul>
+ * El resto se delega en Bean Validation:
+ * <ul>
+ *   <li>Las propiedades con alguna restricción no soportada, en cascada ({@code @Valid}) o con
+ *       restricciones sobre elementos de contenedores se validan con
+ *       {@link Validator#validateProperty(Object, String, Class[])}.</li>
+ *   <li>Si la clase tiene restricciones a nivel de clase, se valida siempre el objeto completo.</li>
+ * </ul>
+ * Cuando una comprobación falla se ejecuta {@link Validator#validate(Object, Class[])} para obtener
+ * las violaciones con sus mensajes interpolados, de modo que el resultado de un objeto inválido es
+ * idéntico al de Bean Validation. Es thread-safe.
+ *
+ * @param <T> tipo validado
+ */
+@Slf4j
+public final class CompiledValidator<T> {
+
+    /** Validador de Bean Validation para restricciones no compiladas y para construir violaciones */
+    private final Validator validator;
+
+    /** Comprobaciones compiladas, en el orden de las propiedades */
+    private final PropertyCheck<T>[] checks;
+
+    /** Propiedades validadas con Bean Validation */
+    private final String[] fallbackProperties;
+
+    /** La clase tiene restricciones a nivel de clase: se valida siempre con Bean Validation */
+    private final boolean beanFallback;
+
+    private CompiledValidator(Validator validator, PropertyCheck<T>[] checks, String[] fallbackProperties,
+            boolean beanFallback) {
+        this.validator = validator;
+        this.checks = checks;
+        this.fallbackProperties = fallbackProperties;
+        this.beanFallback = beanFallback;
+    }
+
+    /**
+     * Compila las restricciones de una clase.
+     *
+     * @param validator validador de Bean Validation de la aplicación
+     * @param type clase a validar
+     * @param <T> tipo validado
+     * @return validador compilado
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompiledValidator<T> compile(Validator validator, Class<T> type) {
+
+        BeanDescriptor beanDescriptor = validator.getConstraintsForClass(type);
+
+        List<PropertyCheck<T>> checks = new ArrayList<>();
+        List<String> fallbackProperties = new ArrayList<>();
+        boolean beanFallback = !beanDescriptor.getConstraintDescriptors().isEmpty();
+
+        for (PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+
+            List<PropertyCheck<T>> propertyChecks = compileProperty(type, property);
+
+            if (propertyChecks == null) {
+                fallbackProperties.add(property.getPropertyName());
+            } else {
+                checks.addAll(propertyChecks);
+            }
+        }
+
+        log.info("Validador compilado para {}: {} restricciones compiladas, propiedades con Bean Validation: {}{}",
+                type.getSimpleName(), checks.size(), fallbackProperties,
+                beanFallback ? " (restricciones de clase: validación completa)" : "");
+
+        return new CompiledValidator<>(validator, checks.toArray(PropertyCheck[]::new),
+                fallbackProperties.toArray(String[]::new), beanFallback);
+    }
+
+    /**
+     * Valida un objeto.
+     *
+     * @param object objeto a validar, no nulo
+     * @return {@link ValidationResult#valid()} o un resultado con las violaciones de Bean Validation
+     */
+    public ValidationResult<T> validate(T object) {
+
+        if (beanFallback) {
+            return ValidationResult.of(validator.validate(object));
+        }
+
+        for (PropertyCheck<T> check : checks) {
+            if (!check.test(object)) {
+                return ValidationResult.of(validator.validate(object));
+            }
+        }
+
+        for (String property : fallbackProperties) {
+            if (!validator.validateProperty(object, property).isEmpty()) {
+                return ValidationResult.of(validator.validate(object));
+            }
+        }
+
+        return ValidationResult.valid();
+    }
+
+    /**
+     * Compila las restricciones de una propiedad.
+     *
+     * @return comprobaciones de la propiedad, o {@code null} si debe validarse con Bean Validation
+     */
+    private static <T> List<PropertyCheck<T>> compileProperty(Class<T> type, PropertyDescriptor property) {
+
+        if (property.isCascaded() || !property.getConstrainedContainerElementTypes().isEmpty()) {
+            return null;
+        }
+
+        Function<T, Object> accessor = accessor(type, property.getPropertyName());
+
+        if (accessor == null) {
+            return null;
+        }
+
+        List<PropertyCheck<T>> checks = new ArrayList<>();
+
+        for (ConstraintDescriptor<?> constraint : property.getConstraintDescriptors()) {
+
+            Predicate<Object> predicate = compileConstraint(constraint, property.getElementClass());
+
+            if (predicate == null) {
+                return null;
+            }
+
+            checks.add(new PropertyCheck<>(accessor, predicate));
+        }
+
+        return checks;
+    }
+
+    /**
+     * Traduce una restricción a una comprobación directa.
+     *
+     * @return comprobación equivalente, o {@code null} si la restricción no está soportada
+     */
+    private static Predicate<Object> compileConstraint(ConstraintDescriptor<?> constraint, Class<?> valueType) {
+
+        if (!constraint.getGroups().equals(Set.of(Default.class)) || !constraint.getComposingConstraints().isEmpty()) {
+            return null;
+        }
+
+        Annotation annotation = constraint.getAnnotation();
+
+        if (annotation instanceof NotNull) {
+            return Objects::nonNull;
+        }
+
+        if (annotation instanceof Null) {
+            return Objects::isNull;
+        }
+
+        if (annotation instanceof NotBlank && CharSequence.class.isAssignableFrom(valueType)) {
+            return value -> value != null && !isBlank((CharSequence) value);
+        }
+
+        if (annotation instanceof NotEmpty) {
+            return sizeCheck(valueType, 1, Integer.MAX_VALUE, false);
+        }
+
+        if (annotation instanceof Size size) {
+            return sizeCheck(valueType, size.min(), size.max(), true);
+        }
+
+        return null;
+    }
+
+    /**
+     * Comprobación de tamaño para {@link CharSequence}, {@link Collection} y {@link Map}.
+     *
+     * @param nullValid si un valor nulo es válido ({@link Size}) o no ({@link NotEmpty})
+     */
+    private static Predicate<Object> sizeCheck(Class<?> valueType, int min, int max, boolean nullValid) {
+
+        if (CharSequence.class.isAssignableFrom(valueType)) {
+            return value -> value == null ? nullValid : inRange(((CharSequence) value).length(), min, max);
+        }
+
+        if (Collection.class.isAssignableFrom(valueType)) {
+            return value -> value == null ? nullValid : inRange(((Collection<?>) value).size(), min, max);
+        }
+
+        if (Map.class.isAssignableFrom(valueType)) {
+            return value -> value == null ? nullValid : inRange(((Map<?, ?>) value).size(), min, max);
+        }
+
+        return null;
+    }
+
+    private static boolean inRange(int length, int min, int max) {
+        return length >= min && length <= max;
+    }
+
+    /**
+     * Mismo criterio que {@code NotBlankValidator}: en blanco si tras {@code trim()} queda vacío.
+     */
+    private static boolean isBlank(CharSequence value) {
+
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Genera un accessor para el getter público de una propiedad ({@code getX()} o {@code isX()}).
+     * La reflexión solo se usa aquí, al compilar; el accessor invoca el getter directamente.
+     *
+     * @return accessor de la propiedad, o {@code null} si no tiene getter público
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> accessor(Class<T> type, String propertyName) {
+
+        Method getter = getter(type, propertyName);
+
+        if (getter == null) {
+            return null;
+        }
+
+        try {
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(getter);
+
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                    handle, handle.type().wrap());
+
+            return (Function<T, Object>) callSite.getTarget().invoke();
+
+        } catch (Throwable e) {
+
+            log.warn("No se pudo generar el accessor de {}.{}, se valida con Bean Validation: {}",
+                    type.getSimpleName(), propertyName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method getter(Class<?> type, String propertyName) {
+
+        String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+
+        for (String name : new String[] {"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // Se prueba el siguiente prefijo
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Comprobación compilada de una restricción sobre una propiedad.
+     */
+    private record PropertyCheck<T>(Function<T, Object> accessor, Predicate<Object> constraint) {
+
+        boolean test(T object) {
+            return constraint.test(accessor.apply(object));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.pinncode.service.kafkalistener.validation;
+
+import jakarta.validation.ConstraintViolation;
+
+import java.util.Set;
+
+/**
+ * Resultado de la validación de un objeto con {@link CompiledValidator}.
+ * <p>
+ * Un objeto válido devuelve siempre la instancia compartida {@link #VALID}, de modo que el camino
+ * correcto no asigna memoria. Solo los resultados inválidos llevan las violaciones, obtenidas de
+ * Bean Validation con los mismos mensajes que una validación completa.
+ *
+ * @param <T> tipo del objeto validado
+ */
+public final class ValidationResult<T> {
+
+    /** Resultado compartido para cualquier objeto válido */
+    private static final ValidationResult<?> VALID = new ValidationResult<>(Set.of());
+
+    /** Violaciones encontradas; vacío si el objeto es válido */
+    private final Set<ConstraintViolation<T>> violations;
+
+    private ValidationResult(Set<ConstraintViolation<T>> violations) {
+        this.violations = violations;
+    }
+
+    /**
+     * Resultado de un objeto válido.
+     *
+     * @param <T> tipo del objeto validado
+     * @return instancia compartida sin violaciones
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValidationResult<T> valid() {
+        return (ValidationResult<T>) VALID;
+    }
+
+    /**
+     * Resultado a partir de las violaciones de Bean Validation.
+     *
+     * @param violations violaciones encontradas
+     * @param <T> tipo del objeto validado
+     * @return {@link #valid()} si no hay violaciones, o un resultado inválido con ellas
+     */
+    public static <T> ValidationResult<T> of(Set<ConstraintViolation<T>> violations) {
+        return violations.isEmpty() ? valid() : new ValidationResult<>(violations);
+    }
+
+    /**
+     * Indica si el objeto cumple todas las restricciones.
+     *
+     * @return {@code true} si no hay violaciones
+     */
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+
+    /**
+     * Violaciones encontradas.
+     *
+     * @return conjunto de violaciones, vacío si el objeto es válido
+     */
+    public Set<ConstraintViolation<T>> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,221 @@
+package com.pinncode.service.kafkalistener.processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * {@link OffsetCommitCoalescer} con acknowledges que registran su liberación y un {@link Consumer} simulado.
+ * <p>
+ * En cada liberación (por número, por tiempo, por revocación o por el fallo de un registro) solo debe
+ * confirmarse el último acknowledge retenido de cada partición afectada; en la revocación, con
+ * {@code commitSync} del offset siguiente. Sin retención, los acknowledges se devuelven sin envolver.
+ */
+class OffsetCommitCoalescerTest {
+
+    private static final String TOPIC = "events";
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    private static final TopicPartition PARTITION_2 = new TopicPartition(TOPIC, 2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Acknowledges liberados al contenedor, como {@code partición@offset} */
+    private final List<String> acknowledged = new ArrayList<>();
+
+    @Test
+    void countFlushReleasesLastAckPerPartition() {
+
+        OffsetCommitCoalescer coalescer = coalescer(OffsetCommitCoalescer.CommitMode.COALESCED, false, 5, 60_000);
+
+        acknowledge(coalescer, 0, 0);
+        acknowledge(coalescer, 0, 1);
+        acknowledge(coalescer, 1, 0);
+        acknowledge(coalescer, 0, 2);
+
+        assertEquals(List.of(), acknowledged, "antes del umbral");
+
+        acknowledge(coalescer, 1, 1);
+
+        assertEquals(List.of("events-0@2", "events-1@1"), acknowledged.stream().sorted().toList());
+        assertEquals(1.0, flushes("count"));
+
+        acknowledge(coalescer, 2, 0);
+
+        assertEquals(2, acknowledged.size(), "el contador se reinicia tras liberar");
+    }
+
+    @Test
+    void timeFlushReleasesIdleAndIncomingAcks() throws InterruptedException {
+
+        OffsetCommitCoalescer coalescer = coalescer(OffsetCommitCoalescer.CommitMode.COALESCED, false, 1000, 50);
+
+        coalescer.flushIdle();
+        assertEquals(0.0, flushes("time"), "sin acknowledges retenidos no se libera");
+
+        ReflectionTestUtils.setField(coalescer, "lastFlush", System.nanoTime());
+        acknowledge(coalescer, 0, 0);
+        acknowledge(coalescer, 0, 1);
+        coalescer.flushIdle();
+
+        assertEquals(List.of(), acknowledged, "antes del intervalo");
+
+        Thread.sleep(60);
+        coalescer.flushIdle();
+
+        assertEquals(List.of("events-0@1"), acknowledged);
+
+        Thread.sleep(60);
+        acknowledge(coalescer, 1, 4);
+
+        assertEquals(List.of("events-0@1", "events-1@4"), acknowledged, "al recibir un acknowledge pasado el intervalo");
+        assertEquals(2.0, flushes("time"));
+    }
+
+    @Test
+    void failureFlushReleasesOnlyRecordPartition() {
+
+        OffsetCommitCoalescer coalescer = coalescer(OffsetCommitCoalescer.CommitMode.COALESCED, false, 4, 60_000);
+
+        acknowledge(coalescer, 0, 0);
+        acknowledge(coalescer, 0, 1);
+        acknowledge(coalescer, 1, 0);
+
+        coalescer.flush(consumerRecord(0, 2));
+
+        assertEquals(List.of("events-0@1"), acknowledged);
+
+        coalescer.flush(consumerRecord(0, 3));
+        coalescer.flush(consumerRecord(2, 0));
+
+        assertEquals(List.of("events-0@1"), acknowledged, "sin acknowledges retenidos en la partición");
+
+        acknowledge(coalescer, 2, 5);
+
+        assertEquals(List.of("events-0@1", "events-1@0", "events-2@5"), acknowledged.stream().sorted().toList());
+    }
+
+    @Test
+    void revocationCommitsNextOffsetOfRevokedPartitions() {
+
+        OffsetCommitCoalescer coalescer = coalescer(OffsetCommitCoalescer.CommitMode.COALESCED, false, 100, 60_000);
+        Consumer<?, ?> consumer = mock(Consumer.class);
+
+        acknowledge(coalescer, 0, 2);
+        acknowledge(coalescer, 0, 3);
+        acknowledge(coalescer, 1, 7);
+
+        coalescer.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION_0, PARTITION_2));
+
+        verify(consumer).commitSync(Map.of(PARTITION_0, new OffsetAndMetadata(4)));
+        assertEquals(List.of("events-0@3"), acknowledged);
+        assertEquals(1.0, flushes("revocation"));
+
+        coalescer.flush(consumerRecord(1, 8));
+
+        assertEquals(List.of("events-0@3", "events-1@7"), acknowledged, "la partición no revocada sigue retenida");
+    }
+
+    @Test
+    void revocationWithoutPendingAcksOrFailedCommit() {
+
+        OffsetCommitCoalescer coalescer = coalescer(OffsetCommitCoalescer.CommitMode.COALESCED, false, 100, 60_000);
+        Consumer<?, ?> consumer = mock(Consumer.class);
+
+        coalescer.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION_0));
+
+        verify(consumer, never()).commitSync(anyMap());
+
+        acknowledge(coalescer, 1, 7);
+        doThrow(new KafkaException("rebalance en curso")).when(consumer).commitSync(anyMap());
+
+        coalescer.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION_1));
+
+        assertEquals(List.of("events-1@7"), acknowledged);
+        assertEquals(0.0, flushes("revocation"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "COALESCED, true",
+        "IMMEDIATE, false",
+        "IMMEDIATE, true"
+    })
+    void withoutDeferringReturnsOriginalAck(OffsetCommitCoalescer.CommitMode mode, boolean parallel) {
+
+        OffsetCommitCoalescer coalescer = coalescer(mode, parallel, 1, 0);
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        ConsumerRecord<String, String> consumerRecord = consumerRecord(0, 0);
+        Acknowledgment acknowledgment = recordingAck(consumerRecord);
+
+        assertSame(acknowledgment, coalescer.defer(consumerRecord, acknowledgment));
+
+        coalescer.flush(consumerRecord);
+        coalescer.flushIdle();
+        coalescer.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION_0));
+
+        assertEquals(List.of(), acknowledged);
+        verifyNoInteractions(consumer);
+        assertEquals(mode == OffsetCommitCoalescer.CommitMode.COALESCED, coalescer.isEnabled());
+    }
+
+    private OffsetCommitCoalescer coalescer(OffsetCommitCoalescer.CommitMode mode, boolean parallel, int flushCount,
+            long flushInterval) {
+
+        OffsetCommitCoalescer coalescer = new OffsetCommitCoalescer();
+        ReflectionTestUtils.setField(coalescer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "mode", mode);
+        ReflectionTestUtils.setField(coalescer, "flushCount", flushCount);
+        ReflectionTestUtils.setField(coalescer, "flushInterval", flushInterval);
+        ReflectionTestUtils.setField(coalescer, "parallelProcessingEnabled", parallel);
+        ReflectionTestUtils.invokeMethod(coalescer, "init");
+
+        return coalescer;
+    }
+
+    /**
+     * Procesa un registro como el listener: envuelve su acknowledge y lo invoca.
+     */
+    private void acknowledge(OffsetCommitCoalescer coalescer, int partition, long offset) {
+
+        ConsumerRecord<String, String> consumerRecord = consumerRecord(partition, offset);
+
+        coalescer.defer(consumerRecord, recordingAck(consumerRecord)).acknowledge();
+    }
+
+    private Acknowledgment recordingAck(ConsumerRecord<?, ?> consumerRecord) {
+        return () -> acknowledged.add(consumerRecord.topic() + "-" + consumerRecord.partition() + "@" + consumerRecord.offset());
+    }
+
+    private static ConsumerRecord<String, String> consumerRecord(int partition, long offset) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, "key", "value");
+    }
+
+    private double flushes(String trigger) {
+        return meterRegistry.counter("kafka.listener.commit.flushes", "trigger", trigger).count();
+    }
+}
@@ -0,0 +1,293 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import com.pinncode.service.kafkalistener.KafkaMdpApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arnés de rendimiento extremo a extremo sobre un broker Kafka embebido.
+ * <p>
+ * Arranca {@link KafkaMdpApplication} completa contra un {@link EmbeddedKafka} en el mismo proceso,
+ * publica un volumen configurable de eventos {@code KafkaEvent} sintéticos y mide:
+ * <ul>
+ *   <li>Registros/s hasta el último acknowledge y hasta que los offsets confirmados del grupo alcanzan
+ *       el final de cada partición (incluye el coste de los commits).</li>
+ *   <li>Percentiles p50, p99 y p999 de la latencia produce-ack de cada registro ({@link AckLatencyProbe}).</li>
+ * </ul>
+ * Cada subclase fija una configuración del contenedor y se ejecuta con su propio contexto y su propio
+ * broker. Antes de medir se envía un calentamiento que además espera a la asignación de particiones.
+ * Con una tasa de envío ({@code throughput.rate}) la latencia se mide desde el instante programado de
+ * cada envío, de modo que un productor retrasado no oculta la espera; sin tasa, los registros se
+ * envían lo más rápido posible y la latencia incluye la cola acumulada en el tópico.
+ * <p>
+ * El resultado se registra en el log y se añade a {@code target/throughput/results.csv} para comparar
+ * ejecuciones. Solo se ejecuta con el perfil {@code throughput}:
+ * {@code mvn -Pthroughput test [-Dthroughput.records=...]}.
+ * <p>
+ * Propiedades del arnés (como {@code -D}):
+ * <ul>
+ *   <li>{@code throughput.records} - registros medidos (por defecto 50000)</li>
+ *   <li>{@code throughput.warmup} - registros de calentamiento (por defecto 5000)</li>
+ *   <li>{@code throughput.rate} - tasa de envío en registros/s, 0 = sin límite (por defecto 0)</li>
+ *   <li>{@code throughput.payload-bytes} - tamaño mínimo del payload; se rellena con un campo no
+ *       mapeado (por defecto 0, ~100 B)</li>
+ *   <li>{@code throughput.keys} - claves distintas de los registros (por defecto 1024)</li>
+ *   <li>{@code throughput.max-poll-records} - {@code kafka.consumer.max-poll-records} (por defecto 500)</li>
+ *   <li>{@code throughput.timeout} - espera máxima en segundos de cada fase (por defecto 300)</li>
+ * </ul>
+ * El resto de propiedades {@code kafka.*} que el arnés no fija (por ejemplo
+ * {@code kafka.consumer.concurrency}) también se pueden sobrescribir con {@code -D}.
+ */
+@Slf4j
+@SpringBootTest(classes = {KafkaMdpApplication.class, AckLatencyProbe.class}, properties = {
+        "kafka.server=${spring.embedded.kafka.brokers}",
+        "kafka.consumer.topic=" + AbstractThroughputIT.TOPIC,
+        "kafka.consumer.group-id=throughput-harness",
+        "kafka.consumer.auto-offset-reset=earliest",
+        "kafka.consumer.enable-auto-commit=false",
+        "kafka.consumer.max-poll-records=${throughput.max-poll-records:500}",
+        "kafka.consumer.session-timeout-ms=30000",
+        "kafka.consumer.heartbeat-interval-ms=3000",
+        "kafka.consumer.poll-timeout=1000",
+        // Los backoff de reconexión usan estos intervalos; con los de producción el primer join tarda un minuto
+        "kafka.connection.retry.initial-interval=100",
+        "kafka.connection.retry.max-interval=1000",
+        "kafka.logging.mode=STRUCTURED",
+        "kafka.logging.sample-rate=1000000",
+        "server.port=0"
+})
+@EmbeddedKafka(partitions = AbstractThroughputIT.PARTITIONS, topics = AbstractThroughputIT.TOPIC, brokerProperties = {
+        // Broker único: __consumer_offsets con una partición y sin retraso en el primer rebalanceo
+        "offsets.topic.num.partitions=1",
+        "group.initial.rebalance.delay.ms=0"
+})
+@DirtiesContext
+abstract class AbstractThroughputIT {
+
+    /** Tópico consumido por la aplicación */
+    static final String TOPIC = "throughput-events";
+
+    /** Particiones del tópico */
+    static final int PARTITIONS = 4;
+
+    /** Fichero donde se acumulan los resultados de cada ejecución */
+    private static final Path RESULTS_FILE = Path.of("target", "throughput", "results.csv");
+
+    /** Estatus con los que se generan los eventos, en rotación */
+    private static final String[] STATUSES = {"Created", "In Progress", "Completed", "Cancelled"};
+
+    /** Configuración del contenedor medida, para el informe */
+    private final String configuration;
+
+    /** Broker embebido */
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    /** Cliente de administración de la aplicación; consulta los offsets confirmados */
+    @Autowired
+    private AdminClient adminClient;
+
+    /** Métricas del pipeline con la medición de latencia */
+    @Autowired
+    private AckLatencyProbe probe;
+
+    /** Grupo de consumo de la aplicación */
+    @Value("${kafka.consumer.group-id}")
+    private String groupId;
+
+    /** Registros medidos */
+    @Value("${throughput.records:50000}")
+    private int records;
+
+    /** Registros de calentamiento */
+    @Value("${throughput.warmup:5000}")
+    private int warmup;
+
+    /** Tasa de envío en registros/s (0 = sin límite) */
+    @Value("${throughput.rate:0}")
+    private int rate;
+
+    /** Tamaño mínimo del payload en bytes */
+    @Value("${throughput.payload-bytes:0}")
+    private int payloadBytes;
+
+    /** Claves distintas de los registros */
+    @Value("${throughput.keys:1024}")
+    private int keys;
+
+    /** Espera máxima (s) de cada fase */
+    @Value("${throughput.timeout:300}")
+    private long timeout;
+
+    /**
+     * @param configuration nombre de la configuración del contenedor para el informe
+     */
+    protected AbstractThroughputIT(String configuration) {
+        this.configuration = configuration;
+    }
+
+    @Test
+    void measureThroughput() throws Exception {
+
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProperties())) {
+
+            String createdDateTime = Instant.now().toString();
+
+            probe.reset(warmup);
+            send(producer, warmup, "W", createdDateTime, 0);
+            awaitAcknowledged(warmup);
+
+            probe.reset(records);
+            long start = System.nanoTime();
+            send(producer, records, "R", createdDateTime, rate);
+            awaitAcknowledged(records);
+            long ackNanos = probe.lastAcknowledged() - start;
+
+            awaitCommitted();
+            long commitNanos = System.nanoTime() - start;
+
+            ThroughputResult result = new ThroughputResult(configuration, records, rate,
+                    payload("R", 0, createdDateTime).length, ackNanos, commitNanos, probe.sortedLatencies());
+
+            log.info("Rendimiento {}", result.summary());
+            result.appendTo(RESULTS_FILE);
+
+            assertEquals(records, result.latencies().length, "Registros medidos");
+        }
+    }
+
+    private Map<String, Object> producerProperties() {
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+
+        return props;
+    }
+
+    /**
+     * Envía {@code count} eventos con la cabecera de envío, a la tasa indicada (0 = sin límite).
+     */
+    private void send(KafkaProducer<String, byte[]> producer, int count, String prefix, String createdDateTime,
+            int sendRate) {
+
+        long start = System.nanoTime();
+        long interval = sendRate > 0 ? TimeUnit.SECONDS.toNanos(1) / sendRate : 0;
+
+        for (int i = 0; i < count; i++) {
+
+            long sent = System.nanoTime();
+
+            if (interval > 0) {
+
+                long scheduled = start + i * interval;
+
+                while ((sent = System.nanoTime()) < scheduled) {
+                    LockSupport.parkNanos(scheduled - sent);
+                }
+
+                sent = scheduled;
+            }
+
+            ProducerRecord<String, byte[]> producerRecord =
+                    new ProducerRecord<>(TOPIC, "K" + (i % keys), payload(prefix, i, createdDateTime));
+            producerRecord.headers().add(AckLatencyProbe.SENT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(sent).array());
+
+            producer.send(producerRecord);
+        }
+
+        producer.flush();
+    }
+
+    /**
+     * Payload JSON de un evento sintético, rellenado hasta {@code throughput.payload-bytes}.
+     */
+    private byte[] payload(String prefix, int index, String createdDateTime) {
+
+        StringBuilder json = new StringBuilder(Math.max(128, payloadBytes + 16))
+                .append("{\"reference\":\"").append(prefix).append(String.format("%012d", index))
+                .append("\",\"status\":\"").append(STATUSES[index % STATUSES.length])
+                .append("\",\"created_datetime\":\"").append(createdDateTime).append('"');
+
+        int padding = payloadBytes - json.length() - "\"attributes\":\"\"}".length() - 1;
+
+        if (padding > 0) {
+            json.append(",\"attributes\":\"").append("x".repeat(padding)).append('"');
+        }
+
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void awaitAcknowledged(int count) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+        while (probe.acknowledged() < count) {
+
+            assertTrue(System.nanoTime() < deadline,
+                    "Registros confirmados " + probe.acknowledged() + " de " + count + " tras " + timeout + "s");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Espera a que los offsets confirmados del grupo alcancen el offset final de cada partición.
+     */
+    private void awaitCommitted() throws Exception {
+
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            latest.put(new TopicPartition(TOPIC, partition), OffsetSpec.latest());
+        }
+
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        adminClient.listOffsets(latest).all().get().forEach((partition, info) -> endOffsets.put(partition, info.offset()));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+        while (true) {
+
+            Map<TopicPartition, OffsetAndMetadata> committed =
+                    adminClient.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get();
+
+            if (endOffsets.entrySet().stream().allMatch(end -> committed.get(end.getKey()) != null
+                    && committed.get(end.getKey()).offset() >= end.getValue())) {
+                return;
+            }
+
+            assertTrue(System.nanoTime() < deadline, "Offsets confirmados " + committed + ", finales " + endOffsets);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link KafkaPipelineMetrics} que además mide la latencia produce-ack de los registros del arnés.
+ * <p>
+ * Todos los caminos de consumo (listener por registro, procesamiento paralelo y listener por lotes)
+ * reportan el resultado de cada registro con {@link #recordOutcome}: en el listener por registro y en
+ * los workers justo después del acknowledge, y en el listener por lotes justo antes del acknowledge del
+ * lote. La latencia es el tiempo transcurrido desde el instante de envío que el productor escribe en la
+ * cabecera {@value #SENT_HEADER} ({@link System#nanoTime()}, mismo proceso). Los registros sin la
+ * cabecera no se miden.
+ */
+@Primary
+public class AckLatencyProbe extends KafkaPipelineMetrics {
+
+    /** Cabecera con el instante de envío del registro ({@link System#nanoTime()}, 8 bytes) */
+    public static final String SENT_HEADER = "throughput-sent-nanos";
+
+    /** Latencias (ns) de los registros medidos desde el último {@link #reset(int)} */
+    private volatile AtomicLongArray latencies = new AtomicLongArray(0);
+
+    /** Registros medidos desde el último {@link #reset(int)} */
+    private final AtomicInteger acknowledged = new AtomicInteger();
+
+    /** Instante ({@link System#nanoTime()}) del último registro medido */
+    private volatile long lastAcknowledged;
+
+    @Override
+    public void recordOutcome(ConsumerRecord<?, ?> consumerRecord, EventOutcome outcome) {
+
+        super.recordOutcome(consumerRecord, outcome);
+
+        Header sent = consumerRecord.headers().lastHeader(SENT_HEADER);
+
+        if (sent == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int index = acknowledged.getAndIncrement();
+        AtomicLongArray current = latencies;
+
+        if (index < current.length()) {
+            current.set(index, now - ByteBuffer.wrap(sent.value()).getLong());
+        }
+
+        lastAcknowledged = now;
+    }
+
+    /**
+     * Descarta las mediciones anteriores.
+     *
+     * @param capacity registros que se van a medir
+     */
+    public void reset(int capacity) {
+        latencies = new AtomicLongArray(capacity);
+        acknowledged.set(0);
+    }
+
+    /**
+     * Registros medidos desde el último {@link #reset(int)}.
+     *
+     * @return número de registros reportados con la cabecera de envío
+     */
+    public int acknowledged() {
+        return acknowledged.get();
+    }
+
+    /**
+     * Instante del último registro medido.
+     *
+     * @return {@link System#nanoTime()} del último reporte
+     */
+    public long lastAcknowledged() {
+        return lastAcknowledged;
+    }
+
+    /**
+     * Latencias medidas, ordenadas de menor a mayor.
+     *
+     * @return latencias en nanosegundos
+     */
+    public long[] sortedLatencies() {
+
+        AtomicLongArray current = latencies;
+        long[] sorted = new long[Math.min(acknowledged.get(), current.length())];
+
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = current.get(i);
+        }
+
+        Arrays.sort(sorted);
+
+        return sorted;
+    }
+}
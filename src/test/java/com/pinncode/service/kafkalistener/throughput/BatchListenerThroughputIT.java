@@ -0,0 +1,14 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Listener por lotes ({@code kafka.consumer.batch.enabled}).
+ */
+@TestPropertySource(properties = "kafka.consumer.batch.enabled=true")
+class BatchListenerThroughputIT extends AbstractThroughputIT {
+
+    BatchListenerThroughputIT() {
+        super("batch");
+    }
+}
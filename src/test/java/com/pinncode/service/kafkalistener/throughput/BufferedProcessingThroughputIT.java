@@ -0,0 +1,14 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Listener por registro con buffer acotado entre el poll y los workers ({@code kafka.processing.buffer.enabled}).
+ */
+@TestPropertySource(properties = "kafka.processing.buffer.enabled=true")
+class BufferedProcessingThroughputIT extends AbstractThroughputIT {
+
+    BufferedProcessingThroughputIT() {
+        super("record-buffered");
+    }
+}
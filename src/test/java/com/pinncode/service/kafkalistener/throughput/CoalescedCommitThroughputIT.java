@@ -0,0 +1,14 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Listener por registro con commits agrupados ({@code kafka.consumer.commit.mode=COALESCED}).
+ */
+@TestPropertySource(properties = "kafka.consumer.commit.mode=COALESCED")
+class CoalescedCommitThroughputIT extends AbstractThroughputIT {
+
+    CoalescedCommitThroughputIT() {
+        super("record-coalesced");
+    }
+}
@@ -0,0 +1,14 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Listener por registro con procesamiento paralelo ordenado por clave ({@code kafka.processing.parallel.enabled}).
+ */
+@TestPropertySource(properties = "kafka.processing.parallel.enabled=true")
+class ParallelProcessingThroughputIT extends AbstractThroughputIT {
+
+    ParallelProcessingThroughputIT() {
+        super("record-parallel");
+    }
+}
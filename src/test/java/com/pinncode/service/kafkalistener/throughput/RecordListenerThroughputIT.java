@@ -0,0 +1,12 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+/**
+ * Listener por registro con la configuración por defecto: procesamiento en el hilo del consumidor y
+ * un {@code commitSync} por registro ({@code AckMode.MANUAL_IMMEDIATE}).
+ */
+class RecordListenerThroughputIT extends AbstractThroughputIT {
+
+    RecordListenerThroughputIT() {
+        super("record-immediate");
+    }
+}
@@ -0,0 +1,98 @@
+package com.pinncode.service.kafkalistener.throughput;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultado de una medición del arnés de rendimiento.
+ *
+ * @param configuration configuración del contenedor medida
+ * @param records registros medidos
+ * @param rate tasa de envío objetivo en registros/s (0 = sin límite)
+ * @param payloadBytes tamaño del payload en bytes
+ * @param ackNanos tiempo desde el primer envío hasta el último acknowledge
+ * @param commitNanos tiempo desde el primer envío hasta que los offsets confirmados alcanzan el final de cada partición
+ * @param latencies latencias produce-ack ordenadas, en nanosegundos
+ */
+public record ThroughputResult(String configuration, int records, int rate, int payloadBytes,
+        long ackNanos, long commitNanos, long[] latencies) {
+
+    /** Cabecera del fichero CSV de resultados */
+    private static final String CSV_HEADER =
+            "timestamp,configuration,records,rate,payload_bytes,records_per_s_ack,records_per_s_commit,p50_ms,p99_ms,p999_ms,max_ms";
+
+    /**
+     * Registros por segundo hasta el último acknowledge.
+     *
+     * @return throughput de procesamiento
+     */
+    public double ackThroughput() {
+        return records * (double) TimeUnit.SECONDS.toNanos(1) / ackNanos;
+    }
+
+    /**
+     * Registros por segundo hasta el commit de todos los offsets.
+     *
+     * @return throughput incluyendo los commits
+     */
+    public double commitThroughput() {
+        return records * (double) TimeUnit.SECONDS.toNanos(1) / commitNanos;
+    }
+
+    /**
+     * Percentil de la latencia produce-ack (método nearest-rank).
+     *
+     * @param quantile cuantil entre 0 y 1
+     * @return latencia en milisegundos
+     */
+    public double latencyMillis(double quantile) {
+
+        if (latencies.length == 0) {
+            return Double.NaN;
+        }
+
+        int index = (int) Math.ceil(quantile * latencies.length) - 1;
+
+        return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+    }
+
+    /**
+     * Resumen legible de la medición.
+     *
+     * @return una línea con throughput y percentiles
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "[%s] %d registros (tasa %s, payload %d B): %.0f registros/s hasta el ack, %.0f registros/s hasta el commit; "
+                        + "latencia produce-ack p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                configuration, records, rate > 0 ? rate + "/s" : "sin límite", payloadBytes, ackThroughput(), commitThroughput(),
+                latencyMillis(0.50), latencyMillis(0.99), latencyMillis(0.999), latencyMillis(1.0));
+    }
+
+    /**
+     * Añade la medición como una línea del fichero CSV, creándolo con su cabecera si no existe.
+     *
+     * @param file fichero de resultados
+     * @throws IOException si no se puede escribir el fichero
+     */
+    public void appendTo(Path file) throws IOException {
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        if (Files.notExists(file)) {
+            Files.writeString(file, CSV_HEADER + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+
+        String line = String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                Instant.now(), configuration, records, rate, payloadBytes, ackThroughput(), commitThroughput(),
+                latencyMillis(0.50), latencyMillis(0.99), latencyMillis(0.999), latencyMillis(1.0));
+
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
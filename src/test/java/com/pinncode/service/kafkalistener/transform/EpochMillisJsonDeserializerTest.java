@@ -0,0 +1,115 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link EpochMillisJsonDeserializer} con las opciones de databind que afectan a los escalares.
+ * <p>
+ * Con {@code UNWRAP_SINGLE_VALUE_ARRAYS} un arreglo de un elemento se lee como su valor y uno vacío,
+ * con {@code ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT}, como {@link EpochMillis#NONE}; sin ellas es un error de
+ * entrada. Los tokens inesperados llegan al {@link DeserializationProblemHandler} como {@code long}.
+ */
+class EpochMillisJsonDeserializerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "[1718446830000] | 2024-06-15T10:20:30Z",
+        "[\"2024-06-15T12:20:30.5+02:00\"] | 2024-06-15T10:20:30.5Z",
+        "[ 0 ] | 1970-01-01T00:00:00Z"
+    })
+    void unwrapsSingleValueArrays(String value, String expected) throws IOException {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class)
+                .with(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS);
+
+        KafkaEvent kafkaEvent = reader.readValue("{\"created_datetime\":" + value + "}");
+
+        assertEquals(OffsetDateTime.parse(expected).toInstant().toEpochMilli(), kafkaEvent.getCreatedEpochMillis(), value);
+    }
+
+    @Test
+    void readsEmptyArrayAsNone() throws IOException {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class)
+                .with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+
+        KafkaEvent kafkaEvent = reader.readValue("{\"created_datetime\":[]}");
+
+        assertEquals(EpochMillis.NONE, kafkaEvent.getCreatedEpochMillis());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1718446830000]", "[]", "true", "1718446830000.5", "{\"epoch\":1}"})
+    void rejectsUnexpectedTokens(String value) {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class);
+
+        assertThrows(MismatchedInputException.class, () -> reader.readValue("{\"created_datetime\":" + value + "}"), value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[]", "[1, 2]", "[[1]]", "[true]"})
+    void rejectsArraysWithoutSingleValue(String value) {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class)
+                .with(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS);
+
+        assertThrows(MismatchedInputException.class, () -> reader.readValue("{\"created_datetime\":" + value + "}"), value);
+    }
+
+    @Test
+    void problemHandlerResolvesUnexpectedTokenAsLong() throws IOException {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class).withHandler(handler(42L));
+
+        KafkaEvent kafkaEvent = reader.readValue("{\"created_datetime\":true}");
+
+        assertEquals(42L, kafkaEvent.getCreatedEpochMillis());
+    }
+
+    @Test
+    void problemHandlerWithIncompatibleValueIsReported() {
+
+        ObjectReader reader = OBJECT_MAPPER.readerFor(KafkaEvent.class).withHandler(handler(new Date(42L)));
+
+        assertThrows(InvalidDefinitionException.class, () -> reader.readValue("{\"created_datetime\":true}"));
+    }
+
+    /**
+     * Manejador que resuelve cualquier token inesperado con {@code value}.
+     */
+    private static DeserializationProblemHandler handler(Object value) {
+
+        return new DeserializationProblemHandler() {
+
+            @Override
+            public Object handleUnexpectedToken(DeserializationContext ctxt, JavaType targetType, JsonToken t,
+                    JsonParser p, String failureMsg) {
+                return value;
+            }
+        };
+    }
+}
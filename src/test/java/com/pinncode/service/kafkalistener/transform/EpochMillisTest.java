@@ -0,0 +1,81 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link EpochMillis#parseIso} frente a los parsers de {@code java.time}.
+ * <p>
+ * Cada fecha soportada debe dar el mismo epoch que {@link OffsetDateTime#parse} y que
+ * {@link Instant#parse} (que en Java 21 admite también desplazamientos de zona), incluidos años
+ * bisiestos, zonas negativas y fracciones de más de tres dígitos, que se truncan. Las zonas sin
+ * {@code :} o sin minutos, que {@code java.time} no acepta, se comparan con su forma canónica.
+ */
+class EpochMillisTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "1970-01-01T00:00:00Z",
+        "2024-02-29T23:59:59.999Z",
+        "2000-02-29T12:00:00+05:30",
+        "1900-03-01T00:00:00Z",
+        "1969-12-31T23:59:59.999Z",
+        "2024-03-01T00:30:00-05:00",
+        "2024-01-01T00:00:00-12:00",
+        "2023-12-31T22:15:00.5-03:45",
+        "2024-06-15T10:20:30.123456789Z",
+        "2024-06-15T10:20:30.1239+01:00",
+        "1965-07-04T08:00:00.987654-07:00",
+        "2024-06-15T10:20:30+01:02:03",
+        "2024-06-15t10:20:30z"
+    })
+    void matchesJavaTime(String text) {
+
+        long expected = OffsetDateTime.parse(text.toUpperCase()).toInstant().toEpochMilli();
+
+        assertEquals(expected, EpochMillis.parseIso(text), text);
+        assertEquals(expected, Instant.parse(text.toUpperCase()).toEpochMilli(), text);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "2024-06-15T10:20:30+0100, 2024-06-15T10:20:30+01:00",
+        "2024-06-15T10:20:30-08, 2024-06-15T10:20:30-08:00",
+        "2024-02-29T10:20-0330, 2024-02-29T10:20:00-03:30"
+    })
+    void matchesEquivalentCanonicalForm(String text, String canonical) {
+        assertEquals(OffsetDateTime.parse(canonical).toInstant().toEpochMilli(), EpochMillis.parseIso(text), text);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2023-02-29T00:00:00Z",
+        "1900-02-29T00:00:00Z",
+        "2024-04-31T00:00:00Z",
+        "2024-06-15T10:20:30",
+        "2024-06-15T23:59:60Z",
+        "2024-06-15T10:20:30.Z",
+        "2024-06-15T10:20:30+19:00",
+        "2024-06-15 10:20:30Z",
+        "+12024-06-15T10:20:30Z"
+    })
+    void unsupportedReturnsNone(String text) {
+        assertEquals(EpochMillis.NONE, EpochMillis.parseIso(text), text);
+    }
+
+    @Test
+    void parsesRangeOfBuffer() {
+
+        char[] buffer = "\"created_datetime\":\"2024-02-29T08:00:00.250-06:00\"".toCharArray();
+
+        assertEquals(OffsetDateTime.parse("2024-02-29T08:00:00.250-06:00").toInstant().toEpochMilli(),
+                EpochMillis.parseIso(buffer, 20, 29));
+    }
+}
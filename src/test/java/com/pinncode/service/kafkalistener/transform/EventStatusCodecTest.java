@@ -0,0 +1,67 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.pinncode.service.kafkalistener.model.EventStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link EventStatusCodec} sobre {@code String} y sobre un rango de un buffer de caracteres.
+ * <p>
+ * Cada texto canónico de {@link EventStatus} debe decodificarse a su constante por ambos caminos. Los
+ * textos que comparten longitud, prefijo o hash con uno conocido, o que solo difieren en mayúsculas,
+ * deben ser {@link EventStatus#UNKNOWN}.
+ */
+class EventStatusCodecTest {
+
+    @ParameterizedTest
+    @EnumSource(value = EventStatus.class, mode = EnumSource.Mode.EXCLUDE, names = "UNKNOWN")
+    void decodesCanonicalText(EventStatus status) {
+
+        String text = status.text();
+
+        assertEquals(status, EventStatusCodec.decode(text), text);
+        assertEquals(status, EventStatusCodec.decode(new String(text.toCharArray())), text);
+        assertEquals(status, decodeRange(text), text);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Create",
+        "created",
+        "CREATED",
+        "Completedx",
+        "Complete",
+        "In progress",
+        "InProgress",
+        " Created",
+        "Cancelled ",
+        "Canceled",
+        "DSeated",
+        ""
+    })
+    void unknownTextIsUnknown(String text) {
+
+        assertEquals(EventStatus.UNKNOWN, EventStatusCodec.decode(text), text);
+        assertEquals(EventStatus.UNKNOWN, decodeRange(text), text);
+    }
+
+    @Test
+    void nullTextIsNull() {
+        assertNull(EventStatusCodec.decode(null));
+    }
+
+    /**
+     * Decodifica el texto desde el centro de un buffer con otros caracteres alrededor, como el del parser.
+     */
+    private static EventStatus decodeRange(String text) {
+
+        char[] buffer = ("\"status\":\"" + text + "\",\"reference\"").toCharArray();
+
+        return EventStatusCodec.decode(buffer, 10, text.length());
+    }
+}
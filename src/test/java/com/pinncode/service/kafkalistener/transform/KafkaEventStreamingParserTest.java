@@ -0,0 +1,166 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * {@link KafkaEventStreamingParser} frente al {@link ObjectReader} de databind configurado como en
+ * {@link JacksonPayloadCodec}.
+ * <p>
+ * Los documentos que el parser resuelve por sí mismo deben dar los mismos campos que
+ * {@link ObjectReader#readValue} en {@code parse} (texto y bytes) y en {@code parseInto} sobre el
+ * parser reutilizado del hilo. El resto (mal formados, truncados o con formas inesperadas) debe pedir
+ * el fallback, y el parser del hilo debe seguir leyendo el siguiente documento tras descartarse.
+ */
+class KafkaEventStreamingParserTest {
+
+    private static final String NEXT_DOCUMENT =
+            "{\"reference\":\"next\",\"status\":\"Completed\",\"created_datetime\":\"2024-06-15T10:20:30Z\"}";
+
+    private final ObjectReader objectReader = new ObjectMapper(new JsonFactory())
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(KafkaEvent.class);
+
+    private final KafkaEventStreamingParser streamingParser = new KafkaEventStreamingParser(new JsonFactory(), true);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"reference\":\"r-1\",\"status\":\"Created\",\"created_datetime\":1718446830000}",
+        "{\"meta\":{\"reference\":\"inner\",\"tags\":[1,{\"status\":\"Cancelled\"}]},\"items\":[[],{}],"
+                + "\"reference\":\"r-2\",\"status\":\"In Progress\",\"created_datetime\":\"2024-02-29T23:59:59.999-05:00\"}",
+        "{\"created_datetime\":\"2024-06-15T10:20:30.123456Z\",\"payload\":[{\"created_datetime\":\"x\"}],\"status\":\"archived\",\"reference\":\"r-3\"}",
+        "{\"reference\":null,\"status\":null,\"created_datetime\":null}",
+        "{\"reference\":42,\"status\":true,\"created_datetime\":-1}",
+        "{\"reference\":1.50,\"status\":7}",
+        "{\"reference\":\"first\",\"reference\":\"second\",\"status\":\"Created\"}",
+        "{}",
+        "  {\"reference\":\"r-4\",\"status\":\"Completed\",\"created_datetime\":0}  \n",
+        "{\"reference\":\"r-5\",\"status\":\"Created\",\"created_datetime\":0} {\"reference\":\"trailing\"}"
+    })
+    void streamsSameFieldsAsObjectReader(String json) throws IOException {
+
+        KafkaEvent expected = objectReader.readValue(json);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        assertSameFields(expected, streamingParser.parse(json), json);
+        assertSameFields(expected, streamingParser.parse(bytes, 0, bytes.length), json);
+
+        KafkaEvent pooled = new KafkaEvent();
+        assertTrue(streamingParser.parseInto(bytes, 0, bytes.length, pooled), json);
+        assertSameFields(expected, pooled, json);
+
+        assertStreamsNextDocument(json);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[{\"reference\":\"r-1\"}]",
+        "\"r-1\"",
+        "{\"reference\":{\"id\":\"r-1\"},\"status\":\"Created\"}",
+        "{\"reference\":\"r-1\",\"status\":[\"Created\"]}",
+        "{\"reference\":\"r-1\",\"created_datetime\":1718446830000.5}",
+        "{\"reference\":\"r-1\",\"created_datetime\":\"1718446830000\"}",
+        "{\"reference\":\"r-1\",\"created_datetime\":\"2024-06-15T10:20:30\"}",
+        "{\"reference\":\"r-1\",\"created_datetime\":false}",
+        "{\"meta\":{\"items\":[1,2",
+        "{\"reference\":\"r-1\",\"status\":\"Crea",
+        "{\"reference\":\"r-1\",\"status\":",
+        "{\"reference\":\"r-1\" \"status\":\"Created\"}",
+        ""
+    })
+    void fallsBackWhereObjectReaderDecides(String json) {
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        assertFallback(() -> streamingParser.parse(json), json);
+        assertFallback(() -> streamingParser.parse(bytes, 0, bytes.length), json);
+        assertFalse(streamingParser.parseInto(bytes, 0, bytes.length, new KafkaEvent()), json);
+
+        assertStreamsNextDocument(json);
+    }
+
+    @Test
+    void parseStopsAfterMappedFields() throws IOException {
+
+        String truncated = "{\"reference\":\"r-1\",\"status\":\"Created\",\"created_datetime\":0,\"payload\":[1,";
+        String trailing = "{\"reference\":\"r-1\",\"status\":\"Created\",\"created_datetime\":0} ]";
+
+        for (String json : new String[] {truncated, trailing}) {
+
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            KafkaEvent kafkaEvent = streamingParser.parse(json);
+
+            assertNotNull(kafkaEvent, json);
+            assertEquals("r-1", kafkaEvent.getReference(), json);
+            assertEquals(0L, kafkaEvent.getCreatedEpochMillis(), json);
+
+            // parseInto lee el documento completo y recurre al fallback, que reproduce el error de Jackson
+            assertFalse(streamingParser.parseInto(bytes, 0, bytes.length, new KafkaEvent()), json);
+            assertStreamsNextDocument(json);
+        }
+    }
+
+    /**
+     * El parser reutilizado del hilo, conservado o descartado tras {@code previous}, lee el siguiente documento.
+     */
+    private void assertStreamsNextDocument(String previous) {
+
+        byte[] bytes = NEXT_DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, buffer, 2, bytes.length);
+
+        KafkaEvent kafkaEvent = new KafkaEvent();
+
+        assertTrue(streamingParser.parseInto(buffer, 2, bytes.length, kafkaEvent), "tras " + previous);
+
+        try {
+            assertSameFields(objectReader.readValue(NEXT_DOCUMENT), kafkaEvent, "tras " + previous);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Un documento que requiere el fallback retorna {@code null} o lanza el error de Jackson.
+     */
+    private static void assertFallback(ParseCall parseCall, String json) {
+
+        try {
+            assertNull(parseCall.parse(), json);
+        } catch (IOException e) {
+            // Mal formado: el fallback de databind reporta el mismo error
+        }
+    }
+
+    private static void assertSameFields(KafkaEvent expected, KafkaEvent actual, String json) {
+
+        assertNotNull(actual, json);
+        assertEquals(expected.getReference(), actual.getReference(), json);
+        assertEquals(expected.getStatus(), actual.getStatus(), json);
+        assertEquals(expected.getStatusCode(), actual.getStatusCode(), json);
+        assertEquals(expected.getCreatedEpochMillis(), actual.getCreatedEpochMillis(), json);
+    }
+
+    @FunctionalInterface
+    private interface ParseCall {
+        KafkaEvent parse() throws IOException;
+    }
+}
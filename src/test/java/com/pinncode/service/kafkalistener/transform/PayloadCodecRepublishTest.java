@@ -0,0 +1,211 @@
+package com.pinncode.service.kafkalistener.transform;
+
+import com.pinncode.service.kafkalistener.KafkaMdpApplication;
+import com.pinncode.service.kafkalistener.metrics.KafkaPipelineMetrics;
+import com.pinncode.service.kafkalistener.model.KafkaEvent;
+import com.pinncode.service.kafkalistener.processing.EventOutcome;
+import com.pinncode.service.kafkalistener.service.IProcessEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Registros Smile republicados en los tópicos de reintento y en el DLT.
+ * <p>
+ * Los eventos republicados se escriben en JSON; la cabecera {@code contentType} del registro original
+ * debe sustituirse para que el consumidor del tópico de reintento y el del DLT elijan el codec JSON.
+ * El registro inválido va al tópico de {@code DeadLetterPublisher}, distinto del DLT de los tópicos de
+ * reintento, y cada resultado se cuenta una sola vez.
+ */
+@SpringBootTest(classes = KafkaMdpApplication.class, properties = {
+        "kafka.server=${spring.embedded.kafka.brokers}",
+        "kafka.consumer.topic=" + PayloadCodecRepublishTest.TOPIC,
+        "kafka.consumer.group-id=codec-republish",
+        "kafka.consumer.auto-offset-reset=earliest",
+        "kafka.consumer.enable-auto-commit=false",
+        "kafka.consumer.max-poll-records=500",
+        "kafka.consumer.session-timeout-ms=30000",
+        "kafka.consumer.heartbeat-interval-ms=3000",
+        "kafka.consumer.poll-timeout=500",
+        "kafka.consumer.retry-topic.enabled=true",
+        "kafka.consumer.retry-topic.attempts=2",
+        "kafka.consumer.retry-topic.initial-interval=100",
+        "kafka.consumer.retry-topic.max-interval=1000",
+        "kafka.consumer.dlt.enabled=true",
+        "kafka.connection.retry.initial-interval=100",
+        "kafka.connection.retry.max-interval=1000",
+        "server.port=0"
+})
+@EmbeddedKafka(partitions = 1, topics = PayloadCodecRepublishTest.TOPIC, brokerProperties = {
+        "offsets.topic.num.partitions=1",
+        "group.initial.rebalance.delay.ms=0"
+})
+@DirtiesContext
+class PayloadCodecRepublishTest {
+
+    static final String TOPIC = "codec-events";
+
+    private static final String DLT = TOPIC + "-dlt";
+
+    private static final String DEAD_LETTER = TOPIC + "-dead-letter";
+
+    /** Referencia con la que la lógica de negocio falla */
+    private static final String FAILING = "FAIL-1";
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private IProcessEventService processEventService;
+
+    @Test
+    void smileRecordsAreReadableAfterRepublishing() throws Exception {
+
+        Queue<String> processed = new ConcurrentLinkedQueue<>();
+
+        doAnswer(invocation -> {
+            String reference = invocation.<KafkaEvent>getArgument(0).getReference();
+            processed.add(reference);
+            if (reference.startsWith("FAIL")) {
+                throw new IllegalStateException("Fallo de negocio de prueba");
+            }
+            return null;
+        }).when(processEventService).processEvent(any());
+
+        SmilePayloadCodec smile = new SmilePayloadCodec();
+
+        // Uno falla en el procesamiento (reintento y DLT del contenedor) y otro es inválido (tópico del pipeline)
+        KafkaEvent failing = new KafkaEvent(FAILING, "Created", null);
+        KafkaEvent invalid = new KafkaEvent(null, "Created", null);
+
+        try (KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProperties())) {
+            for (KafkaEvent kafkaEvent : List.of(failing, invalid)) {
+                ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(TOPIC, "K", smile.encode(kafkaEvent));
+                producerRecord.headers().add(KafkaTransform.CONTENT_TYPE_HEADER, smile.contentType().getBytes(StandardCharsets.US_ASCII));
+                producer.send(producerRecord);
+            }
+        }
+
+        List<ConsumerRecord<String, byte[]>> deadLetters = readDeadLetters(2);
+        KafkaTransform kafkaTransform = new KafkaTransform();
+
+        for (ConsumerRecord<String, byte[]> deadLetter : deadLetters) {
+
+            Header contentType = deadLetter.headers().lastHeader(KafkaTransform.CONTENT_TYPE_HEADER);
+
+            assertNotNull(contentType, "Cabecera contentType del DLT");
+            assertEquals(JsonPayloadCodec.CONTENT_TYPE, new String(contentType.value(), StandardCharsets.US_ASCII));
+            assertEquals("json", kafkaTransform.codecFor(deadLetter.headers(), deadLetter.value(), 0, deadLetter.value().length).name());
+        }
+
+        assertTrue(deadLetters.stream().anyMatch(deadLetter -> DLT.equals(deadLetter.topic())
+                && FAILING.equals(decode(kafkaTransform, deadLetter).getReference())), "El evento fallido llega al DLT");
+        assertTrue(deadLetters.stream().anyMatch(deadLetter -> DEAD_LETTER.equals(deadLetter.topic())
+                && decode(kafkaTransform, deadLetter).getReference() == null), "El evento inválido llega al tópico del pipeline");
+
+        // El original y el reintento llegan a la lógica de negocio: el tópico de reintento se pudo leer
+        awaitCondition(() -> processed.stream().filter(FAILING::equals).count() == 2);
+        awaitCondition(() -> outcomeCount(EventOutcome.ERROR) > 0);
+
+        assertEquals(0, outcomeCount(EventOutcome.PARSE_FAILED), "Registros republicados que no se pudieron leer");
+        assertEquals(1, outcomeCount(EventOutcome.INVALID), "Registros inválidos");
+        assertEquals(1, outcomeCount(EventOutcome.ERROR), "Registros con error: solo el que agotó los reintentos");
+    }
+
+    private double outcomeCount(EventOutcome outcome) {
+        return meterRegistry.find(KafkaPipelineMetrics.OUTCOME_COUNTER).tag("outcome", outcome.name().toLowerCase())
+                .counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static KafkaEvent decode(KafkaTransform kafkaTransform, ConsumerRecord<String, byte[]> deadLetter) {
+
+        try {
+            return kafkaTransform.codecFor(deadLetter.headers(), deadLetter.value(), 0, deadLetter.value().length)
+                    .decode(deadLetter.value(), 0, deadLetter.value().length);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private List<ConsumerRecord<String, byte[]>> readDeadLetters(int count) {
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "codec-republish-reader");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        try (KafkaConsumer<String, byte[]> consumer =
+                new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer())) {
+
+            consumer.subscribe(List.of(DLT, DEAD_LETTER));
+
+            List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+            while (records.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "Registros en el DLT: " + records.size() + " de " + count);
+                consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+            }
+
+            return records;
+        }
+    }
+
+    private Map<String, Object> producerProperties() {
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        return props;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condición no alcanzada");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.pinncode.service.kafkalistener.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Payload;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * {@link CompiledValidator} frente a {@link Validator#validate} de Hibernate Validator.
+ * <p>
+ * Cada objeto debe dar las mismas violaciones (propiedad y mensaje) que Bean Validation. Los objetos
+ * válidos con restricciones compiladas ({@link NotNull}, {@link NotBlank}, {@link Size}) no deben pasar
+ * por el {@link Validator}; las propiedades con restricciones no soportadas o de otros grupos se validan
+ * con {@link Validator#validateProperty} y las clases con restricciones a nivel de clase, completas.
+ */
+class CompiledValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+
+    @BeforeAll
+    static void buildValidatorFactory() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        validatorFactory.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "r-1, Created, ab, 2",
+        "r-1, Created, abcde,",
+        "r-1, Created, ,",
+        ", Created, ab, 0",
+        "r-1, '', ab,",
+        "r-1, '   ', ab,",
+        "r-1, '\t\n', ab,",
+        "r-1, ' ', ab,",
+        "r-1, Created, a,",
+        "r-1, Created, abcdef,",
+        "r-1, Created, ab, 3",
+        ", '', abcdef, 3"
+    })
+    void compiledConstraintsMatchBeanValidation(String reference, String status, String code, Integer tags) {
+
+        Validator validator = spy(validatorFactory.getValidator());
+        CompiledValidator<CompiledEvent> compiledValidator = CompiledValidator.compile(validator, CompiledEvent.class);
+
+        CompiledEvent event = new CompiledEvent(reference, status, code, tags == null ? null : Collections.nCopies(tags, "t"));
+        Set<String> expected = violations(validatorFactory.getValidator().validate(event));
+
+        assertEquals(expected, violations(compiledValidator.validate(event).getViolations()), event.toString());
+
+        verify(validator, never()).validateProperty(any(), anyString());
+        verify(validator, times(expected.isEmpty() ? 0 : 1)).validate(event);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "ABC, Created",
+        "abc, Created",
+        ", Created",
+        "ABC, ' '",
+        "abc, ''"
+    })
+    void unsupportedConstraintsFallBackToProperty(String reference, String status) {
+
+        Validator validator = spy(validatorFactory.getValidator());
+        CompiledValidator<FallbackEvent> compiledValidator = CompiledValidator.compile(validator, FallbackEvent.class);
+
+        FallbackEvent event = new FallbackEvent(reference, status);
+        Set<String> expected = violations(validatorFactory.getValidator().validate(event));
+
+        assertEquals(expected, violations(compiledValidator.validate(event).getViolations()), event.toString());
+
+        // status se comprueba compilado; si falla no se llega a las propiedades con Bean Validation
+        verify(validator, never()).validateProperty(any(), eq("status"));
+        verify(validator, status.isBlank() ? never() : atLeastOnce()).validateProperty(event, "reference");
+        verify(validator, times(expected.isEmpty() ? 0 : 1)).validate(event);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "r-1, r-1",
+        "r-1, r-2",
+        ", r-2",
+        ","
+    })
+    void classLevelConstraintsValidateWholeBean(String reference, String parentReference) {
+
+        Validator validator = spy(validatorFactory.getValidator());
+        CompiledValidator<LinkedEvent> compiledValidator = CompiledValidator.compile(validator, LinkedEvent.class);
+
+        LinkedEvent event = new LinkedEvent(reference, parentReference);
+
+        assertEquals(violations(validatorFactory.getValidator().validate(event)),
+                violations(compiledValidator.validate(event).getViolations()), event.toString());
+
+        verify(validator).validate(event);
+        verify(validator, never()).validateProperty(any(), anyString());
+    }
+
+    private static <T> Set<String> violations(Set<ConstraintViolation<T>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Solo restricciones compiladas.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class CompiledEvent {
+
+        @NotNull
+        private String reference;
+
+        @NotBlank
+        private String status;
+
+        @Size(min = 2, max = 5)
+        private String code;
+
+        @Size(max = 2)
+        private List<String> tags;
+    }
+
+    /**
+     * {@code reference} con una restricción no soportada y {@code note} con una restricción de otro grupo.
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class FallbackEvent {
+
+        @NotNull
+        @Pattern(regexp = "[A-Z]+")
+        private final String reference;
+
+        @NotBlank
+        private final String status;
+
+        @NotNull(groups = Strict.class)
+        private String note;
+    }
+
+    /**
+     * Restricción a nivel de clase además de una compilable.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    @DistinctParent
+    public static class LinkedEvent {
+
+        @NotNull
+        private String reference;
+
+        private String parentReference;
+    }
+
+    interface Strict {
+    }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Constraint(validatedBy = DistinctParentValidator.class)
+    @interface DistinctParent {
+
+        String message() default "La referencia padre debe ser distinta";
+
+        Class<?>[] groups() default {};
+
+        Class<? extends Payload>[] payload() default {};
+    }
+
+    public static class DistinctParentValidator implements ConstraintValidator<DistinctParent, LinkedEvent> {
+
+        @Override
+        public boolean isValid(LinkedEvent event, ConstraintValidatorContext context) {
+            return event.getReference() == null || !event.getReference().equals(event.getParentReference());
+        }
+    }
+}